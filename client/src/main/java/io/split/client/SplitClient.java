@@ -268,6 +268,27 @@ public interface SplitClient {
      */
     Map<String, SplitResult> getTreatmentsWithConfig(Key key, List<String> featureFlagNames, Map<String, Object> attributes);
 
+    /**
+     * Evaluates a single feature flag for many keys in one call, returning the treatments in the same order as
+     * the keys. This is meant for batch jobs (e.g. exporting an audience) where the feature flag is the same
+     * for every key: the feature flag is fetched and validated once, and the impressions of all the keys are
+     * tracked together.
+     * <p/>
+     * <p/>
+     * The treatment for a key is 'control' under the same circumstances as {@link #getTreatment(Key, String, Map)},
+     * including when that particular key is null or invalid. No impression is generated for invalid keys.
+     * <p/>
+     * <p/>
+     * This method does not throw any exceptions. It also never returns null.
+     *
+     * @param keys the matching and bucketing keys to evaluate. MUST NOT be null.
+     * @param featureFlagName the name of the feature flag we want to evaluate. MUST NOT be null.
+     * @param attributes of the entities to use in evaluation, shared by all keys. Can be null or empty.
+     *
+     * @return for each key, in order, the evaluated treatment, the default treatment of the feature flag, or 'control'.
+     */
+    List<String> getTreatmentsForKeys(List<Key> keys, String featureFlagName, Map<String, Object> attributes);
+
     /**
      * Destroys the background processes and clears the cache, releasing the resources used by
      * the any instances of SplitClient or SplitManager generated by the client's parent SplitFactory
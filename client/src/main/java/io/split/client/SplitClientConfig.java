@@ -3,7 +3,10 @@ package io.split.client;
 import io.split.client.impressions.ImpressionListener;
 import io.split.client.impressions.ImpressionsManager;
 import io.split.integrations.IntegrationsConfig;
+import io.split.storages.enums.ImpressionsQueueType;
 import io.split.storages.enums.OperationMode;
+import io.split.storages.enums.PluggableStorageEncoding;
+import io.split.storages.enums.SegmentStorageMode;
 import io.split.storages.enums.StorageMode;
 import org.apache.hc.core5.http.HttpHost;
 import pluggable.CustomStorageWrapper;
@@ -71,6 +74,30 @@ public class SplitClientConfig {
     private final CustomStorageWrapper _customStorageWrapper;
     private final StorageMode _storageMode;
     private final ThreadFactory _threadFactory;
+    private final long _consumerSegmentReplicationMaxKeys;
+    private final int _consumerSegmentReplicationRefreshRate;
+    private final long _consumerWriteFlushIntervalInMillis;
+    private final int _consumerWriteBatchSize;
+    private final int _consumerWriteQueueSize;
+    private final int _consumerTelemetryFlushRate;
+    private final boolean _spoolFsync;
+    private final long _spoolQuotaBytes;
+    private final String _spoolDirectory;
+    private final int _bulkPostConcurrency;
+    private final long _bulkPostMaxBytes;
+    private final int _bulkPostMaxItems;
+    private final boolean _gzipBulkPosts;
+    private final long _impressionsBufferFlushIntervalInMillis;
+    private final int _impressionsBufferSize;
+    private final ImpressionsQueueType _impressionsQueueType;
+    private final PluggableStorageEncoding _pluggableStorageEncoding;
+    private final int _consumerSegmentCacheRefreshRate;
+    private final int _consumerSegmentCacheTtl;
+    private final int _consumerSegmentCacheSize;
+    private final int _consumerSplitCacheRefreshRate;
+    private final String _segmentStorageDirectory;
+    private final SegmentStorageMode _segmentStorageMode;
+    private final int _parallelEvaluationThreshold;
 
     // Proxy configs
     private final HttpHost _proxy;
@@ -133,7 +160,31 @@ public class SplitClientConfig {
                               int uniqueKeysRefreshRateRedis,
                               int filterUniqueKeysRefreshRate,
                               long lastSeenCacheSize,
-                              ThreadFactory threadFactory) {
+                              ThreadFactory threadFactory,
+                              int parallelEvaluationThreshold,
+                              SegmentStorageMode segmentStorageMode,
+                              String segmentStorageDirectory,
+                              int consumerSplitCacheRefreshRate,
+                              int consumerSegmentCacheSize,
+                              int consumerSegmentCacheTtl,
+                              int consumerSegmentCacheRefreshRate,
+                              PluggableStorageEncoding pluggableStorageEncoding,
+                              ImpressionsQueueType impressionsQueueType,
+                              int impressionsBufferSize,
+                              long impressionsBufferFlushIntervalInMillis,
+                              boolean gzipBulkPosts,
+                              int bulkPostMaxItems,
+                              long bulkPostMaxBytes,
+                              int bulkPostConcurrency,
+                              String spoolDirectory,
+                              long spoolQuotaBytes,
+                              boolean spoolFsync,
+                              int consumerTelemetryFlushRate,
+                              int consumerWriteQueueSize,
+                              int consumerWriteBatchSize,
+                              long consumerWriteFlushIntervalInMillis,
+                              int consumerSegmentReplicationRefreshRate,
+                              long consumerSegmentReplicationMaxKeys) {
         _endpoint = endpoint;
         _eventsEndpoint = eventsEndpoint;
         _featuresRefreshRate = pollForFeatureChangesEveryNSeconds;
@@ -182,6 +233,30 @@ public class SplitClientConfig {
         _customStorageWrapper = customStorageWrapper;
         _lastSeenCacheSize = lastSeenCacheSize;
         _threadFactory = threadFactory;
+        _parallelEvaluationThreshold = parallelEvaluationThreshold;
+        _segmentStorageMode = segmentStorageMode;
+        _segmentStorageDirectory = segmentStorageDirectory;
+        _consumerSplitCacheRefreshRate = consumerSplitCacheRefreshRate;
+        _consumerSegmentCacheSize = consumerSegmentCacheSize;
+        _consumerSegmentCacheTtl = consumerSegmentCacheTtl;
+        _consumerSegmentCacheRefreshRate = consumerSegmentCacheRefreshRate;
+        _pluggableStorageEncoding = pluggableStorageEncoding;
+        _impressionsQueueType = impressionsQueueType;
+        _impressionsBufferSize = impressionsBufferSize;
+        _impressionsBufferFlushIntervalInMillis = impressionsBufferFlushIntervalInMillis;
+        _gzipBulkPosts = gzipBulkPosts;
+        _bulkPostMaxItems = bulkPostMaxItems;
+        _bulkPostMaxBytes = bulkPostMaxBytes;
+        _bulkPostConcurrency = bulkPostConcurrency;
+        _spoolDirectory = spoolDirectory;
+        _spoolQuotaBytes = spoolQuotaBytes;
+        _spoolFsync = spoolFsync;
+        _consumerTelemetryFlushRate = consumerTelemetryFlushRate;
+        _consumerWriteQueueSize = consumerWriteQueueSize;
+        _consumerWriteBatchSize = consumerWriteBatchSize;
+        _consumerWriteFlushIntervalInMillis = consumerWriteFlushIntervalInMillis;
+        _consumerSegmentReplicationRefreshRate = consumerSegmentReplicationRefreshRate;
+        _consumerSegmentReplicationMaxKeys = consumerSegmentReplicationMaxKeys;
 
 
         Properties props = new Properties();
@@ -364,6 +439,102 @@ public class SplitClientConfig {
         return _threadFactory;
     }
 
+    public int parallelEvaluationThreshold() {
+        return _parallelEvaluationThreshold;
+    }
+
+    public SegmentStorageMode segmentStorageMode() {
+        return _segmentStorageMode;
+    }
+
+    public String segmentStorageDirectory() {
+        return _segmentStorageDirectory;
+    }
+
+    public int consumerSplitCacheRefreshRate() {
+        return _consumerSplitCacheRefreshRate;
+    }
+
+    public int consumerSegmentCacheSize() {
+        return _consumerSegmentCacheSize;
+    }
+
+    public int consumerSegmentCacheTtl() {
+        return _consumerSegmentCacheTtl;
+    }
+
+    public int consumerSegmentCacheRefreshRate() {
+        return _consumerSegmentCacheRefreshRate;
+    }
+
+    public PluggableStorageEncoding pluggableStorageEncoding() {
+        return _pluggableStorageEncoding;
+    }
+
+    public ImpressionsQueueType impressionsQueueType() {
+        return _impressionsQueueType;
+    }
+
+    public int impressionsBufferSize() {
+        return _impressionsBufferSize;
+    }
+
+    public long impressionsBufferFlushIntervalInMillis() {
+        return _impressionsBufferFlushIntervalInMillis;
+    }
+
+    public boolean gzipBulkPosts() {
+        return _gzipBulkPosts;
+    }
+
+    public int bulkPostMaxItems() {
+        return _bulkPostMaxItems;
+    }
+
+    public long bulkPostMaxBytes() {
+        return _bulkPostMaxBytes;
+    }
+
+    public int bulkPostConcurrency() {
+        return _bulkPostConcurrency;
+    }
+
+    public String spoolDirectory() {
+        return _spoolDirectory;
+    }
+
+    public long spoolQuotaBytes() {
+        return _spoolQuotaBytes;
+    }
+
+    public boolean spoolFsync() {
+        return _spoolFsync;
+    }
+
+    public int consumerTelemetryFlushRate() {
+        return _consumerTelemetryFlushRate;
+    }
+
+    public int consumerWriteQueueSize() {
+        return _consumerWriteQueueSize;
+    }
+
+    public int consumerWriteBatchSize() {
+        return _consumerWriteBatchSize;
+    }
+
+    public long consumerWriteFlushIntervalInMillis() {
+        return _consumerWriteFlushIntervalInMillis;
+    }
+
+    public int consumerSegmentReplicationRefreshRate() {
+        return _consumerSegmentReplicationRefreshRate;
+    }
+
+    public long consumerSegmentReplicationMaxKeys() {
+        return _consumerSegmentReplicationMaxKeys;
+    }
+
     public static final class Builder {
 
         private String _endpoint = SDK_ENDPOINT;
@@ -417,6 +588,30 @@ public class SplitClientConfig {
         private StorageMode _storageMode = StorageMode.MEMORY;
         private final long _lastSeenCacheSize = 500000;
         private ThreadFactory _threadFactory;
+        private int _parallelEvaluationThreshold = 0;
+        private SegmentStorageMode _segmentStorageMode = SegmentStorageMode.MEMORY;
+        private String _segmentStorageDirectory = null;
+        private int _consumerSplitCacheRefreshRate = 0;
+        private int _consumerSegmentCacheSize = 0;
+        private int _consumerSegmentCacheTtl = 300;
+        private int _consumerSegmentCacheRefreshRate = 10;
+        private PluggableStorageEncoding _pluggableStorageEncoding = PluggableStorageEncoding.JSON;
+        private ImpressionsQueueType _impressionsQueueType = ImpressionsQueueType.BLOCKING_QUEUE;
+        private int _impressionsBufferSize = 0;
+        private long _impressionsBufferFlushIntervalInMillis = 1000;
+        private boolean _gzipBulkPosts = false;
+        private int _bulkPostMaxItems = 0;
+        private long _bulkPostMaxBytes = 0;
+        private int _bulkPostConcurrency = 1;
+        private String _spoolDirectory = null;
+        private long _spoolQuotaBytes = 256L * 1024 * 1024;
+        private boolean _spoolFsync = false;
+        private int _consumerTelemetryFlushRate = 0;
+        private int _consumerWriteQueueSize = 0;
+        private int _consumerWriteBatchSize = 500;
+        private long _consumerWriteFlushIntervalInMillis = 1000;
+        private int _consumerSegmentReplicationRefreshRate = 0;
+        private long _consumerSegmentReplicationMaxKeys = 5000000;
 
         public Builder() {
         }
@@ -882,6 +1077,351 @@ public class SplitClientConfig {
             return this;
         }
 
+        /**
+         * Number of keys from which {@link SplitClient#getTreatmentsForKeys} spreads the evaluation across the
+         * common ForkJoinPool instead of running it on the calling thread. Zero or less, the default, disables it.
+         * <p>
+         * Only enable this when segment and feature flag lookups are in memory, since storage lookups would block
+         * the shared pool threads.
+         * <p>
+         * This is an ADVANCED parameter.
+         *
+         * @param keys minimum amount of keys to evaluate in parallel.
+         * @return this builder
+         */
+        public Builder parallelEvaluationThreshold(int keys) {
+            _parallelEvaluationThreshold = keys;
+            return this;
+        }
+
+        /**
+         * How segment members are kept in memory. COMPACT stores them in an immutable UTF-8 arena
+         * with a hash index, which uses far less memory for large segments at the cost of
+         * rebuilding the segment on each change. MEMORY_MAPPED keeps them off-heap in files under
+         * {@link #segmentStorageDirectory(String)}, which are reused when the process restarts.
+         *
+         * Default: MEMORY
+         *
+         * @param mode
+         * @return this builder
+         */
+        public Builder segmentStorageMode(SegmentStorageMode mode) {
+            _segmentStorageMode = mode;
+            return this;
+        }
+
+        /**
+         * Directory holding the segment files when using SegmentStorageMode.MEMORY_MAPPED.
+         * Segments found there on start up are loaded instead of being downloaded again. Each SDK key keeps its
+         * files in its own subdirectory, named after a hash of the key.
+         *
+         * @param directory
+         * @return this builder
+         */
+        public Builder segmentStorageDirectory(String directory) {
+            _segmentStorageDirectory = directory;
+            return this;
+        }
+
+        /**
+         * In consumer mode, keep parsed feature flags in memory and only read them from the
+         * storage again after the split change number stored there moves. The change number is
+         * polled every {@code seconds}; 0 disables the cache and every evaluation reads the storage.
+         *
+         * Default: 0
+         *
+         * @param seconds
+         * @return this builder
+         */
+        public Builder consumerSplitCacheRefreshRate(int seconds) {
+            _consumerSplitCacheRefreshRate = seconds;
+            return this;
+        }
+
+        /**
+         * In consumer mode, the maximum number of segment membership answers kept in memory. Answers
+         * are dropped when the change number of their segment moves, see
+         * {@link #consumerSegmentCacheRefreshRate(int)}, or after {@link #consumerSegmentCacheTtl(int)}.
+         * 0 disables the cache and every evaluation reads the storage.
+         *
+         * Default: 0
+         *
+         * @param size
+         * @return this builder
+         */
+        public Builder consumerSegmentCacheSize(int size) {
+            _consumerSegmentCacheSize = size;
+            return this;
+        }
+
+        /**
+         * Seconds a cached segment membership answer is used before reading it again from the storage.
+         *
+         * Default: 300
+         *
+         * @param seconds
+         * @return this builder
+         */
+        public Builder consumerSegmentCacheTtl(int seconds) {
+            _consumerSegmentCacheTtl = seconds;
+            return this;
+        }
+
+        /**
+         * How often, in seconds, the change numbers of the cached segments are read from the storage.
+         *
+         * Default: 10
+         *
+         * @param seconds
+         * @return this builder
+         */
+        public Builder consumerSegmentCacheRefreshRate(int seconds) {
+            _consumerSegmentCacheRefreshRate = seconds;
+            return this;
+        }
+
+        /**
+         * How impressions and events are written to the custom storage in consumer mode. COMPACT writes each
+         * batch as a single list item with the metadata and repeated names written once, which takes far less
+         * space and encoding time than the JSON envelope per item, but needs a synchronizer able to decode it.
+         *
+         * Default: JSON
+         *
+         * @param encoding
+         * @return this builder
+         */
+        public Builder pluggableStorageEncoding(PluggableStorageEncoding encoding) {
+            _pluggableStorageEncoding = encoding;
+            return this;
+        }
+
+        /**
+         * Queue that holds impressions in memory until they are posted. RING_BUFFER lets many threads put
+         * impressions without taking a lock, which helps when evaluations run on a lot of threads at once.
+         *
+         * Default: BLOCKING_QUEUE
+         *
+         * @param impressionsQueueType
+         * @return this builder
+         */
+        public Builder impressionsQueueType(ImpressionsQueueType impressionsQueueType) {
+            _impressionsQueueType = impressionsQueueType;
+            return this;
+        }
+
+        /**
+         * Number of impressions each evaluating thread stages before handing them over as one batch to
+         * deduplication and the impressions queue. Batches are also handed over every
+         * impressionsBufferFlushIntervalInMillis and when the factory is destroyed.
+         *
+         * Default: 0 (disabled, every evaluation is tracked on its own)
+         *
+         * @param impressionsBufferSize MUST be >= 0.
+         * @return this builder
+         */
+        public Builder impressionsBufferSize(int impressionsBufferSize) {
+            _impressionsBufferSize = impressionsBufferSize;
+            return this;
+        }
+
+        /**
+         * How often staged impressions are handed over when impressionsBufferSize is set.
+         *
+         * Default: 1000
+         *
+         * @param impressionsBufferFlushIntervalInMillis MUST be > 0.
+         * @return this builder
+         */
+        public Builder impressionsBufferFlushIntervalInMillis(long impressionsBufferFlushIntervalInMillis) {
+            _impressionsBufferFlushIntervalInMillis = impressionsBufferFlushIntervalInMillis;
+            return this;
+        }
+
+        /**
+         * Gzip the body of impression and event bulk posts. Bodies are always streamed to the connection as they
+         * are serialized; compressing them also cuts the bytes sent, at some CPU cost.
+         *
+         * Default: false
+         *
+         * @param gzipBulkPosts
+         * @return this builder
+         */
+        public Builder gzipBulkPosts(boolean gzipBulkPosts) {
+            _gzipBulkPosts = gzipBulkPosts;
+            return this;
+        }
+
+        /**
+         * Most impressions or events sent in one bulk post. A flush drains the queue in chunks of this size
+         * instead of popping it whole into a single request.
+         *
+         * Default: 0 (no limit)
+         *
+         * @param bulkPostMaxItems MUST be >= 0.
+         * @return this builder
+         */
+        public Builder bulkPostMaxItems(int bulkPostMaxItems) {
+            _bulkPostMaxItems = bulkPostMaxItems;
+            return this;
+        }
+
+        /**
+         * Approximate most bytes sent in one impressions or events bulk post. Larger chunks are split
+         * before posting.
+         *
+         * Default: 0 (no limit)
+         *
+         * @param bulkPostMaxBytes MUST be >= 0.
+         * @return this builder
+         */
+        public Builder bulkPostMaxBytes(long bulkPostMaxBytes) {
+            _bulkPostMaxBytes = bulkPostMaxBytes;
+            return this;
+        }
+
+        /**
+         * Impressions or events bulk posts allowed in flight at the same time. A flush waits for a free slot
+         * before taking the next chunk from the queue.
+         *
+         * Default: 1
+         *
+         * @param bulkPostConcurrency MUST be > 0.
+         * @return this builder
+         */
+        public Builder bulkPostConcurrency(int bulkPostConcurrency) {
+            _bulkPostConcurrency = bulkPostConcurrency;
+            return this;
+        }
+
+        /**
+         * Directory where impressions and events that could not be posted, or did not fit in their queue, are
+         * spooled to disk and posted again later with backoff. Spooled data left by a previous run is posted too.
+         * Each SDK key spools to its own subdirectory, named after a hash of the key, so data is only posted with
+         * the key it was tracked with.
+         *
+         * Default: null (disabled)
+         *
+         * @param spoolDirectory
+         * @return this builder
+         */
+        public Builder spoolDirectory(String spoolDirectory) {
+            _spoolDirectory = spoolDirectory;
+            return this;
+        }
+
+        /**
+         * Most disk space taken by each of the impressions and events spools. Data that would go over it is dropped.
+         *
+         * Default: 256 MB
+         *
+         * @param spoolQuotaBytes MUST be > 0.
+         * @return this builder
+         */
+        public Builder spoolQuotaBytes(long spoolQuotaBytes) {
+            _spoolQuotaBytes = spoolQuotaBytes;
+            return this;
+        }
+
+        /**
+         * Force every spool write to disk before going on. Without it spooled data survives a process crash
+         * but may be lost if the machine goes down.
+         *
+         * Default: false
+         *
+         * @param spoolFsync
+         * @return this builder
+         */
+        public Builder spoolFsync(boolean spoolFsync) {
+            _spoolFsync = spoolFsync;
+            return this;
+        }
+
+        /**
+         * Seconds between flushes of consumer mode latencies and exceptions, which are counted in process and
+         * added to the custom storage in one pipeline, instead of one storage call per evaluation. They are
+         * also flushed when the factory is destroyed.
+         *
+         * Default: 0 (disabled, every evaluation increments the storage)
+         *
+         * @param consumerTelemetryFlushRate MUST be >= 0.
+         * @return this builder
+         */
+        public Builder consumerTelemetryFlushRate(int consumerTelemetryFlushRate) {
+            _consumerTelemetryFlushRate = consumerTelemetryFlushRate;
+            return this;
+        }
+
+        /**
+         * Size of the queues that hold impressions and events in consumer mode until a background writer
+         * pushes them to the custom storage in batches. When a queue is full new items are dropped and
+         * reported to telemetry, so evaluations and tracks never wait on the storage.
+         *
+         * Default: 0 (disabled, every evaluation and track pushes to the storage on the caller's thread)
+         *
+         * @param consumerWriteQueueSize MUST be >= 0.
+         * @return this builder
+         */
+        public Builder consumerWriteQueueSize(int consumerWriteQueueSize) {
+            _consumerWriteQueueSize = consumerWriteQueueSize;
+            return this;
+        }
+
+        /**
+         * Most impressions or events pushed to the custom storage in one call by the background writers.
+         * A full batch is written right away.
+         *
+         * Default: 500
+         *
+         * @param consumerWriteBatchSize MUST be > 0.
+         * @return this builder
+         */
+        public Builder consumerWriteBatchSize(int consumerWriteBatchSize) {
+            _consumerWriteBatchSize = consumerWriteBatchSize;
+            return this;
+        }
+
+        /**
+         * Milliseconds between writes of partial batches by the background writers.
+         *
+         * Default: 1000
+         *
+         * @param consumerWriteFlushIntervalInMillis MUST be > 0.
+         * @return this builder
+         */
+        public Builder consumerWriteFlushIntervalInMillis(long consumerWriteFlushIntervalInMillis) {
+            _consumerWriteFlushIntervalInMillis = consumerWriteFlushIntervalInMillis;
+            return this;
+        }
+
+        /**
+         * Seconds between polls of the change numbers of segments replicated in memory in consumer mode. A
+         * segment is replicated whole the first time it is evaluated and scanned again when its change number
+         * advances, so membership lookups no longer reach the custom storage. Needs a storage that can scan
+         * sets, and replaces the segment membership cache.
+         *
+         * Default: 0 (disabled, lookups go to the storage)
+         *
+         * @param consumerSegmentReplicationRefreshRate MUST be >= 0.
+         * @return this builder
+         */
+        public Builder consumerSegmentReplicationRefreshRate(int consumerSegmentReplicationRefreshRate) {
+            _consumerSegmentReplicationRefreshRate = consumerSegmentReplicationRefreshRate;
+            return this;
+        }
+
+        /**
+         * Most keys a segment may hold to be replicated in memory. Larger segments keep using storage lookups.
+         *
+         * Default: 5000000
+         *
+         * @param consumerSegmentReplicationMaxKeys MUST be > 0.
+         * @return this builder
+         */
+        public Builder consumerSegmentReplicationMaxKeys(long consumerSegmentReplicationMaxKeys) {
+            _consumerSegmentReplicationMaxKeys = consumerSegmentReplicationMaxKeys;
+            return this;
+        }
+
         public SplitClientConfig build() {
             if (_featuresRefreshRate < 5 ) {
                 throw new IllegalArgumentException("featuresRefreshRate must be >= 5: " + _featuresRefreshRate);
@@ -979,6 +1519,89 @@ public class SplitClientConfig {
                 _storageMode = StorageMode.PLUGGABLE;
             }
 
+            if (_segmentStorageMode == null) {
+                _segmentStorageMode = SegmentStorageMode.MEMORY;
+            }
+
+            if (SegmentStorageMode.MEMORY_MAPPED.equals(_segmentStorageMode)
+                    && (_segmentStorageDirectory == null || _segmentStorageDirectory.isEmpty())) {
+                throw new IllegalArgumentException("segmentStorageDirectory is required when using MEMORY_MAPPED segment storage");
+            }
+
+            if (_consumerSplitCacheRefreshRate < 0) {
+                throw new IllegalArgumentException("consumerSplitCacheRefreshRate must be >= 0: " + _consumerSplitCacheRefreshRate);
+            }
+
+            if (_consumerSegmentCacheSize < 0) {
+                throw new IllegalArgumentException("consumerSegmentCacheSize must be >= 0: " + _consumerSegmentCacheSize);
+            }
+
+            if (_consumerSegmentCacheTtl <= 0) {
+                throw new IllegalArgumentException("consumerSegmentCacheTtl must be > 0: " + _consumerSegmentCacheTtl);
+            }
+
+            if (_consumerSegmentCacheRefreshRate <= 0) {
+                throw new IllegalArgumentException("consumerSegmentCacheRefreshRate must be > 0: " + _consumerSegmentCacheRefreshRate);
+            }
+
+            if (_pluggableStorageEncoding == null) {
+                _pluggableStorageEncoding = PluggableStorageEncoding.JSON;
+            }
+
+            if (_impressionsQueueType == null) {
+                _impressionsQueueType = ImpressionsQueueType.BLOCKING_QUEUE;
+            }
+
+            if (_impressionsBufferSize < 0) {
+                throw new IllegalArgumentException("impressionsBufferSize must be >= 0: " + _impressionsBufferSize);
+            }
+
+            if (_impressionsBufferFlushIntervalInMillis <= 0) {
+                throw new IllegalArgumentException("impressionsBufferFlushIntervalInMillis must be > 0: "
+                        + _impressionsBufferFlushIntervalInMillis);
+            }
+
+            if (_bulkPostMaxItems < 0) {
+                throw new IllegalArgumentException("bulkPostMaxItems must be >= 0: " + _bulkPostMaxItems);
+            }
+
+            if (_bulkPostMaxBytes < 0) {
+                throw new IllegalArgumentException("bulkPostMaxBytes must be >= 0: " + _bulkPostMaxBytes);
+            }
+
+            if (_bulkPostConcurrency <= 0) {
+                throw new IllegalArgumentException("bulkPostConcurrency must be > 0: " + _bulkPostConcurrency);
+            }
+
+            if (_spoolQuotaBytes <= 0) {
+                throw new IllegalArgumentException("spoolQuotaBytes must be > 0: " + _spoolQuotaBytes);
+            }
+
+            if (_consumerTelemetryFlushRate < 0) {
+                throw new IllegalArgumentException("consumerTelemetryFlushRate must be >= 0: " + _consumerTelemetryFlushRate);
+            }
+
+            if (_consumerWriteQueueSize < 0) {
+                throw new IllegalArgumentException("consumerWriteQueueSize must be >= 0: " + _consumerWriteQueueSize);
+            }
+
+            if (_consumerWriteBatchSize <= 0) {
+                throw new IllegalArgumentException("consumerWriteBatchSize must be > 0: " + _consumerWriteBatchSize);
+            }
+
+            if (_consumerWriteFlushIntervalInMillis <= 0) {
+                throw new IllegalArgumentException("consumerWriteFlushIntervalInMillis must be > 0: " + _consumerWriteFlushIntervalInMillis);
+            }
+
+            if (_consumerSegmentReplicationRefreshRate < 0) {
+                throw new IllegalArgumentException("consumerSegmentReplicationRefreshRate must be >= 0: "
+                        + _consumerSegmentReplicationRefreshRate);
+            }
+
+            if (_consumerSegmentReplicationMaxKeys <= 0) {
+                throw new IllegalArgumentException("consumerSegmentReplicationMaxKeys must be > 0: " + _consumerSegmentReplicationMaxKeys);
+            }
+
             return new SplitClientConfig(
                     _endpoint,
                     _eventsEndpoint,
@@ -1027,7 +1650,31 @@ public class SplitClientConfig {
                     _uniqueKeysRefreshRateRedis,
                     _filterUniqueKeysRefreshRate,
                     _lastSeenCacheSize,
-                    _threadFactory);
+                    _threadFactory,
+                    _parallelEvaluationThreshold,
+                    _segmentStorageMode,
+                    _segmentStorageDirectory,
+                    _consumerSplitCacheRefreshRate,
+                    _consumerSegmentCacheSize,
+                    _consumerSegmentCacheTtl,
+                    _consumerSegmentCacheRefreshRate,
+                    _pluggableStorageEncoding,
+                    _impressionsQueueType,
+                    _impressionsBufferSize,
+                    _impressionsBufferFlushIntervalInMillis,
+                    _gzipBulkPosts,
+                    _bulkPostMaxItems,
+                    _bulkPostMaxBytes,
+                    _bulkPostConcurrency,
+                    _spoolDirectory,
+                    _spoolQuotaBytes,
+                    _spoolFsync,
+                    _consumerTelemetryFlushRate,
+                    _consumerWriteQueueSize,
+                    _consumerWriteBatchSize,
+                    _consumerWriteFlushIntervalInMillis,
+                    _consumerSegmentReplicationRefreshRate,
+                    _consumerSegmentReplicationMaxKeys);
         }
     }
 }
\ No newline at end of file
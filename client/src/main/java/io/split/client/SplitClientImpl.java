@@ -30,7 +30,6 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.TimeoutException;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
@@ -43,6 +42,7 @@ public final class SplitClientImpl implements SplitClient {
     public static final SplitResult SPLIT_RESULT_CONTROL = new SplitResult(Treatments.CONTROL, null);
 
     private static final Logger _log = LoggerFactory.getLogger(SplitClientImpl.class);
+    private static final String TREATMENTS_FOR_KEYS = "getTreatmentsForKeys";
 
     private final SplitFactory _container;
     private final SplitCacheConsumer _splitCacheConsumer;
@@ -140,6 +140,65 @@ public final class SplitClientImpl implements SplitClient {
                 MethodEnum.TREATMENTS_WITH_CONFIG);
     }
 
+    @Override
+    public List<String> getTreatmentsForKeys(List<Key> keys, String featureFlagName, Map<String, Object> attributes) {
+        long initTime = System.currentTimeMillis();
+        if (keys == null) {
+            _log.error(String.format("%s: keys must be a non-null list", TREATMENTS_FOR_KEYS));
+            return new ArrayList<>();
+        }
+        try {
+            checkSDKReady(MethodEnum.TREATMENTS);
+            if (_container.isDestroyed()) {
+                _log.error("Client has already been destroyed - no calls possible");
+                return Collections.nCopies(keys.size(), Treatments.CONTROL);
+            }
+
+            Optional<String> splitNameResult = SplitNameValidator.isValid(featureFlagName, TREATMENTS_FOR_KEYS);
+            if (!splitNameResult.isPresent()) {
+                return Collections.nCopies(keys.size(), Treatments.CONTROL);
+            }
+            String featureFlag = splitNameResult.get();
+
+            List<EvaluatorImp.TreatmentLabelAndChangeNumber> evaluatorResult = _evaluator.evaluateFeatureForKeys(validKeys(keys),
+                    featureFlag, attributes);
+            List<String> treatments = new ArrayList<>(keys.size());
+            List<Impression> impressions = new ArrayList<>(keys.size());
+            long time = System.currentTimeMillis();
+            for (int i = 0; i < evaluatorResult.size(); i++) {
+                EvaluatorImp.TreatmentLabelAndChangeNumber result = evaluatorResult.get(i);
+                if (result == null) {
+                    treatments.add(Treatments.CONTROL);
+                    continue;
+                }
+                if (isDefinitionNotFound(result) && _gates.isSDKReady()) {
+                    // every key gets the same result when the feature flag is missing.
+                    _log.warn(String.format("%s: you passed \"%s\" that does not exist in this environment, please double check what " +
+                            "feature flags exist in the Split user interface.", TREATMENTS_FOR_KEYS, featureFlag));
+                    return Collections.nCopies(keys.size(), Treatments.CONTROL);
+                }
+                Key key = keys.get(i);
+                treatments.add(result.treatment);
+                impressions.add(new Impression(key.matchingKey(), key.bucketingKey(), featureFlag, result.treatment, time,
+                        _config.labelsEnabled() ? result.label : null, result.changeNumber, attributes));
+            }
+
+            _telemetryEvaluationProducer.recordLatency(MethodEnum.TREATMENTS, System.currentTimeMillis() - initTime);
+            if (!impressions.isEmpty()) {
+                _impressionManager.track(impressions);
+            }
+            return treatments;
+        } catch (Exception e) {
+            try {
+                _telemetryEvaluationProducer.recordException(MethodEnum.TREATMENTS);
+                _log.error("CatchAll Exception", e);
+            } catch (Exception e1) {
+                // ignore
+            }
+            return Collections.nCopies(keys.size(), Treatments.CONTROL);
+        }
+    }
+
     @Override
     public boolean track(String key, String trafficType, String eventType) {
         Event event = createEvent(key, trafficType, eventType);
@@ -247,8 +306,6 @@ public final class SplitClientImpl implements SplitClient {
             }
             featureFlag = splitNameResult.get();
 
-            long start = System.currentTimeMillis();
-
             EvaluatorImp.TreatmentLabelAndChangeNumber result = _evaluator.evaluateFeature(matchingKey, bucketingKey, featureFlag, attributes);
 
             if (result.treatment.equals(Treatments.CONTROL) && result.label.equals(Labels.DEFINITION_NOT_FOUND) && _gates.isSDKReady()) {
@@ -262,9 +319,7 @@ public final class SplitClientImpl implements SplitClient {
                     matchingKey,
                     bucketingKey,
                     featureFlag,
-                    start,
                     result.treatment,
-                    String.format("sdk.%s", methodEnum.getMethod()),
                     _config.labelsEnabled() ? result.label : null,
                     result.changeNumber,
                     attributes
@@ -341,16 +396,41 @@ public final class SplitClientImpl implements SplitClient {
         }
     }
 
-    private void recordStats(String matchingKey, String bucketingKey, String featureFlagName, long start, String result,
-                             String operation, String label, Long changeNumber, Map<String, Object> attributes) {
+    private void recordStats(String matchingKey, String bucketingKey, String featureFlagName, String result, String label,
+                             Long changeNumber, Map<String, Object> attributes) {
         try {
-            _impressionManager.track(Stream.of(new Impression(matchingKey, bucketingKey, featureFlagName, result, System.currentTimeMillis(),
-                    label, changeNumber, attributes)).collect(Collectors.toList()));
+            _impressionManager.track(Collections.singletonList(new Impression(matchingKey, bucketingKey, featureFlagName, result,
+                    System.currentTimeMillis(), label, changeNumber, attributes)));
         } catch (Throwable t) {
             _log.error("Exception", t);
         }
     }
 
+    /**
+     * Returns the keys to evaluate, with the ones that fail validation replaced by null. The list is only copied
+     * when an invalid key is found.
+     */
+    private List<Key> validKeys(List<Key> keys) {
+        List<Key> valid = keys;
+        for (int i = 0; i < keys.size(); i++) {
+            Key key = keys.get(i);
+            if (key != null
+                    && KeyValidator.isValid(key.matchingKey(), "matchingKey", _config.maxStringLength(), TREATMENTS_FOR_KEYS)
+                    && KeyValidator.bucketingKeyIsValid(key.bucketingKey(), _config.maxStringLength(), TREATMENTS_FOR_KEYS)) {
+                continue;
+            }
+            if (valid == keys) {
+                valid = new ArrayList<>(keys);
+            }
+            valid.set(i, null);
+        }
+        return valid;
+    }
+
+    private static boolean isDefinitionNotFound(EvaluatorImp.TreatmentLabelAndChangeNumber result) {
+        return Treatments.CONTROL.equals(result.treatment) && Labels.DEFINITION_NOT_FOUND.equals(result.label);
+    }
+
     private Event createEvent(String key, String trafficType, String eventType) {
         Event event = new Event();
         event.eventTypeId = eventType;
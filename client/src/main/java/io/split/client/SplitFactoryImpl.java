@@ -1,12 +1,18 @@
 package io.split.client;
 
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.hash.Hashing;
+import io.split.client.dtos.Event;
+import io.split.client.dtos.KeyImpression;
 import io.split.client.dtos.Metadata;
+import io.split.client.dtos.TestImpressions;
 import io.split.client.events.EventsSender;
 import io.split.client.events.EventsStorage;
 import io.split.client.events.EventsTask;
 import io.split.client.events.InMemoryEventsStorage;
 import io.split.client.events.NoopEventsStorageImp;
 import io.split.client.impressions.AsynchronousImpressionListener;
+import io.split.client.impressions.BufferedImpressionsManager;
 import io.split.client.impressions.HttpImpressionsSender;
 import io.split.client.impressions.ImpressionCounter;
 import io.split.client.impressions.ImpressionListener;
@@ -19,6 +25,7 @@ import io.split.client.impressions.ImpressionsStorageConsumer;
 import io.split.client.impressions.ImpressionsStorageProducer;
 import io.split.client.impressions.InMemoryImpressionsStorage;
 import io.split.client.impressions.PluggableImpressionSender;
+import io.split.client.impressions.RingBufferImpressionsStorage;
 import io.split.client.impressions.UniqueKeysTracker;
 import io.split.client.impressions.UniqueKeysTrackerImp;
 import io.split.client.impressions.strategy.ProcessImpressionDebug;
@@ -30,6 +37,7 @@ import io.split.client.interceptors.ClientKeyInterceptorFilter;
 import io.split.client.interceptors.GzipDecoderResponseInterceptor;
 import io.split.client.interceptors.GzipEncoderRequestInterceptor;
 import io.split.client.interceptors.SdkMetadataInterceptorFilter;
+import io.split.client.utils.Json;
 import io.split.client.utils.SDKMetadata;
 import io.split.engine.SDKReadinessGates;
 import io.split.engine.common.ConsumerSyncManager;
@@ -57,10 +65,19 @@ import io.split.storages.SegmentCacheProducer;
 import io.split.storages.SplitCache;
 import io.split.storages.SplitCacheConsumer;
 import io.split.storages.SplitCacheProducer;
+import io.split.storages.enums.ImpressionsQueueType;
 import io.split.storages.enums.OperationMode;
+import io.split.storages.enums.SegmentStorageMode;
 import io.split.storages.memory.InMemoryCacheImp;
+import io.split.storages.memory.SegmentCacheCompactImpl;
 import io.split.storages.memory.SegmentCacheInMemoryImpl;
+import io.split.storages.memory.SegmentCacheMappedImpl;
+import io.split.storages.pluggable.adapters.ReplicatedSegmentAdapterConsumer;
 import io.split.storages.pluggable.adapters.UserCustomEventAdapterProducer;
+import io.split.storages.pluggable.adapters.AsyncEventAdapterProducer;
+import io.split.storages.pluggable.adapters.AsyncImpressionAdapterProducer;
+import io.split.storages.pluggable.adapters.CachedSegmentAdapterConsumer;
+import io.split.storages.pluggable.adapters.CachedSplitAdapterConsumer;
 import io.split.storages.pluggable.adapters.UserCustomImpressionAdapterConsumer;
 import io.split.storages.pluggable.adapters.UserCustomImpressionAdapterProducer;
 import io.split.storages.pluggable.adapters.UserCustomSegmentAdapterConsumer;
@@ -68,6 +85,7 @@ import io.split.storages.pluggable.adapters.UserCustomSplitAdapterConsumer;
 import io.split.storages.pluggable.adapters.UserCustomTelemetryAdapterProducer;
 import io.split.storages.pluggable.domain.UserStorageWrapper;
 import io.split.storages.pluggable.synchronizer.TelemetryConsumerSubmitter;
+import io.split.storages.spool.DiskSpool;
 import io.split.telemetry.storage.InMemoryTelemetryStorage;
 import io.split.telemetry.storage.NoopTelemetryStorage;
 import io.split.telemetry.storage.TelemetryStorage;
@@ -97,14 +115,19 @@ import org.apache.hc.core5.util.Timeout;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import pluggable.CustomStorageWrapper;
+import pluggable.HasScanSupport;
 
 import java.io.IOException;
 import java.net.InetAddress;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.concurrent.ExecutorService;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 import static io.split.client.utils.SplitExecutorFactory.buildExecutorService;
@@ -145,6 +168,8 @@ public class SplitFactoryImpl implements SplitFactory {
     private final CloseableHttpClient _httpclient;
     private final UserStorageWrapper _userStorageWrapper;
     private final ImpressionsSender _impressionsSender;
+    private final DiskSpool _impressionsSpool;
+    private final DiskSpool _eventsSpool;
     private final URI _rootTarget;
     private final URI _eventsRootTarget;
     private final UniqueKeysTracker _uniqueKeysTracker;
@@ -152,6 +177,8 @@ public class SplitFactoryImpl implements SplitFactory {
     //Constructor for standalone mode
     public SplitFactoryImpl(String apiToken, SplitClientConfig config) throws URISyntaxException {
         _userStorageWrapper = null;
+        _impressionsSpool = buildSpool(config, apiToken, "impressions");
+        _eventsSpool = buildSpool(config, apiToken, "events");
         _operationMode = config.operationMode();
         _startTime = System.currentTimeMillis();
         _apiToken = apiToken;
@@ -179,9 +206,17 @@ public class SplitFactoryImpl implements SplitFactory {
         _eventsRootTarget = URI.create(config.eventsEndpoint());
 
         // Cache Initialisations
-        SegmentCache segmentCache = new SegmentCacheInMemoryImpl();
+        SegmentCache segmentCache = buildSegmentCache(config, apiToken);
         SplitCache splitCache = new InMemoryCacheImp();
-        ImpressionsStorage impressionsStorage = new InMemoryImpressionsStorage(config.impressionsQueueSize());
+        Consumer<List<KeyImpression>> impressionsOverflow = null;
+        if (_impressionsSpool != null) {
+            Consumer<KeyImpression> handOff = _impressionsSpool.handOff(config.impressionsQueueSize(),
+                    batch -> Json.toJson(TestImpressions.fromKeyImpressions(batch)));
+            impressionsOverflow = dropped -> dropped.forEach(handOff);
+        }
+        ImpressionsStorage impressionsStorage = ImpressionsQueueType.RING_BUFFER.equals(config.impressionsQueueType())
+                ? new RingBufferImpressionsStorage(config.impressionsQueueSize(), impressionsOverflow)
+                : new InMemoryImpressionsStorage(config.impressionsQueueSize(), impressionsOverflow);
         _splitCache = splitCache;
         _segmentCache = segmentCache;
         _telemetrySynchronizer = new TelemetryInMemorySubmitter(_httpclient, URI.create(config.telemetryURL()), telemetryStorage,
@@ -201,8 +236,9 @@ public class SplitFactoryImpl implements SplitFactory {
                 config.getThreadFactory());
 
         //ImpressionSender
-        _impressionsSender = HttpImpressionsSender.create(_httpclient, URI.create(config.eventsEndpoint()), config.impressionsMode(),
-                _telemetryStorageProducer);
+        HttpImpressionsSender impressionsSender = HttpImpressionsSender.create(_httpclient, URI.create(config.eventsEndpoint()),
+                config.impressionsMode(), _telemetryStorageProducer, config.gzipBulkPosts(), _impressionsSpool);
+        _impressionsSender = impressionsSender;
 
         //UniqueKeysTracker
         _uniqueKeysTracker = createUniqueKeysTracker(config);
@@ -211,14 +247,21 @@ public class SplitFactoryImpl implements SplitFactory {
         _impressionsManager = buildImpressionsManager(config, impressionsStorage, impressionsStorage);
 
         // EventClient
-        EventsStorage eventsStorage = new InMemoryEventsStorage(config.eventsQueueSize(), _telemetryStorageProducer);
-        EventsSender eventsSender = EventsSender.create(_httpclient, _eventsRootTarget, _telemetryStorageProducer);
-        _eventsTask = EventsTask.create(config.eventSendIntervalInMillis(), eventsStorage, eventsSender, config.getThreadFactory());
+        EventsStorage eventsStorage = new InMemoryEventsStorage(config.eventsQueueSize(), _telemetryStorageProducer,
+                _eventsSpool == null ? null : _eventsSpool.handOff(config.eventsQueueSize(), Json::toJson));
+        EventsSender eventsSender = EventsSender.create(_httpclient, _eventsRootTarget, _telemetryStorageProducer,
+                config.gzipBulkPosts(), _eventsSpool);
+        if (_impressionsSpool != null) {
+            _impressionsSpool.start(record -> impressionsSender.sendImpressionsBulk(Arrays.asList(Json.fromJson(record, TestImpressions[].class))));
+            _eventsSpool.start(record -> eventsSender.send(Arrays.asList(Json.fromJson(record, Event[].class))));
+        }
+        _eventsTask = EventsTask.create(config.eventSendIntervalInMillis(), eventsStorage, eventsSender, config.getThreadFactory(),
+                config.bulkPostMaxItems(), config.bulkPostMaxBytes(), config.bulkPostConcurrency());
 
         _telemetrySyncTask = new TelemetrySyncTask(config.get_telemetryRefreshRate(), _telemetrySynchronizer, config.getThreadFactory());
 
         // Evaluator
-        _evaluator = new EvaluatorImp(splitCache, segmentCache);
+        _evaluator = new EvaluatorImp(splitCache, segmentCache, config.parallelEvaluationThreshold());
 
         // SplitClient
         _client = new SplitClientImpl(this,
@@ -267,13 +310,20 @@ public class SplitFactoryImpl implements SplitFactory {
 
         Metadata metadata = new Metadata(config.ipAddressEnabled(), SplitClientConfig.splitSdkVersion);
         _userStorageWrapper = new UserStorageWrapper(customStorageWrapper);
+        _impressionsSpool = null;
+        _eventsSpool = null;
         UserCustomSegmentAdapterConsumer userCustomSegmentAdapterConsumer= new UserCustomSegmentAdapterConsumer(customStorageWrapper);
         UserCustomSplitAdapterConsumer userCustomSplitAdapterConsumer = new UserCustomSplitAdapterConsumer(customStorageWrapper);
+        CachedSplitAdapterConsumer cachedSplitAdapterConsumer = config.consumerSplitCacheRefreshRate() > 0
+                ? new CachedSplitAdapterConsumer(userCustomSplitAdapterConsumer, config.consumerSplitCacheRefreshRate(), config.getThreadFactory())
+                : null;
+        SplitCacheConsumer splitCacheConsumer = cachedSplitAdapterConsumer != null ? cachedSplitAdapterConsumer : userCustomSplitAdapterConsumer;
         // TODO migrate impressions sender to Task instead manager and not instantiate Producer here.
         UserCustomImpressionAdapterConsumer userCustomImpressionAdapterConsumer = new UserCustomImpressionAdapterConsumer();
         UserCustomImpressionAdapterProducer userCustomImpressionAdapterProducer = new UserCustomImpressionAdapterProducer(customStorageWrapper,
-                metadata);
-        UserCustomEventAdapterProducer userCustomEventAdapterProducer = new UserCustomEventAdapterProducer(customStorageWrapper, metadata);
+                metadata, config.pluggableStorageEncoding());
+        UserCustomEventAdapterProducer userCustomEventAdapterProducer = new UserCustomEventAdapterProducer(customStorageWrapper, metadata,
+                config.pluggableStorageEncoding());
 
         _operationMode = config.operationMode();
         _sdkMetadata = createSdkMetadata(config.ipAddressEnabled(), SplitClientConfig.splitSdkVersion);
@@ -281,10 +331,24 @@ public class SplitFactoryImpl implements SplitFactory {
         _apiToken = apiToken;
         _apiKeyCounter = ApiKeyCounter.getApiKeyCounterInstance();
         _apiKeyCounter.add(apiToken);
-        _telemetryStorageProducer = new UserCustomTelemetryAdapterProducer(customStorageWrapper, _sdkMetadata);
+        UserCustomTelemetryAdapterProducer userCustomTelemetryAdapterProducer = new UserCustomTelemetryAdapterProducer(customStorageWrapper,
+                _sdkMetadata, config.consumerTelemetryFlushRate(), config.consumerWriteQueueSize() > 0, config.getThreadFactory());
+        _telemetryStorageProducer = userCustomTelemetryAdapterProducer;
+
+        CachedSegmentAdapterConsumer cachedSegmentAdapterConsumer = config.consumerSegmentCacheSize() > 0
+                && config.consumerSegmentReplicationRefreshRate() == 0
+                ? new CachedSegmentAdapterConsumer(userCustomSegmentAdapterConsumer, customStorageWrapper, userCustomTelemetryAdapterProducer,
+                        config.consumerSegmentCacheSize(), config.consumerSegmentCacheTtl(), config.consumerSegmentCacheRefreshRate(),
+                        config.getThreadFactory())
+                : null;
+        ReplicatedSegmentAdapterConsumer replicatedSegmentAdapterConsumer = buildReplicatedSegmentConsumer(config, customStorageWrapper,
+                userCustomSegmentAdapterConsumer, userCustomTelemetryAdapterProducer);
+        SegmentCacheConsumer segmentCacheConsumer = replicatedSegmentAdapterConsumer != null ? replicatedSegmentAdapterConsumer
+                : cachedSegmentAdapterConsumer != null ? cachedSegmentAdapterConsumer
+                : userCustomSegmentAdapterConsumer;
 
-        _splitCache = userCustomSplitAdapterConsumer;
-        _segmentCache = userCustomSegmentAdapterConsumer;
+        _splitCache = splitCacheConsumer;
+        _segmentCache = segmentCacheConsumer;
 
         if (config.blockUntilReady() == -1) {
             //BlockUntilReady not been set
@@ -296,22 +360,32 @@ public class SplitFactoryImpl implements SplitFactory {
         _gates = new SDKReadinessGates();
 
         _telemetrySynchronizer = new TelemetryConsumerSubmitter(customStorageWrapper, _sdkMetadata);
-        _evaluator = new EvaluatorImp(userCustomSplitAdapterConsumer, userCustomSegmentAdapterConsumer);
+        _evaluator = new EvaluatorImp(splitCacheConsumer, segmentCacheConsumer, 0, true);
         _impressionsSender = PluggableImpressionSender.create(customStorageWrapper);
         _uniqueKeysTracker = createUniqueKeysTracker(config);
-        _impressionsManager = buildImpressionsManager(config, userCustomImpressionAdapterConsumer, userCustomImpressionAdapterProducer);
+        AsyncImpressionAdapterProducer asyncImpressionAdapterProducer = config.consumerWriteQueueSize() > 0
+                ? new AsyncImpressionAdapterProducer(userCustomImpressionAdapterProducer, _telemetryStorageProducer, config.consumerWriteQueueSize(),
+                        config.consumerWriteBatchSize(), config.consumerWriteFlushIntervalInMillis(), config.getThreadFactory())
+                : null;
+        AsyncEventAdapterProducer asyncEventAdapterProducer = config.consumerWriteQueueSize() > 0
+                ? new AsyncEventAdapterProducer(userCustomEventAdapterProducer, _telemetryStorageProducer, config.consumerWriteQueueSize(),
+                        config.consumerWriteBatchSize(), config.consumerWriteFlushIntervalInMillis(), config.getThreadFactory())
+                : null;
+        _impressionsManager = buildImpressionsManager(config, userCustomImpressionAdapterConsumer,
+                asyncImpressionAdapterProducer != null ? asyncImpressionAdapterProducer : userCustomImpressionAdapterProducer);
         _telemetrySyncTask = new TelemetrySyncTask(config.get_telemetryRefreshRate(), _telemetrySynchronizer, config.getThreadFactory());
 
         SplitTasks splitTasks = SplitTasks.build(null, null,
                 _impressionsManager, null, _telemetrySyncTask, _uniqueKeysTracker);
 
         // Synchronizer
-        Synchronizer synchronizer = new ConsumerSynchronizer(splitTasks);
+        Synchronizer synchronizer = new ConsumerSynchronizer(splitTasks, cachedSplitAdapterConsumer, cachedSegmentAdapterConsumer,
+                userCustomTelemetryAdapterProducer, asyncImpressionAdapterProducer, asyncEventAdapterProducer, replicatedSegmentAdapterConsumer);
 
         _client = new SplitClientImpl(this,
-                userCustomSplitAdapterConsumer,
+                splitCacheConsumer,
                 _impressionsManager,
-                userCustomEventAdapterProducer,
+                asyncEventAdapterProducer != null ? asyncEventAdapterProducer : userCustomEventAdapterProducer,
                 config,
                 _gates,
                 _evaluator,
@@ -323,13 +397,15 @@ public class SplitFactoryImpl implements SplitFactory {
         _syncManager = new ConsumerSyncManager(synchronizer);
         _syncManager.start();
 
-        _manager = new SplitManagerImpl(userCustomSplitAdapterConsumer, config, _gates, _telemetryStorageProducer);
+        _manager = new SplitManagerImpl(splitCacheConsumer, config, _gates, _telemetryStorageProducer);
         manageSdkReady(config);
     }
 
     // Localhost
     protected SplitFactoryImpl(SplitClientConfig config) {
         _userStorageWrapper = null;
+        _impressionsSpool = null;
+        _eventsSpool = null;
         _apiToken = "localhost";
         _apiKeyCounter = ApiKeyCounter.getApiKeyCounterInstance();
         _apiKeyCounter.add("localhost");
@@ -344,7 +420,7 @@ public class SplitFactoryImpl implements SplitFactory {
         _uniqueKeysTracker = null;
         _telemetryStorageProducer = new NoopTelemetryStorage();
 
-        SegmentCache segmentCache = new SegmentCacheInMemoryImpl();
+        SegmentCache segmentCache = buildSegmentCache(config, "localhost");
         SplitCache splitCache = new InMemoryCacheImp();
         _splitCache = splitCache;
         _gates = new SDKReadinessGates();
@@ -389,7 +465,7 @@ public class SplitFactoryImpl implements SplitFactory {
                 _impressionsManager, null, null, null);
 
         // Evaluator
-        _evaluator = new EvaluatorImp(splitCache, segmentCache);
+        _evaluator = new EvaluatorImp(splitCache, segmentCache, config.parallelEvaluationThreshold());
 
         EventsStorage eventsStorage = new NoopEventsStorageImp();
 
@@ -445,6 +521,10 @@ public class SplitFactoryImpl implements SplitFactory {
             _log.info("Successful shutdown of syncManager");
             if(OperationMode.STANDALONE.equals(_operationMode)) {
                 _telemetryStorageProducer.recordSessionLength(System.currentTimeMillis() - _startTime);
+                if (_impressionsSpool != null) {
+                    _impressionsSpool.stop();
+                    _eventsSpool.stop();
+                }
             } else if(OperationMode.CONSUMER.equals(_operationMode)) {
                 _userStorageWrapper.disconnect();
             }
@@ -566,8 +646,23 @@ public class SplitFactoryImpl implements SplitFactory {
         return new SplitFetcherImp(splitChangeFetcher, splitParser, splitCacheProducer, _telemetryStorageProducer);
     }
 
-    private ImpressionsManagerImpl buildImpressionsManager(SplitClientConfig config, ImpressionsStorageConsumer impressionsStorageConsumer,
-                                                           ImpressionsStorageProducer impressionsStorageProducer) throws URISyntaxException {
+    private static ReplicatedSegmentAdapterConsumer buildReplicatedSegmentConsumer(SplitClientConfig config,
+                                                                                   CustomStorageWrapper customStorageWrapper,
+                                                                                   SegmentCacheConsumer segmentCacheConsumer,
+                                                                                   UserCustomTelemetryAdapterProducer telemetryProducer) {
+        if (config.consumerSegmentReplicationRefreshRate() == 0) {
+            return null;
+        }
+        if (!(customStorageWrapper instanceof HasScanSupport)) {
+            _log.warn("The storage can not scan sets, segments are not replicated and lookups go to the storage.");
+            return null;
+        }
+        return new ReplicatedSegmentAdapterConsumer(segmentCacheConsumer, customStorageWrapper, telemetryProducer,
+                config.consumerSegmentReplicationMaxKeys(), config.consumerSegmentReplicationRefreshRate(), config.getThreadFactory());
+    }
+
+    private ImpressionsManager buildImpressionsManager(SplitClientConfig config, ImpressionsStorageConsumer impressionsStorageConsumer,
+                                                       ImpressionsStorageProducer impressionsStorageProducer) throws URISyntaxException {
         List<ImpressionListener> impressionListeners = new ArrayList<>();
         if (config.integrationsConfig() != null) {
             config.integrationsConfig().getImpressionsListeners(IntegrationsConfig.Execution.ASYNC).stream()
@@ -597,8 +692,40 @@ public class SplitFactoryImpl implements SplitFactory {
                 processImpressionStrategy = new ProcessImpressionNone(listener != null, _uniqueKeysTracker, counter);
                 break;
         }
-        return ImpressionsManagerImpl.instance(config, _telemetryStorageProducer, impressionsStorageConsumer, impressionsStorageProducer,
-                _impressionsSender, processImpressionStrategy, counter, listener);
+        ImpressionsManager impressionsManager = ImpressionsManagerImpl.instance(config, _telemetryStorageProducer, impressionsStorageConsumer,
+                impressionsStorageProducer, _impressionsSender, processImpressionStrategy, counter, listener);
+        if (config.impressionsBufferSize() > 0) {
+            return new BufferedImpressionsManager(impressionsManager, config.impressionsBufferSize(),
+                    config.impressionsBufferFlushIntervalInMillis(), config.getThreadFactory());
+        }
+        return impressionsManager;
+    }
+
+    private static DiskSpool buildSpool(SplitClientConfig config, String apiToken, String name) {
+        if (config.spoolDirectory() == null) {
+            return null;
+        }
+        return new DiskSpool(Paths.get(config.spoolDirectory(), storageNamespace(apiToken), name).toString(), config.spoolQuotaBytes(),
+                config.spoolFsync(), config.getThreadFactory(), "Split-Spool-" + name + "-%d");
+    }
+
+    private static SegmentCache buildSegmentCache(SplitClientConfig config, String apiToken) {
+        if (SegmentStorageMode.COMPACT.equals(config.segmentStorageMode())) {
+            return new SegmentCacheCompactImpl();
+        }
+        if (SegmentStorageMode.MEMORY_MAPPED.equals(config.segmentStorageMode())) {
+            return new SegmentCacheMappedImpl(Paths.get(config.segmentStorageDirectory(), storageNamespace(apiToken)).toString());
+        }
+        return new SegmentCacheInMemoryImpl();
+    }
+
+    /**
+     * Name of the subdirectory keeping the files written for an SDK key, so factories built with different
+     * keys never read each other's data. Derived from a hash so the key itself is not written to disk.
+     */
+    @VisibleForTesting
+    static String storageNamespace(String apiToken) {
+        return Hashing.sha256().hashString(apiToken, StandardCharsets.UTF_8).toString().substring(0, 16);
     }
 
     private SDKMetadata createSdkMetadata(boolean ipAddressEnabled, String splitSdkVersion) {
@@ -39,4 +39,22 @@ public class Metadata {
         _hostname = hostName;
         _ip = ip;
     }
+
+    public Metadata(String sdkVersion, String hostname, String ip) {
+        _sdkVersion = sdkVersion;
+        _hostname = hostname;
+        _ip = ip;
+    }
+
+    public String getSdkVersion() {
+        return _sdkVersion;
+    }
+
+    public String getHostname() {
+        return _hostname;
+    }
+
+    public String getIp() {
+        return _ip;
+    }
 }
@@ -2,8 +2,11 @@ package io.split.client.events;
 
 import com.google.common.annotations.VisibleForTesting;
 import io.split.client.dtos.Event;
+import io.split.client.utils.Json;
 import io.split.client.utils.Utils;
 import io.split.service.HttpPostImp;
+import io.split.service.PostResult;
+import io.split.storages.spool.DiskSpool;
 import io.split.telemetry.domain.enums.HttpParamsWrapper;
 import io.split.telemetry.storage.TelemetryRuntimeProducer;
 import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
@@ -21,21 +24,41 @@ public class EventsSender {
     private final CloseableHttpClient _client;
     private final TelemetryRuntimeProducer _telemetryRuntimeProducer;
     private final HttpPostImp _httpPostImp;
+    private final DiskSpool _spool;
 
     public static EventsSender create(CloseableHttpClient httpclient, URI eventsTarget, TelemetryRuntimeProducer telemetryRuntimeProducer)
             throws URISyntaxException {
-        return new EventsSender(httpclient, Utils.appendPath(eventsTarget, BULK_ENDPOINT_PATH), telemetryRuntimeProducer);
+        return create(httpclient, eventsTarget, telemetryRuntimeProducer, false, null);
     }
 
-    EventsSender(CloseableHttpClient httpclient, URI eventsTarget, TelemetryRuntimeProducer telemetryRuntimeProducer) {
+    /**
+     * @param spool where events that could not be posted are kept for a later retry, or null to drop them
+     */
+    public static EventsSender create(CloseableHttpClient httpclient, URI eventsTarget, TelemetryRuntimeProducer telemetryRuntimeProducer,
+                                      boolean gzip, DiskSpool spool) throws URISyntaxException {
+        return new EventsSender(httpclient, Utils.appendPath(eventsTarget, BULK_ENDPOINT_PATH), telemetryRuntimeProducer, gzip, spool);
+    }
+
+    EventsSender(CloseableHttpClient httpclient, URI eventsTarget, TelemetryRuntimeProducer telemetryRuntimeProducer, boolean gzip,
+                 DiskSpool spool) {
         _client = checkNotNull(httpclient);
         _bulkEndpoint = checkNotNull(eventsTarget);
         _telemetryRuntimeProducer = checkNotNull(telemetryRuntimeProducer);
-        _httpPostImp = new HttpPostImp(httpclient, telemetryRuntimeProducer);
+        _httpPostImp = new HttpPostImp(httpclient, telemetryRuntimeProducer, gzip);
+        _spool = spool;
     }
 
     public void sendEvents(List<Event> _data) {
-        _httpPostImp.post(_bulkEndpoint, _data, "Events ", HttpParamsWrapper.EVENTS);
+        if (send(_data) == PostResult.RETRIABLE && _spool != null) {
+            _spool.append(Json.toJson(_data));
+        }
+    }
+
+    /**
+     * @return whether the events were accepted, and otherwise whether posting them again is worth it.
+     */
+    public PostResult send(List<Event> events) {
+        return _httpPostImp.post(_bulkEndpoint, events, "Events ", HttpParamsWrapper.EVENTS);
     }
 
     @VisibleForTesting
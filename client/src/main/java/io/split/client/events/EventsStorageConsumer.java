@@ -4,6 +4,7 @@ import java.util.List;
 
 public interface EventsStorageConsumer {
     WrappedEvent pop();
+    List<WrappedEvent> pop(int count);
     List<WrappedEvent> popAll();
     boolean isFull();
 }
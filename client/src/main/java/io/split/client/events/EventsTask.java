@@ -2,6 +2,7 @@ package io.split.client.events;
 
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import io.split.client.dtos.Event;
+import io.split.client.utils.ChunkedPoster;
 import io.split.client.utils.SplitExecutorFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -25,23 +26,40 @@ public class EventsTask{
     private final long _sendIntervalMillis;
 
     private final ScheduledExecutorService _senderScheduledExecutorService;
+    private final ChunkedPoster<WrappedEvent> _poster;
     private static final Logger _log = LoggerFactory.getLogger(EventsTask.class);
 
     public static EventsTask create(long sendIntervalMillis, EventsStorageConsumer eventsStorageConsumer, EventsSender eventsSender,
                                     ThreadFactory threadFactory) throws URISyntaxException {
+        return create(sendIntervalMillis, eventsStorageConsumer, eventsSender, threadFactory, 0, 0, 1);
+    }
+
+    public static EventsTask create(long sendIntervalMillis, EventsStorageConsumer eventsStorageConsumer, EventsSender eventsSender,
+                                    ThreadFactory threadFactory, int maxItemsPerPost, long maxBytesPerPost, int maxPostsInFlight)
+            throws URISyntaxException {
         return new EventsTask(eventsStorageConsumer,
                 sendIntervalMillis,
                 eventsSender,
-                threadFactory);
+                threadFactory,
+                maxItemsPerPost,
+                maxBytesPerPost,
+                maxPostsInFlight);
     }
 
     EventsTask(EventsStorageConsumer eventsStorageConsumer,
                long sendIntervalMillis, EventsSender eventsSender, ThreadFactory threadFactory) {
+        this(eventsStorageConsumer, sendIntervalMillis, eventsSender, threadFactory, 0, 0, 1);
+    }
+
+    EventsTask(EventsStorageConsumer eventsStorageConsumer, long sendIntervalMillis, EventsSender eventsSender, ThreadFactory threadFactory,
+               int maxItemsPerPost, long maxBytesPerPost, int maxPostsInFlight) {
 
         _eventsStorageConsumer = checkNotNull(eventsStorageConsumer);
         _sendIntervalMillis = sendIntervalMillis;
         _eventsSender = checkNotNull(eventsSender);
         _senderScheduledExecutorService = SplitExecutorFactory.buildSingleThreadScheduledExecutor(threadFactory, "Sender-events-%d");
+        _poster = new ChunkedPoster<>(maxItemsPerPost, maxBytesPerPost, maxPostsInFlight, WrappedEvent::size, this::postEvents,
+                threadFactory, "Poster-events-%d");
     }
 
     ThreadFactory eventClientThreadFactory(final String name) {
@@ -65,6 +83,7 @@ public class EventsTask{
         try {
             sendEvents();
             _senderScheduledExecutorService.shutdown();
+            _poster.close();
         } catch (Exception e) {
             _log.warn("Error when shutting down EventClientImpl", e);
         }
@@ -75,7 +94,10 @@ public class EventsTask{
             _log.warn("Split SDK events queue is full. Events may have been dropped. Consider increasing capacity.");
         }
 
-        List<WrappedEvent> wrappedEventList = _eventsStorageConsumer.popAll();
+        _poster.flush(_eventsStorageConsumer::popAll, _eventsStorageConsumer::pop);
+    }
+
+    private void postEvents(List<WrappedEvent> wrappedEventList) {
         List<Event> eventsToSend = new ArrayList<>();
         for (WrappedEvent wrappedEvent: wrappedEventList){
             Event event = wrappedEvent.event();
@@ -11,6 +11,7 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.Consumer;
 
 import static com.google.gson.internal.$Gson$Preconditions.checkNotNull;
 
@@ -20,11 +21,21 @@ public class InMemoryEventsStorage implements EventsStorage{
     private final BlockingQueue<WrappedEvent> _eventQueue;
     private final int _maxQueueSize;
     private final TelemetryRuntimeProducer _telemetryRuntimeProducer;
+    private final Consumer<Event> _overflow;
 
     public InMemoryEventsStorage(int maxQueueSize, TelemetryRuntimeProducer telemetryRuntimeProducer) {
+        this(maxQueueSize, telemetryRuntimeProducer, null);
+    }
+
+    /**
+     * @param overflow receives the events that did not fit in the queue, on the thread that added
+     *                 them, so it must not block; may be null
+     */
+    public InMemoryEventsStorage(int maxQueueSize, TelemetryRuntimeProducer telemetryRuntimeProducer, Consumer<Event> overflow) {
         _eventQueue = new LinkedBlockingQueue<>(maxQueueSize);
         _maxQueueSize = maxQueueSize;
         _telemetryRuntimeProducer = checkNotNull(telemetryRuntimeProducer);
+        _overflow = overflow;
     }
 
     @Override
@@ -37,6 +48,13 @@ public class InMemoryEventsStorage implements EventsStorage{
         return null;
     }
 
+    @Override
+    public List<WrappedEvent> pop(int count) {
+        ArrayList<WrappedEvent> popped = new ArrayList<>();
+        _eventQueue.drainTo(popped, count);
+        return popped;
+    }
+
     @Override
     public List<WrappedEvent> popAll() {
         ArrayList<WrappedEvent> popped = new ArrayList<>();
@@ -61,6 +79,9 @@ public class InMemoryEventsStorage implements EventsStorage{
             else {
                 _log.warn("Event queue is full, dropping event.");
                 _telemetryRuntimeProducer.recordEventStats(EventsDataRecordsEnum.EVENTS_DROPPED, 1);
+                if (_overflow != null) {
+                    _overflow.accept(event);
+                }
                 return false;
             }
 
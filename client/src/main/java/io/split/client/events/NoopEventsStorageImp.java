@@ -22,6 +22,12 @@ public class NoopEventsStorageImp implements EventsStorage {
         return new WrappedEvent(new Event(), 0l);
     }
 
+    @Override
+    public List<WrappedEvent> pop(int count) {
+        //no-op
+        return new ArrayList<>();
+    }
+
     @Override
     public List<WrappedEvent> popAll() {
         //no-op
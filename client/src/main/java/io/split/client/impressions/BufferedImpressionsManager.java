@@ -0,0 +1,127 @@
+package io.split.client.impressions;
+
+import com.google.common.annotations.VisibleForTesting;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static io.split.client.utils.SplitExecutorFactory.buildSingleThreadScheduledExecutor;
+
+/**
+ * Stages tracked impressions in striped buffers and hands them to the wrapped manager in batches, so
+ * deduplication, queueing and telemetry run once per batch instead of once per evaluation.
+ *
+ * Each thread adds to the stripe picked by its id. A stripe is handed over as soon as it holds a full
+ * batch, and every stripe is handed over on a fixed delay, which bounds how long an impression waits.
+ * Closing the manager waits for a running flush, then hands over whatever is left before closing the
+ * wrapped one.
+ */
+public class BufferedImpressionsManager implements ImpressionsManager {
+
+    private static final Logger _log = LoggerFactory.getLogger(BufferedImpressionsManager.class);
+    private static final long CLOSE_TIMEOUT_SECONDS = 2L;
+
+    private final ImpressionsManager _impressionsManager;
+    private final Stripe[] _stripes;
+    private final int _batchSize;
+    private final long _flushIntervalInMillis;
+    private final ScheduledExecutorService _executorService;
+
+    public BufferedImpressionsManager(ImpressionsManager impressionsManager, int batchSize, long flushIntervalInMillis,
+                                      ThreadFactory threadFactory) {
+        _impressionsManager = checkNotNull(impressionsManager);
+        _batchSize = batchSize;
+        _flushIntervalInMillis = flushIntervalInMillis;
+        // a power of two above the core count, so few threads ever share a stripe
+        int stripes = Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors()) * 2 - 1) * 2;
+        _stripes = new Stripe[stripes];
+        for (int i = 0; i < stripes; i++) {
+            _stripes[i] = new Stripe(batchSize);
+        }
+        _executorService = buildSingleThreadScheduledExecutor(threadFactory, "Split-ImpressionsBuffer-%d");
+    }
+
+    @Override
+    public void track(List<Impression> impressions) {
+        if (null == impressions || impressions.isEmpty()) {
+            return;
+        }
+        Stripe stripe = _stripes[(int) Thread.currentThread().getId() & (_stripes.length - 1)];
+        List<Impression> batch = stripe.add(impressions, _batchSize);
+        if (batch != null) {
+            _impressionsManager.track(batch);
+        }
+    }
+
+    @Override
+    public void start() {
+        _impressionsManager.start();
+        _executorService.scheduleWithFixedDelay(() -> {
+            try {
+                flush();
+            } catch (Exception e) {
+                _log.warn("Error flushing buffered impressions.", e);
+            }
+        }, _flushIntervalInMillis, _flushIntervalInMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void close() {
+        _executorService.shutdown();
+        try {
+            if (!_executorService.awaitTermination(CLOSE_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                _log.warn("Buffered impressions flush did not finish in time.");
+                _executorService.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            flush();
+        } catch (Exception e) {
+            _log.warn("Unable to flush buffered impressions", e);
+        }
+        _impressionsManager.close();
+    }
+
+    @VisibleForTesting
+    void flush() {
+        for (Stripe stripe : _stripes) {
+            List<Impression> batch = stripe.drain(_batchSize);
+            if (batch != null) {
+                _impressionsManager.track(batch);
+            }
+        }
+    }
+
+    private static final class Stripe {
+        private List<Impression> _buffer;
+
+        Stripe(int batchSize) {
+            _buffer = new ArrayList<>(batchSize);
+        }
+
+        /**
+         * @return the buffered batch when this add fills it, null otherwise.
+         */
+        synchronized List<Impression> add(List<Impression> impressions, int batchSize) {
+            _buffer.addAll(impressions);
+            return _buffer.size() >= batchSize ? drain(batchSize) : null;
+        }
+
+        synchronized List<Impression> drain(int batchSize) {
+            if (_buffer.isEmpty()) {
+                return null;
+            }
+            List<Impression> batch = _buffer;
+            _buffer = new ArrayList<>(batchSize);
+            return batch;
+        }
+    }
+}
@@ -3,8 +3,11 @@ package io.split.client.impressions;
 import com.google.common.annotations.VisibleForTesting;
 import io.split.client.dtos.ImpressionCount;
 import io.split.client.dtos.TestImpressions;
+import io.split.client.utils.Json;
 import io.split.client.utils.Utils;
 
+import io.split.service.PostResult;
+import io.split.storages.spool.DiskSpool;
 import io.split.telemetry.domain.enums.HTTPLatenciesEnum;
 import io.split.telemetry.domain.enums.LastSynchronizationRecordsEnum;
 import io.split.telemetry.domain.enums.ResourceEnum;
@@ -41,19 +44,34 @@ public class HttpImpressionsSender implements ImpressionsSender {
     private final URI _impressionCountTarget;
     private final ImpressionsManager.Mode _mode;
     private final TelemetryRuntimeProducer _telemetryRuntimeProducer;
+    private final boolean _gzip;
+    private final DiskSpool _spool;
 
     public static HttpImpressionsSender create(CloseableHttpClient client, URI eventsRootEndpoint, ImpressionsManager.Mode mode,
                                                TelemetryRuntimeProducer telemetryRuntimeProducer) throws URISyntaxException {
+        return create(client, eventsRootEndpoint, mode, telemetryRuntimeProducer, false, null);
+    }
+
+    /**
+     * @param spool where bulks that could not be posted are kept for a later retry, or null to drop them
+     */
+    public static HttpImpressionsSender create(CloseableHttpClient client, URI eventsRootEndpoint, ImpressionsManager.Mode mode,
+                                               TelemetryRuntimeProducer telemetryRuntimeProducer, boolean gzip, DiskSpool spool)
+            throws URISyntaxException {
         return new HttpImpressionsSender(client,
                 Utils.appendPath(eventsRootEndpoint, BULK_ENDPOINT_PATH),
                 Utils.appendPath(eventsRootEndpoint, COUNT_ENDPOINT_PATH),
                 mode,
-                telemetryRuntimeProducer);
+                telemetryRuntimeProducer,
+                gzip,
+                spool);
     }
 
     private HttpImpressionsSender(CloseableHttpClient client, URI impressionBulkTarget, URI impressionCountTarget, ImpressionsManager.Mode mode,
-                                  TelemetryRuntimeProducer telemetryRuntimeProducer) {
+                                  TelemetryRuntimeProducer telemetryRuntimeProducer, boolean gzip, DiskSpool spool) {
         _client = client;
+        _gzip = gzip;
+        _spool = spool;
         _mode = mode;
         _impressionBulkTarget = impressionBulkTarget;
         _impressionCountTarget = impressionCountTarget;
@@ -62,11 +80,19 @@ public class HttpImpressionsSender implements ImpressionsSender {
 
     @Override
     public void postImpressionsBulk(List<TestImpressions> impressions) {
+        if (sendImpressionsBulk(impressions) == PostResult.RETRIABLE && _spool != null) {
+            _spool.append(Json.toJson(impressions));
+        }
+    }
 
+    /**
+     * @return whether the bulk was accepted, and otherwise whether posting it again is worth it.
+     */
+    public PostResult sendImpressionsBulk(List<TestImpressions> impressions) {
         CloseableHttpResponse response = null;
         long initTime = System.currentTimeMillis();
         try {
-            HttpEntity entity = Utils.toJsonEntity(impressions);
+            HttpEntity entity = Utils.toJsonStreamEntity(impressions, _gzip);
 
             HttpPost request = new HttpPost(_impressionBulkTarget);
             request.addHeader(IMPRESSIONS_MODE_HEADER, _mode.toString());
@@ -79,16 +105,17 @@ public class HttpImpressionsSender implements ImpressionsSender {
             if (status < HttpStatus.SC_OK || status >= HttpStatus.SC_MULTIPLE_CHOICES) {
                 _telemetryRuntimeProducer.recordSyncError(ResourceEnum.IMPRESSION_SYNC, status);
                 _logger.warn(String.format("Response status was: %s. Reason: %s", status , response.getReasonPhrase()));
+                return PostResult.fromStatus(status);
             }
             _telemetryRuntimeProducer.recordSuccessfulSync(LastSynchronizationRecordsEnum.IMPRESSIONS, System.currentTimeMillis());
-
+            return PostResult.ACCEPTED;
         } catch (Throwable t) {
             _logger.warn("Exception when posting impressions" + impressions, t);
+            return PostResult.RETRIABLE;
         } finally {
             _telemetryRuntimeProducer.recordSyncLatency(HTTPLatenciesEnum.IMPRESSIONS, System.currentTimeMillis() - initTime);
             Utils.forceClose(response);
         }
-
     }
 
     @Override
@@ -1,12 +1,23 @@
 package io.split.client.impressions;
 
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
+/**
+ * Counts impressions per feature flag and hour.
+ *
+ * Counters are looked up by the feature flag name and then by the truncated timeframe, scanning the few
+ * hours a flag has pending, so incrementing allocates nothing once a flag has been seen in the current hour.
+ * Each counter is striped across padded slots picked by thread, so concurrent evaluations do not contend
+ * on a single cache line. popAll drains each slot with getAndSet(0), so concurrent increments are either
+ * returned by the current call or by the next one.
+ */
 public class ImpressionCounter {
 
     public static class Key {
@@ -36,34 +47,173 @@ public class ImpressionCounter {
         }
     }
 
+    // longs between used slots, so two stripes never share a 64 byte cache line
+    private static final int PADDING = 8;
+    private static final int STRIPES = Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors()) * 2 - 1);
 
-    private final ConcurrentHashMap<Key, AtomicInteger> _counts;
+    private final ConcurrentHashMap<String, FlagCounters> _counts;
 
     public ImpressionCounter() {
         _counts = new ConcurrentHashMap<>();
     }
 
     public void inc(String featureFlagName, long timeFrame, int amount) {
-        Key key = new Key(featureFlagName, ImpressionUtils.truncateTimeframe(timeFrame));
-        AtomicInteger count = _counts.get(key);
-        if (Objects.isNull(count)) {
-            count = new AtomicInteger();
-            AtomicInteger old = _counts.putIfAbsent(key, count);
-            if (!Objects.isNull(old)) { // Some other thread won the race, use that AtomicInteger instead
-                count = old;
-            }
+        FlagCounters flagCounters = _counts.get(featureFlagName);
+        if (flagCounters == null) {
+            flagCounters = _counts.computeIfAbsent(featureFlagName, name -> new FlagCounters());
         }
-        count.addAndGet(amount);
+        flagCounters.add(ImpressionUtils.truncateTimeframe(timeFrame), amount);
     }
 
     public HashMap<Key, Integer> popAll() {
         HashMap<Key, Integer> toReturn = new HashMap<>();
-        for (Key key : _counts.keySet()) {
-            AtomicInteger curr = _counts.remove(key);
-            toReturn.put(key, curr.get());
+        for (Map.Entry<String, FlagCounters> entry : _counts.entrySet()) {
+            entry.getValue().drainTo(entry.getKey(), toReturn);
         }
         return toReturn;
     }
 
-    public boolean isEmpty() { return _counts.isEmpty(); }
-}
\ No newline at end of file
+    public boolean isEmpty() {
+        for (FlagCounters flagCounters : _counts.values()) {
+            if (!flagCounters.isEmpty()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static final class FlagCounters {
+        // copy-on-write, almost always holds just the current hour
+        private volatile HourCounter[] _hours = new HourCounter[0];
+
+        void add(long timeFrame, long amount) {
+            HourCounter hour = counterFor(timeFrame);
+            hour.add(amount);
+            while (hour.isRetired()) {
+                // the hour was dropped while adding to it, so what its last drain missed moves to its new counter
+                long stranded = hour.drain();
+                if (stranded == 0) {
+                    return;
+                }
+                hour = counterFor(timeFrame);
+                hour.add(stranded);
+            }
+        }
+
+        HourCounter counterFor(long timeFrame) {
+            HourCounter[] hours = _hours;
+            for (HourCounter hour : hours) {
+                if (hour.timeFrame() == timeFrame) {
+                    return hour;
+                }
+            }
+            return addHour(timeFrame);
+        }
+
+        private synchronized HourCounter addHour(long timeFrame) {
+            HourCounter[] hours = _hours;
+            for (HourCounter hour : hours) {
+                if (hour.timeFrame() == timeFrame) {
+                    return hour;
+                }
+            }
+            HourCounter hour = new HourCounter(timeFrame);
+            HourCounter[] updated = Arrays.copyOf(hours, hours.length + 1);
+            updated[hours.length] = hour;
+            _hours = updated;
+            return hour;
+        }
+
+        void drainTo(String featureFlagName, Map<Key, Integer> toReturn) {
+            HourCounter[] hours = _hours;
+            long latest = Long.MIN_VALUE;
+            for (HourCounter hour : hours) {
+                latest = Math.max(latest, hour.timeFrame());
+            }
+            for (HourCounter hour : hours) {
+                long count = hour.drain();
+                if (count == 0 && hour.timeFrame() != latest && removeHour(hour)) {
+                    // a past hour that stayed idle for a whole period is dropped. Adds that got it before the
+                    // removal are either in this drain or see it retired and move to the hour's new counter
+                    hour.retire();
+                    count = hour.drain();
+                }
+                if (count > 0) {
+                    toReturn.merge(new Key(featureFlagName, hour.timeFrame()), (int) count, Integer::sum);
+                }
+            }
+        }
+
+        /**
+         * @return false when the hour was already removed, by an overlapping drain
+         */
+        private synchronized boolean removeHour(HourCounter hour) {
+            HourCounter[] hours = _hours;
+            int index = Arrays.asList(hours).indexOf(hour);
+            if (index < 0) {
+                return false;
+            }
+            HourCounter[] updated = new HourCounter[hours.length - 1];
+            System.arraycopy(hours, 0, updated, 0, index);
+            System.arraycopy(hours, index + 1, updated, index, hours.length - index - 1);
+            _hours = updated;
+            return true;
+        }
+
+        boolean isEmpty() {
+            for (HourCounter hour : _hours) {
+                if (!hour.isEmpty()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    private static final class HourCounter {
+        private final long _timeFrame;
+        private final AtomicLongArray _stripes = new AtomicLongArray(STRIPES * PADDING);
+        private volatile boolean _retired;
+
+        HourCounter(long timeFrame) {
+            _timeFrame = timeFrame;
+        }
+
+        long timeFrame() {
+            return _timeFrame;
+        }
+
+        void add(long amount) {
+            int stripe = (int) Thread.currentThread().getId() & (STRIPES - 1);
+            _stripes.addAndGet(stripe * PADDING, amount);
+        }
+
+        /**
+         * Marks the hour as no longer reachable from its flag, once it has been removed.
+         */
+        void retire() {
+            _retired = true;
+        }
+
+        boolean isRetired() {
+            return _retired;
+        }
+
+        long drain() {
+            long count = 0;
+            for (int i = 0; i < STRIPES; i++) {
+                count += _stripes.getAndSet(i * PADDING, 0);
+            }
+            return count;
+        }
+
+        boolean isEmpty() {
+            for (int i = 0; i < STRIPES; i++) {
+                if (_stripes.get(i * PADDING) != 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -4,14 +4,18 @@ import io.split.client.utils.MurmurHash3;
 
 public class ImpressionHasher {
 
-    private static final String HASHABLE_FORMAT = "%s:%s:%s:%s:%d";
     private static final String UNKNOWN = "UNKNOWN";
+    private static final char SEPARATOR = ':';
+
+    // the hashed form is "key:feature:treatment:label:changeNumber", streamed into a per-thread murmur state
+    // instead of being formatted and encoded for every impression.
+    private static final ThreadLocal<MurmurHash3.Hash128x64> HASH = ThreadLocal.withInitial(MurmurHash3.Hash128x64::new);
 
     private static String unknownIfNull(String s) {
         return (s == null) ? UNKNOWN : s;
     }
 
-    private static Long zeroIfNull(Long l) {
+    private static long zeroIfNull(Long l) {
         return (l == null) ? 0 : l;
     }
 
@@ -19,11 +23,16 @@ public class ImpressionHasher {
         if (null == impression) {
             return null;
         }
-        return MurmurHash3.hash128x64(String.format(HASHABLE_FORMAT,
-                unknownIfNull(impression.key()),
-                unknownIfNull(impression.split()),
-                unknownIfNull(impression.treatment()),
-                unknownIfNull(impression.appliedRule()),
-                zeroIfNull(impression.changeNumber())).getBytes())[0];
+        return hash(impression);
+    }
+
+    static long hash(Impression impression) {
+        return HASH.get().reset(0)
+                .putUtf8(unknownIfNull(impression.key())).putByte(SEPARATOR)
+                .putUtf8(unknownIfNull(impression.split())).putByte(SEPARATOR)
+                .putUtf8(unknownIfNull(impression.treatment())).putByte(SEPARATOR)
+                .putUtf8(unknownIfNull(impression.appliedRule())).putByte(SEPARATOR)
+                .putDecimal(zeroIfNull(impression.changeNumber()))
+                .finish64();
     }
 }
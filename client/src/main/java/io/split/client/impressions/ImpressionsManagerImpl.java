@@ -5,6 +5,7 @@ import io.split.client.SplitClientConfig;
 import io.split.client.dtos.KeyImpression;
 import io.split.client.dtos.TestImpressions;
 import io.split.client.impressions.strategy.ProcessImpressionStrategy;
+import io.split.client.utils.ChunkedPoster;
 import io.split.client.utils.SplitExecutorFactory;
 import io.split.telemetry.domain.enums.ImpressionsDataTypeEnum;
 import io.split.telemetry.storage.TelemetryRuntimeProducer;
@@ -13,10 +14,11 @@ import org.slf4j.LoggerFactory;
 
 import java.io.Closeable;
 import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
-import java.util.stream.Collectors;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
@@ -41,6 +43,7 @@ public class ImpressionsManagerImpl implements ImpressionsManager, Closeable {
     private ImpressionCounter _counter;
     private ProcessImpressionStrategy _processImpressionStrategy;
     private final int _impressionsRefreshRate;
+    private final ChunkedPoster<KeyImpression> _poster;
 
     public static ImpressionsManagerImpl instance(SplitClientConfig config,
                                                   TelemetryRuntimeProducer telemetryRuntimeProducer,
@@ -89,6 +92,8 @@ public class ImpressionsManagerImpl implements ImpressionsManager, Closeable {
         _listener = impressionListener;
 
         _impressionsRefreshRate = config.impressionsRefreshRate();
+        _poster = new ChunkedPoster<>(config.bulkPostMaxItems(), config.bulkPostMaxBytes(), config.bulkPostConcurrency(),
+                ImpressionsManagerImpl::estimateSize, this::postImpressions, config.getThreadFactory(), "Split-ImpressionsPoster-%d");
     }
 
     @Override
@@ -120,7 +125,7 @@ public class ImpressionsManagerImpl implements ImpressionsManager, Closeable {
         List<Impression> impressionsToListener = impressionsResult.getImpressionsToQueue();
 
         int totalImpressions = impressionsForLogs.size();
-        long queued = _impressionsStorageProducer.put(impressionsForLogs.stream().map(KeyImpression::fromImpression).collect(Collectors.toList()));
+        long queued = _impressionsStorageProducer.put(toKeyImpressions(impressionsForLogs));
         if (queued < totalImpressions) {
             _telemetryRuntimeProducer.recordImpressionStats(ImpressionsDataTypeEnum.IMPRESSIONS_DROPPED, totalImpressions-queued);
         }
@@ -131,6 +136,17 @@ public class ImpressionsManagerImpl implements ImpressionsManager, Closeable {
         }
     }
 
+    private static List<KeyImpression> toKeyImpressions(List<Impression> impressions) {
+        if (impressions.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<KeyImpression> keyImpressions = new ArrayList<>(impressions.size());
+        for (Impression impression : impressions) {
+            keyImpressions.add(KeyImpression.fromImpression(impression));
+        }
+        return keyImpressions;
+    }
+
     @Override
     public void close() {
         try {
@@ -140,6 +156,7 @@ public class ImpressionsManagerImpl implements ImpressionsManager, Closeable {
             }
             _scheduler.shutdown();
             sendImpressions();
+            _poster.close();
             if(_counter != null) {
                 sendImpressionCounters();
             }
@@ -155,12 +172,11 @@ public class ImpressionsManagerImpl implements ImpressionsManager, Closeable {
             _log.warn("Split SDK impressions queue is full. Impressions may have been dropped. Consider increasing capacity.");
         }
 
-        long start = System.currentTimeMillis();
-        List<KeyImpression> impressions = _impressionsStorageConsumer.pop();
-        if (impressions.isEmpty()) {
-            return; // Nothing to send
-        }
+        _poster.flush(_impressionsStorageConsumer::pop, _impressionsStorageConsumer::pop);
+    }
 
+    private void postImpressions(List<KeyImpression> impressions) {
+        long start = System.currentTimeMillis();
         _impressionsSender.postImpressionsBulk(TestImpressions.fromKeyImpressions(impressions));
         if (_config.debugEnabled()) {
             _log.info(String.format("Posting %d Split impressions took %d millis",
@@ -168,6 +184,16 @@ public class ImpressionsManagerImpl implements ImpressionsManager, Closeable {
         }
     }
 
+    // rough size of the impression in the bulk post body, field names and numbers included
+    private static long estimateSize(KeyImpression impression) {
+        return 100L + length(impression.keyName) + length(impression.bucketingKey) + length(impression.treatment)
+                + length(impression.label);
+    }
+
+    private static int length(String value) {
+        return value == null ? 0 : value.length();
+    }
+
     @VisibleForTesting
         /* package private */ void sendImpressionCounters() {
         if (!_counter.isEmpty()) {
@@ -8,15 +8,26 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.Consumer;
 
 public class InMemoryImpressionsStorage implements ImpressionsStorage {
 
     private static final Logger _log = LoggerFactory.getLogger(InMemoryImpressionsStorage.class);
 
     private final BlockingQueue<KeyImpression> _queue;
+    private final Consumer<List<KeyImpression>> _overflow;
 
     public InMemoryImpressionsStorage(int queueSize) {
+        this(queueSize, null);
+    }
+
+    /**
+     * @param overflow receives the impressions that did not fit in the queue, on the thread that added
+     *                 them, so it must not block; may be null
+     */
+    public InMemoryImpressionsStorage(int queueSize, Consumer<List<KeyImpression>> overflow) {
         _queue = new LinkedBlockingQueue<>(queueSize);
+        _overflow = overflow;
     }
 
     @Override
@@ -49,11 +60,21 @@ public class InMemoryImpressionsStorage implements ImpressionsStorage {
 
     @Override
     public long put(List<KeyImpression> imps) {
-        return imps.stream().reduce(0, (accum, current) -> {
-            if(this.put(current)) {
-                return accum + 1;
+        long queued = 0;
+        List<KeyImpression> dropped = null;
+        for (KeyImpression imp : imps) {
+            if (this.put(imp)) {
+                queued++;
+            } else if (_overflow != null && imp != null) {
+                if (dropped == null) {
+                    dropped = new ArrayList<>();
+                }
+                dropped.add(imp);
             }
-            return accum;
-        }, Integer::sum).longValue();
+        }
+        if (dropped != null) {
+            _overflow.accept(dropped);
+        }
+        return queued;
     }
 }
\ No newline at end of file
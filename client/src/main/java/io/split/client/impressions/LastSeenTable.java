@@ -0,0 +1,75 @@
+package io.split.client.impressions;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed size, lossy map from impression hash to the time it was last seen, kept in one array of longs.
+ *
+ * The table is two-way set associative: a hash can live in either entry of the set picked by its bits, and
+ * a new hash replaces the entry seen longest ago. Each entry is a key word followed by a time word. A writer
+ * claims an entry by swapping its key word for a marker with a CAS and gives up the write if another thread
+ * holds it, so writes never wait. A reader checks the key word again after reading the time, so it never
+ * pairs a hash with the time written for another one. Lost writes and evictions only make an impression
+ * look new, as with any bounded cache.
+ */
+final class LastSeenTable {
+
+    static final long NONE = Long.MIN_VALUE;
+
+    private static final long EMPTY = 0L;
+    private static final long WRITING = Long.MIN_VALUE;
+    // stands in for the hashes that collide with the two reserved key words
+    private static final long RESERVED_HASH = 1L;
+    private static final int WAYS = 2;
+
+    private final AtomicLongArray _entries;
+    private final int _setMask;
+
+    LastSeenTable(long size) {
+        long capacity = Math.max(WAYS, Long.highestOneBit(Math.max(1L, size - 1)) << 1);
+        if (capacity > (1 << 29)) {
+            throw new IllegalArgumentException("Last seen table size too large: " + size);
+        }
+        _setMask = (int) (capacity / WAYS) - 1;
+        _entries = new AtomicLongArray((int) capacity * 2);
+    }
+
+    /**
+     * Stores the time for the hash.
+     *
+     * @return the time previously stored for the hash, or {@link #NONE}
+     */
+    long testAndSet(long hash, long time) {
+        long key = (hash == EMPTY || hash == WRITING) ? RESERVED_HASH : hash;
+        int base = (int) ((key ^ (key >>> 32)) & _setMask) * WAYS * 2;
+        int victim = base;
+        long victimTime = Long.MAX_VALUE;
+        for (int position = base; position < base + WAYS * 2; position += 2) {
+            long current = _entries.get(position);
+            if (current == key) {
+                long previous = _entries.get(position + 1);
+                if (_entries.get(position) == key) {
+                    store(position, key, time);
+                    return previous;
+                }
+                continue;
+            }
+            long seen = current == EMPTY ? Long.MIN_VALUE : _entries.get(position + 1);
+            if (current != WRITING && seen < victimTime) {
+                victim = position;
+                victimTime = seen;
+            }
+        }
+        store(victim, key, time);
+        return NONE;
+    }
+
+    private void store(int position, long key, long time) {
+        long current = _entries.get(position);
+        if (current == WRITING || !_entries.compareAndSet(position, current, WRITING)) {
+            return;
+        }
+        _entries.set(position + 1, time);
+        _entries.set(position, key);
+    }
+}
@@ -34,8 +34,7 @@ public class PluggableImpressionSender implements ImpressionsSender{
 
     @Override
     public void postCounters(HashMap<ImpressionCounter.Key, Integer> counts) {
-        try {
-            UserPipelineWrapper pipelineExecution = _userStorageWrapper.pipeline();
+        try (UserPipelineWrapper pipelineExecution = _userStorageWrapper.pipeline()) {
             for(ImpressionCounter.Key countsKey: counts.keySet()){
                 String key = PrefixAdapter.buildImpressionsCount();
                 pipelineExecution.hIncrement(key, countsKey.featureName() + "::" + countsKey.timeFrame(), counts.get(countsKey));
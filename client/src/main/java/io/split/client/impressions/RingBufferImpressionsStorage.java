@@ -0,0 +1,141 @@
+package io.split.client.impressions;
+
+import io.split.client.dtos.KeyImpression;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Consumer;
+
+/**
+ * Bounded impressions storage backed by an array ring buffer, built for many threads putting impressions
+ * and a single task popping them.
+ *
+ * A put claims room for its whole batch with one compare-and-set on the tail, then writes each impression
+ * in its slot and publishes it by setting the slot sequence, so producers neither lock nor allocate a node
+ * per impression. A pop reads published slots in order from the head and stops at the first one still being
+ * written. Pops are serialized among themselves, which only matters when the storage is drained on shutdown
+ * while the periodic task is running.
+ */
+public class RingBufferImpressionsStorage implements ImpressionsStorage {
+
+    private final int _capacity;
+    private final KeyImpression[] _buffer;
+    // holds position + 1 once the impression at that position is readable
+    private final AtomicLongArray _sequences;
+    private final AtomicLong _tail = new AtomicLong();
+    private volatile long _head;
+    private final Consumer<List<KeyImpression>> _overflow;
+
+    public RingBufferImpressionsStorage(int queueSize) {
+        this(queueSize, null);
+    }
+
+    /**
+     * @param overflow receives the impressions that did not fit in the buffer, on the thread that added
+     *                 them, so it must not block; may be null
+     */
+    public RingBufferImpressionsStorage(int queueSize, Consumer<List<KeyImpression>> overflow) {
+        if (queueSize <= 0) {
+            throw new IllegalArgumentException("queueSize must be > 0: " + queueSize);
+        }
+        _capacity = queueSize;
+        _buffer = new KeyImpression[queueSize];
+        _sequences = new AtomicLongArray(queueSize);
+        _overflow = overflow;
+    }
+
+    @Override
+    public long put(List<KeyImpression> imps) {
+        int count = 0;
+        for (KeyImpression imp : imps) {
+            if (imp != null) {
+                count++;
+            }
+        }
+        if (count == 0) {
+            return 0;
+        }
+
+        long tail;
+        int claimed;
+        do {
+            tail = _tail.get();
+            long free = _capacity - (tail - _head);
+            if (free <= 0) {
+                overflow(imps, 0);
+                return 0;
+            }
+            claimed = (int) Math.min(free, count);
+        } while (!_tail.compareAndSet(tail, tail + claimed));
+
+        long position = tail;
+        for (KeyImpression imp : imps) {
+            if (position == tail + claimed) {
+                break;
+            }
+            if (imp == null) {
+                continue;
+            }
+            int index = index(position);
+            _buffer[index] = imp;
+            _sequences.lazySet(index, position + 1);
+            position++;
+        }
+        if (claimed < count) {
+            overflow(imps, claimed);
+        }
+        return claimed;
+    }
+
+    @Override
+    public List<KeyImpression> pop(int count) {
+        return drain(count);
+    }
+
+    @Override
+    public List<KeyImpression> pop() {
+        return drain(Integer.MAX_VALUE);
+    }
+
+    @Override
+    public boolean isFull() {
+        return _tail.get() - _head >= _capacity;
+    }
+
+    private synchronized List<KeyImpression> drain(int count) {
+        long head = _head;
+        List<KeyImpression> popped = new ArrayList<>((int) Math.min(count, Math.max(0, _tail.get() - head)));
+        while (popped.size() < count) {
+            int index = index(head);
+            if (_sequences.get(index) != head + 1) {
+                break; // empty, or the next impression is still being written
+            }
+            popped.add(_buffer[index]);
+            _buffer[index] = null;
+            head++;
+        }
+        _head = head;
+        return popped;
+    }
+
+    // hands over the impressions left after the first queued ones
+    private void overflow(List<KeyImpression> imps, int queued) {
+        if (_overflow == null) {
+            return;
+        }
+        List<KeyImpression> dropped = new ArrayList<>();
+        int skipped = 0;
+        for (KeyImpression imp : imps) {
+            if (imp != null && skipped++ >= queued) {
+                dropped.add(imp);
+            }
+        }
+        _overflow.accept(dropped);
+    }
+
+    private int index(long position) {
+        return (int) (position % _capacity);
+    }
+}
@@ -5,7 +5,7 @@ import io.split.client.impressions.ImpressionCounter;
 import io.split.client.impressions.ImpressionsResult;
 import io.split.client.impressions.UniqueKeysTracker;
 
-import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 public class ProcessImpressionNone implements ProcessImpressionStrategy{
@@ -28,6 +28,6 @@ public class ProcessImpressionNone implements ProcessImpressionStrategy{
             _uniqueKeysTracker.track(impression.split(),impression.key());
         }
         List<Impression> impressionForListener =  this._listenerEnabled ? impressions : null;
-        return new ImpressionsResult(new ArrayList<>(), impressionForListener);
+        return new ImpressionsResult(Collections.emptyList(), impressionForListener);
     }
 }
@@ -0,0 +1,147 @@
+package io.split.client.utils;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Drains a queue in chunks bounded by item count and approximate size, and posts each chunk on its own.
+ *
+ * With more than one post allowed in flight, chunks are posted from a pool and the caller blocks when every
+ * slot is busy, so the queue is not drained faster than the posts complete. With a single slot chunks are
+ * posted on the calling thread. Every chunk is one request, so the sender telemetry records the latency of
+ * each chunk.
+ */
+public class ChunkedPoster<T> {
+
+    private static final Logger _log = LoggerFactory.getLogger(ChunkedPoster.class);
+    private static final long CLOSE_TIMEOUT_SECONDS = 10L;
+
+    private final int _maxItems;
+    private final long _maxBytes;
+    private final ToLongFunction<T> _sizeOf;
+    private final Consumer<List<T>> _post;
+    private final Semaphore _inFlight;
+    private final ExecutorService _executorService;
+
+    /**
+     * @param maxItems    items per chunk, 0 for no limit
+     * @param maxBytes    approximate bytes per chunk, 0 for no limit
+     * @param maxInFlight posts allowed at the same time
+     */
+    public ChunkedPoster(int maxItems, long maxBytes, int maxInFlight, ToLongFunction<T> sizeOf, Consumer<List<T>> post,
+                         ThreadFactory threadFactory, String name) {
+        _maxItems = maxItems;
+        _maxBytes = maxBytes;
+        _sizeOf = checkNotNull(sizeOf);
+        _post = checkNotNull(post);
+        _inFlight = new Semaphore(maxInFlight);
+        _executorService = maxInFlight > 1
+                ? SplitExecutorFactory.buildExecutorService(threadFactory, name, maxInFlight)
+                : null;
+    }
+
+    /**
+     * Pops and posts chunks until the queue runs out.
+     *
+     * @param popAll pops every queued item, used when chunks have no item limit
+     * @param pop    pops up to the given number of items
+     */
+    public void flush(Supplier<List<T>> popAll, IntFunction<List<T>> pop) {
+        if (_maxItems <= 0) {
+            submitAll(popAll.get());
+            return;
+        }
+        List<T> items;
+        do {
+            items = pop.apply(_maxItems);
+            submitAll(items);
+        } while (items.size() == _maxItems);
+    }
+
+    /**
+     * Waits for the posts in flight and stops the pool.
+     */
+    public void close() {
+        if (_executorService == null) {
+            return;
+        }
+        _executorService.shutdown();
+        try {
+            if (!_executorService.awaitTermination(CLOSE_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                _log.warn("Posts still in flight after {} seconds.", CLOSE_TIMEOUT_SECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void submitAll(List<T> items) {
+        if (items.isEmpty()) {
+            return;
+        }
+        if (_maxBytes <= 0) {
+            submit(items);
+            return;
+        }
+        List<T> chunk = new ArrayList<>();
+        long bytes = 0;
+        for (T item : items) {
+            long size = _sizeOf.applyAsLong(item);
+            if (!chunk.isEmpty() && bytes + size > _maxBytes) {
+                submit(chunk);
+                chunk = new ArrayList<>();
+                bytes = 0;
+            }
+            chunk.add(item);
+            bytes += size;
+        }
+        submit(chunk);
+    }
+
+    private void submit(List<T> chunk) {
+        if (_executorService == null) {
+            post(chunk);
+            return;
+        }
+        _inFlight.acquireUninterruptibly();
+        try {
+            _executorService.execute(() -> {
+                try {
+                    post(chunk);
+                } finally {
+                    _inFlight.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // closing, post what is left on this thread
+            _inFlight.release();
+            post(chunk);
+        }
+    }
+
+    private void post(List<T> chunk) {
+        long start = System.currentTimeMillis();
+        try {
+            _post.accept(chunk);
+        } catch (Exception e) {
+            _log.warn("Error posting a chunk of " + chunk.size() + " items.", e);
+        }
+        if (_log.isDebugEnabled()) {
+            _log.debug(String.format("Posting a chunk of %d items took %d millis", chunk.size(), System.currentTimeMillis() - start));
+        }
+    }
+}
@@ -35,6 +35,10 @@ public class Json {
         return _json.toJson(obj);
     }
 
+    public static void toJson(Object obj, Appendable writer) {
+        _json.toJson(obj, writer);
+    }
+
     public static <T> T fromJson(String json, Class<T> clz) {
         return _json.fromJson(json, clz);
     }
@@ -0,0 +1,80 @@
+package io.split.client.utils;
+
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.io.entity.AbstractHttpEntity;
+
+import java.io.BufferedWriter;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Request body that serializes an object to JSON straight into the connection while the request is sent,
+ * optionally gzip compressed, instead of building the whole document as a String first. The object is
+ * serialized again on every write, so the entity can be retried.
+ */
+public class JsonStreamEntity extends AbstractHttpEntity {
+
+    private static final String GZIP = "gzip";
+    private static final int BUFFER_SIZE = 8192;
+
+    private final Object _object;
+    private final boolean _gzip;
+
+    public JsonStreamEntity(Object object, boolean gzip) {
+        super(ContentType.APPLICATION_JSON, gzip ? GZIP : null, true);
+        _object = object;
+        _gzip = gzip;
+    }
+
+    @Override
+    public void writeTo(OutputStream outStream) throws IOException {
+        if (_gzip) {
+            GZIPOutputStream gzipStream = new GZIPOutputStream(outStream, BUFFER_SIZE);
+            write(gzipStream);
+            gzipStream.finish();
+            return;
+        }
+        write(outStream);
+    }
+
+    @Override
+    public InputStream getContent() throws IOException {
+        ByteArrayOutputStream content = new ByteArrayOutputStream();
+        writeTo(content);
+        return new ByteArrayInputStream(content.toByteArray());
+    }
+
+    @Override
+    public boolean isRepeatable() {
+        return true;
+    }
+
+    @Override
+    public boolean isStreaming() {
+        return false;
+    }
+
+    @Override
+    public long getContentLength() {
+        return -1;
+    }
+
+    @Override
+    public void close() {
+        // nothing held between writes
+    }
+
+    // the underlying stream belongs to the connection, so it is flushed but never closed here
+    private void write(OutputStream outStream) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outStream, StandardCharsets.UTF_8), BUFFER_SIZE);
+        Json.toJson(_object, writer);
+        writer.flush();
+    }
+}
@@ -299,4 +299,154 @@ public final class MurmurHash3 {
 
         return new long[] { h1, h2 };
     }
-}
\ No newline at end of file
+
+    /**
+     * Incremental form of {@link #hash128x64(byte[], int, int, long)}: bytes are fed one at a time, strings
+     * as their UTF-8 encoding and numbers as their decimal representation, without building an intermediate
+     * byte array. Feeding the same bytes yields the same hash. Instances are not thread safe but can be
+     * reused by calling {@link #reset(long)}.
+     */
+    public static final class Hash128x64 {
+        private long _h1;
+        private long _h2;
+        private long _k1;
+        private long _k2;
+        private int _pending;
+        private int _length;
+
+        public Hash128x64 reset(long seed) {
+            _h1 = seed;
+            _h2 = seed;
+            _k1 = 0;
+            _k2 = 0;
+            _pending = 0;
+            _length = 0;
+            return this;
+        }
+
+        public Hash128x64 putByte(int b) {
+            long value = b & 0xffL;
+            if (_pending < 8) {
+                _k1 |= value << (_pending << 3);
+            } else {
+                _k2 |= value << ((_pending - 8) << 3);
+            }
+            _length++;
+            if (++_pending == 16) {
+                mixBlock();
+            }
+            return this;
+        }
+
+        /**
+         * Feeds the UTF-8 encoding of the characters, as {@code String.getBytes(StandardCharsets.UTF_8)} would
+         * produce it (unpaired surrogates become '?').
+         */
+        public Hash128x64 putUtf8(CharSequence data) {
+            int length = data.length();
+            for (int i = 0; i < length; i++) {
+                char c = data.charAt(i);
+                if (c < 0x80) {
+                    putByte(c);
+                } else if (c < 0x800) {
+                    putByte(0xc0 | (c >> 6));
+                    putByte(0x80 | (c & 0x3f));
+                } else if (!Character.isSurrogate(c)) {
+                    putByte(0xe0 | (c >> 12));
+                    putByte(0x80 | ((c >> 6) & 0x3f));
+                    putByte(0x80 | (c & 0x3f));
+                } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(data.charAt(i + 1))) {
+                    int codePoint = Character.toCodePoint(c, data.charAt(++i));
+                    putByte(0xf0 | (codePoint >> 18));
+                    putByte(0x80 | ((codePoint >> 12) & 0x3f));
+                    putByte(0x80 | ((codePoint >> 6) & 0x3f));
+                    putByte(0x80 | (codePoint & 0x3f));
+                } else {
+                    putByte('?');
+                }
+            }
+            return this;
+        }
+
+        /**
+         * Feeds the decimal representation of the value, as {@code Long.toString(value)} would produce it.
+         */
+        public Hash128x64 putDecimal(long value) {
+            // digits are extracted from the negative value so Long.MIN_VALUE needs no special case
+            long remaining = value;
+            if (value < 0) {
+                putByte('-');
+            } else {
+                remaining = -value;
+            }
+            long divisor = 1;
+            while (remaining / divisor <= -10) {
+                divisor *= 10;
+            }
+            while (divisor > 0) {
+                putByte('0' - (int) (remaining / divisor));
+                remaining %= divisor;
+                divisor /= 10;
+            }
+            return this;
+        }
+
+        /**
+         * @return the first 64 bits of the 128-bit hash, i.e. {@code hash128x64(...)[0]}.
+         */
+        public long finish64() {
+            long h1 = _h1;
+            long h2 = _h2;
+            if (_pending > 8) {
+                long k2 = _k2;
+                k2 *= C2;
+                k2 = Long.rotateLeft(k2, R3);
+                k2 *= C1;
+                h2 ^= k2;
+            }
+            if (_pending > 0) {
+                long k1 = _k1;
+                k1 *= C1;
+                k1 = Long.rotateLeft(k1, R1);
+                k1 *= C2;
+                h1 ^= k1;
+            }
+
+            h1 ^= _length;
+            h2 ^= _length;
+
+            h1 += h2;
+            h2 += h1;
+
+            h1 = fmix64(h1);
+            h2 = fmix64(h2);
+
+            return h1 + h2;
+        }
+
+        private void mixBlock() {
+            long k1 = _k1;
+            long k2 = _k2;
+
+            k1 *= C1;
+            k1 = Long.rotateLeft(k1, R1);
+            k1 *= C2;
+            _h1 ^= k1;
+            _h1 = Long.rotateLeft(_h1, R2);
+            _h1 += _h2;
+            _h1 = _h1 * M + N1;
+
+            k2 *= C2;
+            k2 = Long.rotateLeft(k2, R3);
+            k2 *= C1;
+            _h2 ^= k2;
+            _h2 = Long.rotateLeft(_h2, R1);
+            _h2 += _h1;
+            _h2 = _h2 * M + N2;
+
+            _k1 = 0;
+            _k2 = 0;
+            _pending = 0;
+        }
+    }
+}
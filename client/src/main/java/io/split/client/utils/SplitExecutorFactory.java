@@ -21,6 +21,10 @@ public class SplitExecutorFactory {
         return Executors.newSingleThreadExecutor(buildThreadFactory(threadFactory, name));
     }
 
+    public static ExecutorService buildExecutorService(ThreadFactory threadFactory, String name, Integer size) {
+        return Executors.newFixedThreadPool(size, buildThreadFactory(threadFactory, name));
+    }
+
     private static ThreadFactory buildThreadFactory(ThreadFactory threadFactory, String name) {
         ThreadFactoryBuilder threadFactoryBuilder = new ThreadFactoryBuilder()
                 .setDaemon(true)
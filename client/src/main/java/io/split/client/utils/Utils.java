@@ -22,6 +22,10 @@ public class Utils {
         return HttpEntities.create(json, ContentType.APPLICATION_JSON);
     }
 
+    public static HttpEntity toJsonStreamEntity(Object obj, boolean gzip) {
+        return new JsonStreamEntity(obj, gzip);
+    }
+
 
     public static void forceClose(CloseableHttpResponse response) {
         try {
@@ -11,11 +11,13 @@ public class ConsumerSyncManager implements SyncManager {
 
     @Override
     public void start() {
+        _redisSynchronizer.startPeriodicFetching();
         _redisSynchronizer.startPeriodicDataRecording();
     }
 
     @Override
     public void shutdown() throws IOException {
+        _redisSynchronizer.stopPeriodicFetching();
         _redisSynchronizer.stopPeriodicDataRecording();
     }
 }
@@ -3,6 +3,12 @@ package io.split.engine.common;
 import io.split.client.impressions.ImpressionsManager;
 import io.split.client.impressions.UniqueKeysTracker;
 import io.split.engine.sse.dtos.SplitKillNotification;
+import io.split.storages.pluggable.adapters.AsyncEventAdapterProducer;
+import io.split.storages.pluggable.adapters.AsyncImpressionAdapterProducer;
+import io.split.storages.pluggable.adapters.CachedSegmentAdapterConsumer;
+import io.split.storages.pluggable.adapters.CachedSplitAdapterConsumer;
+import io.split.storages.pluggable.adapters.ReplicatedSegmentAdapterConsumer;
+import io.split.storages.pluggable.adapters.UserCustomTelemetryAdapterProducer;
 import io.split.telemetry.synchronizer.TelemetrySyncTask;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -13,11 +19,28 @@ public class ConsumerSynchronizer implements Synchronizer{
     private  final UniqueKeysTracker _uniqueKeysTracker;
     private final ImpressionsManager _impressionManager;
     private final TelemetrySyncTask _telemetrySyncTask;
+    private final CachedSplitAdapterConsumer _cachedSplitAdapterConsumer;
+    private final CachedSegmentAdapterConsumer _cachedSegmentAdapterConsumer;
+    private final UserCustomTelemetryAdapterProducer _telemetryAdapterProducer;
+    private final AsyncImpressionAdapterProducer _impressionAdapterProducer;
+    private final AsyncEventAdapterProducer _eventAdapterProducer;
+    private final ReplicatedSegmentAdapterConsumer _replicatedSegmentAdapterConsumer;
 
-    public ConsumerSynchronizer(SplitTasks splitTasks){
+    public ConsumerSynchronizer(SplitTasks splitTasks, CachedSplitAdapterConsumer cachedSplitAdapterConsumer,
+                                CachedSegmentAdapterConsumer cachedSegmentAdapterConsumer,
+                                UserCustomTelemetryAdapterProducer telemetryAdapterProducer,
+                                AsyncImpressionAdapterProducer impressionAdapterProducer,
+                                AsyncEventAdapterProducer eventAdapterProducer,
+                                ReplicatedSegmentAdapterConsumer replicatedSegmentAdapterConsumer){
         _uniqueKeysTracker = splitTasks.getUniqueKeysTracker();
         _impressionManager = splitTasks.getImpressionManager();
         _telemetrySyncTask = splitTasks.getTelemetrySyncTask();
+        _cachedSplitAdapterConsumer = cachedSplitAdapterConsumer;
+        _cachedSegmentAdapterConsumer = cachedSegmentAdapterConsumer;
+        _telemetryAdapterProducer = telemetryAdapterProducer;
+        _impressionAdapterProducer = impressionAdapterProducer;
+        _eventAdapterProducer = eventAdapterProducer;
+        _replicatedSegmentAdapterConsumer = replicatedSegmentAdapterConsumer;
     }
     @Override
     public boolean syncAll() {
@@ -26,12 +49,43 @@ public class ConsumerSynchronizer implements Synchronizer{
 
     @Override
     public void startPeriodicFetching() {
-        //No-Op
+        if (_cachedSplitAdapterConsumer != null){
+            try {
+                _cachedSplitAdapterConsumer.start();
+            } catch (Exception e) {
+                _log.error("Error trying to init feature flag cache refresh task.", e);
+            }
+        }
+        if (_cachedSegmentAdapterConsumer != null){
+            try {
+                _cachedSegmentAdapterConsumer.start();
+            } catch (Exception e) {
+                _log.error("Error trying to init segment cache refresh task.", e);
+            }
+        }
+        if (_replicatedSegmentAdapterConsumer != null){
+            try {
+                _replicatedSegmentAdapterConsumer.start();
+            } catch (Exception e) {
+                _log.error("Error trying to init segment replication task.", e);
+            }
+        }
     }
 
     @Override
     public void stopPeriodicFetching() {
-        //No-Op
+        if (_cachedSplitAdapterConsumer != null){
+            _cachedSplitAdapterConsumer.stop();
+            _log.info("Successful stop of feature flag cache refresh task");
+        }
+        if (_cachedSegmentAdapterConsumer != null){
+            _cachedSegmentAdapterConsumer.stop();
+            _log.info("Successful stop of segment cache refresh task");
+        }
+        if (_replicatedSegmentAdapterConsumer != null){
+            _replicatedSegmentAdapterConsumer.stop();
+            _log.info("Successful stop of segment replication task");
+        }
     }
 
     @Override
@@ -51,6 +105,20 @@ public class ConsumerSynchronizer implements Synchronizer{
 
     @Override
     public void startPeriodicDataRecording() {
+        if (_impressionAdapterProducer != null){
+            try {
+                _impressionAdapterProducer.start();
+            } catch (Exception e) {
+                _log.error("Error trying to init impressions writer task.", e);
+            }
+        }
+        if (_eventAdapterProducer != null){
+            try {
+                _eventAdapterProducer.start();
+            } catch (Exception e) {
+                _log.error("Error trying to init events writer task.", e);
+            }
+        }
         try {
             _impressionManager.start();
         } catch (Exception e) {
@@ -68,18 +136,37 @@ public class ConsumerSynchronizer implements Synchronizer{
         } catch (Exception e) {
             _log.error("Error trying to Telemetry synchronizer task.", e);
         }
+        if (_telemetryAdapterProducer != null){
+            try {
+                _telemetryAdapterProducer.start();
+            } catch (Exception e) {
+                _log.error("Error trying to init telemetry flush task.", e);
+            }
+        }
     }
 
     @Override
     public void stopPeriodicDataRecording() {
         _impressionManager.close();
         _log.info("Successful shutdown of impressions manager");
+        if (_impressionAdapterProducer != null){
+            _impressionAdapterProducer.stop();
+            _log.info("Successful stop of impressions writer");
+        }
+        if (_eventAdapterProducer != null){
+            _eventAdapterProducer.stop();
+            _log.info("Successful stop of events writer");
+        }
         if (_uniqueKeysTracker != null){
             _uniqueKeysTracker.stop();
             _log.info("Successful stop of UniqueKeysTracker");
         }
         _telemetrySyncTask.stopScheduledTask();
         _log.info("Successful shutdown of telemetry sync task");
+        if (_telemetryAdapterProducer != null){
+            _telemetryAdapterProducer.stop();
+            _log.info("Successful stop of telemetry flush task");
+        }
     }
 
     @Override
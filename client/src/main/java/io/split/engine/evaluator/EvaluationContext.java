@@ -2,15 +2,37 @@ package io.split.engine.evaluator;
 
 import io.split.storages.SegmentCacheConsumer;
 
+import java.util.HashMap;
+import java.util.Map;
+
 import static com.google.common.base.Preconditions.checkNotNull;
 
 public class EvaluationContext {
     private final Evaluator _evaluator;
     private final SegmentCacheConsumer _segmentCacheConsumer;
+    // set only on contexts scoped to a single evaluation call, see memoizing(...)
+    private final EvaluatorImp _memoizingEvaluator;
+    private Map<String, Map<String, Boolean>> _segmentMemberships;
+    private Map<String, Map<String, String>> _dependencyTreatments;
 
     public EvaluationContext(Evaluator evaluator, SegmentCacheConsumer segmentCacheConsumer) {
+        this(evaluator, segmentCacheConsumer, null);
+    }
+
+    private EvaluationContext(Evaluator evaluator, SegmentCacheConsumer segmentCacheConsumer, EvaluatorImp memoizingEvaluator) {
         _evaluator = checkNotNull(evaluator);
         _segmentCacheConsumer = checkNotNull(segmentCacheConsumer);
+        _memoizingEvaluator = memoizingEvaluator;
+    }
+
+    /**
+     * Context for a single evaluation call (one bucketing key and set of attributes) that remembers segment
+     * memberships and dependency treatments, so evaluating several feature flags for the same key checks each
+     * segment and dependency once. It is not thread safe and must not outlive the call, since segments and
+     * flags change over time.
+     */
+    static EvaluationContext memoizing(EvaluatorImp evaluator, SegmentCacheConsumer segmentCacheConsumer) {
+        return new EvaluationContext(evaluator, segmentCacheConsumer, checkNotNull(evaluator));
     }
 
     public Evaluator getEvaluator() {
@@ -20,4 +42,55 @@ public class EvaluationContext {
     public SegmentCacheConsumer getSegmentCache() {
         return _segmentCacheConsumer;
     }
+
+    public boolean isInSegment(String segmentName, String key) {
+        if (_memoizingEvaluator == null) {
+            return _segmentCacheConsumer.isInSegment(segmentName, key);
+        }
+        if (_segmentMemberships == null) {
+            _segmentMemberships = new HashMap<>();
+        }
+        Map<String, Boolean> memberships = _segmentMemberships.computeIfAbsent(segmentName, s -> new HashMap<>());
+        Boolean member = memberships.get(key);
+        if (member == null) {
+            member = _segmentCacheConsumer.isInSegment(segmentName, key);
+            memberships.put(key, member);
+        }
+        return member;
+    }
+
+    /**
+     * Seeds the memo of a memoizing context with memberships resolved ahead of the evaluation.
+     */
+    void rememberSegments(String key, Map<String, Boolean> memberships) {
+        if (_memoizingEvaluator == null || memberships == null) {
+            return;
+        }
+        if (_segmentMemberships == null) {
+            _segmentMemberships = new HashMap<>();
+        }
+        for (Map.Entry<String, Boolean> membership : memberships.entrySet()) {
+            _segmentMemberships.computeIfAbsent(membership.getKey(), s -> new HashMap<>()).put(key, membership.getValue());
+        }
+    }
+
+    /**
+     * @return treatment of {@code featureFlag} for the given keys, as required by dependency matchers.
+     */
+    public String evaluateDependency(String matchingKey, String bucketingKey, String featureFlag, Map<String, Object> attributes) {
+        if (_memoizingEvaluator == null) {
+            return _evaluator.evaluateFeature(matchingKey, bucketingKey, featureFlag, attributes).treatment;
+        }
+        if (_dependencyTreatments == null) {
+            _dependencyTreatments = new HashMap<>();
+        }
+        Map<String, String> treatments = _dependencyTreatments.computeIfAbsent(featureFlag, f -> new HashMap<>());
+        String treatment = treatments.get(matchingKey);
+        if (treatment == null) {
+            // nested evaluations share this context so their segment checks are memoized as well
+            treatment = _memoizingEvaluator.evaluateFeature(matchingKey, bucketingKey, featureFlag, attributes, this).treatment;
+            treatments.put(matchingKey, treatment);
+        }
+        return treatment;
+    }
 }
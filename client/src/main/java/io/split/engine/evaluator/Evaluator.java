@@ -1,5 +1,7 @@
 package io.split.engine.evaluator;
 
+import io.split.client.api.Key;
+
 import java.util.List;
 import java.util.Map;
 
@@ -8,4 +10,6 @@ public interface Evaluator {
                                                                Map<String, Object> attributes);
     Map<String, EvaluatorImp.TreatmentLabelAndChangeNumber> evaluateFeatures(String matchingKey, String bucketingKey,
                                                                              List<String> featureFlags, Map<String, Object> attributes);
+    List<EvaluatorImp.TreatmentLabelAndChangeNumber> evaluateFeatureForKeys(List<Key> keys, String featureFlag,
+                                                                            Map<String, Object> attributes);
 }
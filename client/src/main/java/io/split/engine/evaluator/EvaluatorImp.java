@@ -1,6 +1,6 @@
 package io.split.engine.evaluator;
 
-import io.split.client.dtos.ConditionType;
+import io.split.client.api.Key;
 import io.split.client.exceptions.ChangeNumberExceptionWrapper;
 import io.split.engine.experiments.ParsedCondition;
 import io.split.engine.experiments.ParsedSplit;
@@ -11,9 +11,14 @@ import io.split.storages.SplitCacheConsumer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.stream.IntStream;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
@@ -21,22 +26,51 @@ public class EvaluatorImp implements Evaluator {
 
 
     private static final Logger _log = LoggerFactory.getLogger(EvaluatorImp.class);
+    private static final TreatmentLabelAndChangeNumber DEFINITION_NOT_FOUND_RESULT =
+            new TreatmentLabelAndChangeNumber(Treatments.CONTROL, Labels.DEFINITION_NOT_FOUND);
 
     private final SegmentCacheConsumer _segmentCacheConsumer;
     private final EvaluationContext _evaluationContext;
     private final SplitCacheConsumer _splitCacheConsumer;
+    private final int _parallelEvaluationThreshold;
+    private final boolean _batchSegmentLookups;
 
     public EvaluatorImp(SplitCacheConsumer splitCacheConsumer, SegmentCacheConsumer segmentCache) {
+        this(splitCacheConsumer, segmentCache, 0);
+    }
+
+    /**
+     * @param parallelEvaluationThreshold amount of keys from which evaluateFeatureForKeys runs on the common
+     *                                    ForkJoinPool. Zero or less disables parallel evaluation.
+     */
+    public EvaluatorImp(SplitCacheConsumer splitCacheConsumer, SegmentCacheConsumer segmentCache, int parallelEvaluationThreshold) {
+        this(splitCacheConsumer, segmentCache, parallelEvaluationThreshold, false);
+    }
+
+    /**
+     * @param batchSegmentLookups when true, evaluateFeatures resolves the key's membership in every segment referenced by
+     *                            the requested feature flags with a single SegmentCacheConsumer.isInSegments call before
+     *                            running the matchers. Meant for remote segment storage, where each lookup is a round trip.
+     */
+    public EvaluatorImp(SplitCacheConsumer splitCacheConsumer, SegmentCacheConsumer segmentCache, int parallelEvaluationThreshold,
+                        boolean batchSegmentLookups) {
         _splitCacheConsumer = checkNotNull(splitCacheConsumer);
         _segmentCacheConsumer = checkNotNull(segmentCache);
         _evaluationContext = new EvaluationContext(this, _segmentCacheConsumer);
+        _parallelEvaluationThreshold = parallelEvaluationThreshold;
+        _batchSegmentLookups = batchSegmentLookups;
     }
 
     @Override
     public TreatmentLabelAndChangeNumber evaluateFeature(String matchingKey, String bucketingKey, String featureFlag, Map<String,
             Object> attributes) {
+        return evaluateFeature(matchingKey, bucketingKey, featureFlag, attributes, _evaluationContext);
+    }
+
+    TreatmentLabelAndChangeNumber evaluateFeature(String matchingKey, String bucketingKey, String featureFlag, Map<String,
+            Object> attributes, EvaluationContext evaluationContext) {
         ParsedSplit parsedSplit = _splitCacheConsumer.get(featureFlag);
-        return evaluateParsedSplit(matchingKey, bucketingKey, attributes, parsedSplit);
+        return evaluateParsedSplit(matchingKey, bucketingKey, attributes, parsedSplit, evaluationContext);
     }
 
     @Override
@@ -47,78 +81,117 @@ public class EvaluatorImp implements Evaluator {
         if (parsedSplits == null) {
             return results;
         }
-        featureFlags.forEach(s -> results.put(s, evaluateParsedSplit(matchingKey, bucketingKey, attributes, parsedSplits.get(s))));
+        // flags evaluated together for one key usually share segments and dependencies, check each of them once
+        EvaluationContext evaluationContext = EvaluationContext.memoizing(this, _segmentCacheConsumer);
+        if (_batchSegmentLookups) {
+            prefetchSegments(matchingKey, parsedSplits.values(), evaluationContext);
+        }
+        featureFlags.forEach(s -> results.put(s, evaluateParsedSplit(matchingKey, bucketingKey, attributes, parsedSplits.get(s),
+                evaluationContext)));
         return results;
     }
 
+    @Override
+    public List<TreatmentLabelAndChangeNumber> evaluateFeatureForKeys(List<Key> keys, String featureFlag, Map<String, Object> attributes) {
+        ParsedSplit parsedSplit = _splitCacheConsumer.get(featureFlag);
+        TreatmentLabelAndChangeNumber[] results = new TreatmentLabelAndChangeNumber[keys.size()];
+        if (parsedSplit == null) {
+            Arrays.fill(results, DEFINITION_NOT_FOUND_RESULT);
+            return Arrays.asList(results);
+        }
+
+        if (_parallelEvaluationThreshold > 0 && results.length >= _parallelEvaluationThreshold) {
+            IntStream.range(0, results.length).parallel().forEach(i -> results[i] = evaluateKey(keys.get(i), attributes, parsedSplit));
+        } else {
+            for (int i = 0; i < results.length; i++) {
+                results[i] = evaluateKey(keys.get(i), attributes, parsedSplit);
+            }
+        }
+        return Arrays.asList(results);
+    }
+
+    private void prefetchSegments(String matchingKey, Collection<ParsedSplit> parsedSplits, EvaluationContext evaluationContext) {
+        Set<String> segmentNames = new HashSet<>();
+        for (ParsedSplit parsedSplit : parsedSplits) {
+            if (parsedSplit != null) {
+                segmentNames.addAll(parsedSplit.getSegmentsNames());
+            }
+        }
+        if (segmentNames.isEmpty()) {
+            return;
+        }
+        evaluationContext.rememberSegments(matchingKey, _segmentCacheConsumer.isInSegments(segmentNames, matchingKey));
+    }
+
+    private TreatmentLabelAndChangeNumber evaluateKey(Key key, Map<String, Object> attributes, ParsedSplit parsedSplit) {
+        // callers null out keys that failed validation, those are skipped and yield a null result.
+        if (key == null) {
+            return null;
+        }
+        return evaluateParsedSplit(key.matchingKey(), key.bucketingKey(), attributes, parsedSplit, _evaluationContext);
+    }
+
     /**
      * @param matchingKey  MUST NOT be null
      * @param bucketingKey
      * @param parsedSplit  MUST NOT be null
      * @param attributes   MUST NOT be null
+     * @param evaluationContext MUST NOT be null
      * @return
      * @throws ChangeNumberExceptionWrapper
      */
     private TreatmentLabelAndChangeNumber getTreatment(String matchingKey, String bucketingKey, ParsedSplit parsedSplit, Map<String,
-            Object> attributes) throws ChangeNumberExceptionWrapper {
+            Object> attributes, EvaluationContext evaluationContext) throws ChangeNumberExceptionWrapper {
         try {
             if (parsedSplit.killed()) {
-                String config = parsedSplit.configurations() != null ? parsedSplit.configurations().get(parsedSplit.defaultTreatment()) : null;
-                return new TreatmentLabelAndChangeNumber(parsedSplit.defaultTreatment(), Labels.KILLED, parsedSplit.changeNumber(), config);
+                return parsedSplit.killedResult();
             }
 
             /*
              * There are three parts to a single Feature flag: 1) Whitelists 2) Traffic Allocation
-             * 3) Rollout. The flag inRollout is there to understand when we move into the Rollout
-             * section. This is because we need to make sure that the Traffic Allocation
-             * computation happens after the whitelist but before the rollout.
+             * 3) Rollout. The traffic allocation check happens right before the first rollout condition,
+             * which ParsedSplit resolves up front (-1 when the traffic allocation is 100% and no check is needed).
              */
-            boolean inRollout = false;
-
             String bk = (bucketingKey == null) ? matchingKey : bucketingKey;
+            List<ParsedCondition> parsedConditions = parsedSplit.parsedConditions();
+            int trafficAllocationConditionIndex = parsedSplit.trafficAllocationConditionIndex();
 
-            for (ParsedCondition parsedCondition : parsedSplit.parsedConditions()) {
-
-                if (!inRollout && parsedCondition.conditionType() == ConditionType.ROLLOUT) {
-
-                    if (parsedSplit.trafficAllocation() < 100) {
-                        // if the traffic allocation is 100%, no need to do anything special.
-                        int bucket = Splitter.getBucket(bk, parsedSplit.trafficAllocationSeed(), parsedSplit.algo());
-
-                        if (bucket > parsedSplit.trafficAllocation()) {
-                            // out of split
-                            String config = parsedSplit.configurations() != null ?
-                                    parsedSplit.configurations().get(parsedSplit.defaultTreatment()) : null;
-                            return new TreatmentLabelAndChangeNumber(parsedSplit.defaultTreatment(), Labels.NOT_IN_SPLIT,
-                                    parsedSplit.changeNumber(), config);
-                        }
+            for (int i = 0; i < parsedConditions.size(); i++) {
+                ParsedCondition parsedCondition = parsedConditions.get(i);
 
+                if (i == trafficAllocationConditionIndex) {
+                    int bucket = Splitter.getBucket(bk, parsedSplit.trafficAllocationSeed(), parsedSplit.algo());
+                    if (bucket > parsedSplit.trafficAllocation()) {
+                        // out of split
+                        return parsedSplit.notInSplitResult();
                     }
-                    inRollout = true;
                 }
 
-                if (parsedCondition.matcher().match(matchingKey, bucketingKey, attributes, _evaluationContext)) {
-                    String treatment = Splitter.getTreatment(bk, parsedSplit.seed(), parsedCondition.partitions(), parsedSplit.algo());
-                    String config = parsedSplit.configurations() != null ? parsedSplit.configurations().get(treatment) : null;
-                    return new TreatmentLabelAndChangeNumber(treatment, parsedCondition.label(), parsedSplit.changeNumber(), config);
+                if (parsedCondition.matcher().match(matchingKey, bucketingKey, attributes, evaluationContext)) {
+                    TreatmentLabelAndChangeNumber constantResult = parsedSplit.constantConditionResult(i);
+                    if (constantResult != null) {
+                        return constantResult;
+                    }
+                    String treatment = parsedCondition.treatmentForBucket(Splitter.getBucket(bk, parsedSplit.seed(), parsedSplit.algo()));
+                    return new TreatmentLabelAndChangeNumber(treatment, parsedCondition.label(), parsedSplit.changeNumber(),
+                            parsedSplit.configFor(treatment));
                 }
             }
 
-            String config = parsedSplit.configurations() != null ? parsedSplit.configurations().get(parsedSplit.defaultTreatment()) : null;
-            return new TreatmentLabelAndChangeNumber(parsedSplit.defaultTreatment(), Labels.DEFAULT_RULE, parsedSplit.changeNumber(), config);
+            return parsedSplit.defaultRuleResult();
         } catch (Exception e) {
             throw new ChangeNumberExceptionWrapper(e, parsedSplit.changeNumber());
         }
     }
 
     private TreatmentLabelAndChangeNumber evaluateParsedSplit(String matchingKey, String bucketingKey, Map<String, Object> attributes,
-                                                              ParsedSplit parsedSplit) {
+                                                              ParsedSplit parsedSplit, EvaluationContext evaluationContext) {
         try {
             if (parsedSplit == null) {
-                return new TreatmentLabelAndChangeNumber(Treatments.CONTROL, Labels.DEFINITION_NOT_FOUND);
+                return DEFINITION_NOT_FOUND_RESULT;
             }
 
-            return getTreatment(matchingKey, bucketingKey, parsedSplit, attributes);
+            return getTreatment(matchingKey, bucketingKey, parsedSplit, attributes, evaluationContext);
         } catch (ChangeNumberExceptionWrapper e) {
             _log.error("Evaluator Exception", e.wrappedException());
             return new EvaluatorImp.TreatmentLabelAndChangeNumber(Treatments.CONTROL, Labels.EXCEPTION, e.changeNumber());
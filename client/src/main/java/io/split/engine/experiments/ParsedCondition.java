@@ -3,7 +3,9 @@ package io.split.engine.experiments;
 import io.split.client.dtos.ConditionType;
 import io.split.client.dtos.Partition;
 import io.split.engine.matchers.CombiningMatcher;
+import io.split.engine.splitter.Splitter;
 
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -18,6 +20,14 @@ public final class ParsedCondition {
     private final List<Partition> _partitions;
     private final String _label;
 
+    /*
+     * Treatment for every bucket (bucket b at index b - 1), computed once so that the evaluator picks a treatment
+     * with a single array access. When every bucket resolves to the same treatment, _constantTreatment holds it
+     * and no hashing is needed.
+     */
+    private final String[] _bucketTreatments;
+    private final String _constantTreatment;
+
     public static ParsedCondition createParsedConditionForTests(CombiningMatcher matcher, List<Partition> partitions) {
         return new ParsedCondition(ConditionType.ROLLOUT, matcher, partitions, null);
     }
@@ -28,6 +38,9 @@ public final class ParsedCondition {
         _matcher = matcher;
         _partitions = partitions;
         _label = label;
+
+        _bucketTreatments = Splitter.bucketTreatments(partitions == null ? Collections.emptyList() : partitions);
+        _constantTreatment = computeConstantTreatment();
     }
 
 
@@ -47,6 +60,34 @@ public final class ParsedCondition {
         return _label;
     }
 
+    /**
+     * @return the treatment every bucket resolves to, or null when the treatment depends on the bucket.
+     */
+    public String constantTreatment() {
+        return _constantTreatment;
+    }
+
+    /**
+     * @param bucket MUST be between 1 and 100, inclusive.
+     * @return the treatment of the partition covering the bucket, control if none does.
+     */
+    public String treatmentForBucket(int bucket) {
+        return _bucketTreatments[bucket - 1];
+    }
+
+    private String computeConstantTreatment() {
+        String first = _bucketTreatments[0];
+        if (first == null) {
+            return null;
+        }
+        for (String treatment : _bucketTreatments) {
+            if (!first.equals(treatment)) {
+                return null;
+            }
+        }
+        return first;
+    }
+
     @Override
     public int hashCode() {
         int result = 17;
@@ -1,6 +1,10 @@
 package io.split.engine.experiments;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import io.split.client.dtos.ConditionType;
+import io.split.engine.evaluator.EvaluatorImp.TreatmentLabelAndChangeNumber;
+import io.split.engine.evaluator.Labels;
 import io.split.engine.matchers.AttributeMatcher;
 import io.split.engine.matchers.Matcher;
 import io.split.engine.matchers.UserDefinedSegmentMatcher;
@@ -9,7 +13,6 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.stream.Collectors;
 
 /**
  * a value class representing an io.codigo.dtos.Experiment. Why are we not using
@@ -33,6 +36,24 @@ public class ParsedSplit {
     private final int _algo;
     private final Map<String, String> _configurations;
 
+    /*
+     * Derived once from the fields above so the evaluator does not re-resolve it per call.
+     * _trafficAllocationConditionIndex is the position of the first ROLLOUT condition when traffic allocation
+     * is below 100, or -1 when no traffic allocation check is needed.
+     */
+    private final int _trafficAllocationConditionIndex;
+    // resolved on first use, racing threads compute the same set
+    private volatile ImmutableSet<String> _segmentNames;
+
+    /*
+     * Outcomes that do not depend on the key are immutable, so they are built once and shared by every evaluation.
+     * _constantConditionResults holds one entry per condition, null when the condition's treatment depends on the bucket.
+     */
+    private final TreatmentLabelAndChangeNumber _killedResult;
+    private final TreatmentLabelAndChangeNumber _notInSplitResult;
+    private final TreatmentLabelAndChangeNumber _defaultRuleResult;
+    private final TreatmentLabelAndChangeNumber[] _constantConditionResults;
+
     public static ParsedSplit createParsedSplitForTests(
             String feature,
             int seed,
@@ -111,6 +132,22 @@ public class ParsedSplit {
         _trafficAllocation = trafficAllocation;
         _trafficAllocationSeed = trafficAllocationSeed;
         _configurations = configurations;
+
+        _trafficAllocationConditionIndex = _trafficAllocation < 100 ? firstRolloutConditionIndex(_parsedCondition) : -1;
+        String defaultTreatmentConfig = configFor(_defaultTreatment);
+
+        _killedResult = new TreatmentLabelAndChangeNumber(_defaultTreatment, Labels.KILLED, _changeNumber, defaultTreatmentConfig);
+        _notInSplitResult = new TreatmentLabelAndChangeNumber(_defaultTreatment, Labels.NOT_IN_SPLIT, _changeNumber, defaultTreatmentConfig);
+        _defaultRuleResult = new TreatmentLabelAndChangeNumber(_defaultTreatment, Labels.DEFAULT_RULE, _changeNumber, defaultTreatmentConfig);
+        _constantConditionResults = new TreatmentLabelAndChangeNumber[_parsedCondition.size()];
+        for (int i = 0; i < _constantConditionResults.length; i++) {
+            ParsedCondition condition = _parsedCondition.get(i);
+            String treatment = condition.constantTreatment();
+            if (treatment != null) {
+                _constantConditionResults[i] = new TreatmentLabelAndChangeNumber(treatment, condition.label(), _changeNumber,
+                        configFor(treatment));
+            }
+        }
     }
 
 
@@ -153,6 +190,34 @@ public class ParsedSplit {
         return _configurations;
     }
 
+    public int trafficAllocationConditionIndex() {
+        return _trafficAllocationConditionIndex;
+    }
+
+    public TreatmentLabelAndChangeNumber killedResult() {
+        return _killedResult;
+    }
+
+    public TreatmentLabelAndChangeNumber notInSplitResult() {
+        return _notInSplitResult;
+    }
+
+    public TreatmentLabelAndChangeNumber defaultRuleResult() {
+        return _defaultRuleResult;
+    }
+
+    /**
+     * @param conditionIndex position of the condition in parsedConditions()
+     * @return the shared result for the condition, or null when its treatment depends on the bucket.
+     */
+    public TreatmentLabelAndChangeNumber constantConditionResult(int conditionIndex) {
+        return _constantConditionResults[conditionIndex];
+    }
+
+    public String configFor(String treatment) {
+        return _configurations != null ? _configurations.get(treatment) : null;
+    }
+
     @Override
     public int hashCode() {
         int result = 17;
@@ -213,12 +278,26 @@ public class ParsedSplit {
     }
 
     public Set<String> getSegmentsNames() {
-        return parsedConditions().stream()
-                .flatMap(parsedCondition -> parsedCondition.matcher().attributeMatchers().stream())
-                .filter(ParsedSplit::isSegmentMatcher)
-                .map(ParsedSplit::asSegmentMatcherForEach)
-                .map(UserDefinedSegmentMatcher::getSegmentName)
-                .collect(Collectors.toSet());
+        ImmutableSet<String> segmentNames = _segmentNames;
+        if (segmentNames == null) {
+            segmentNames = parsedConditions().stream()
+                    .flatMap(parsedCondition -> parsedCondition.matcher().attributeMatchers().stream())
+                    .filter(ParsedSplit::isSegmentMatcher)
+                    .map(ParsedSplit::asSegmentMatcherForEach)
+                    .map(UserDefinedSegmentMatcher::getSegmentName)
+                    .collect(ImmutableSet.toImmutableSet());
+            _segmentNames = segmentNames;
+        }
+        return segmentNames;
+    }
+
+    private static int firstRolloutConditionIndex(List<ParsedCondition> conditions) {
+        for (int i = 0; i < conditions.size(); i++) {
+            if (conditions.get(i).conditionType() == ConditionType.ROLLOUT) {
+                return i;
+            }
+        }
+        return -1;
     }
 
     private static boolean isSegmentMatcher(AttributeMatcher attributeMatcher) {
@@ -21,6 +21,7 @@ import static com.google.common.base.Preconditions.checkArgument;
 public class CombiningMatcher {
 
     private final ImmutableList<AttributeMatcher> _delegates;
+    private final AttributeMatcher[] _delegatesArray;
     private final MatcherCombiner _combiner;
 
     public static CombiningMatcher of(Matcher matcher) {
@@ -35,13 +36,14 @@ public class CombiningMatcher {
 
     public CombiningMatcher(MatcherCombiner combiner, List<AttributeMatcher> delegates) {
         _delegates = ImmutableList.copyOf(delegates);
+        _delegatesArray = _delegates.toArray(new AttributeMatcher[0]);
         _combiner = combiner;
 
         checkArgument(_delegates.size() > 0);
     }
 
     public boolean match(String key, String bucketingKey, Map<String, Object> attributes, EvaluationContext evaluationContext) {
-        if (_delegates.isEmpty()) {
+        if (_delegatesArray.length == 0) {
             return false;
         }
 
@@ -55,11 +57,13 @@ public class CombiningMatcher {
     }
 
     private boolean and(String key, String bucketingKey, Map<String, Object> attributes, EvaluationContext evaluationContext) {
-        boolean result = true;
-        for (AttributeMatcher delegate : _delegates) {
-            result &= (delegate.match(key, bucketingKey, attributes, evaluationContext));
+        // matchers have no side effects, so the first miss decides the result.
+        for (AttributeMatcher delegate : _delegatesArray) {
+            if (!delegate.match(key, bucketingKey, attributes, evaluationContext)) {
+                return false;
+            }
         }
-        return result;
+        return true;
     }
 
     public ImmutableList<AttributeMatcher> attributeMatchers() {
@@ -28,7 +28,7 @@ public class DependencyMatcher implements Matcher {
             return false;
         }
 
-        String result = evaluationContext.getEvaluator().evaluateFeature((String) matchValue, bucketingKey, _featureFlag, attributes).treatment;
+        String result = evaluationContext.evaluateDependency((String) matchValue, bucketingKey, _featureFlag, attributes);
 
         return _treatments.contains(result);
     }
@@ -27,7 +27,7 @@ public class UserDefinedSegmentMatcher implements Matcher {
             return false;
         }
 
-        return evaluationContext.getSegmentCache().isInSegment(_segmentName, (String) matchValue);
+        return evaluationContext.isInSegment(_segmentName, (String) matchValue);
     }
 
     @Override
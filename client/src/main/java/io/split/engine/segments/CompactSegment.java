@@ -0,0 +1,180 @@
+package io.split.engine.segments;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Immutable segment representation optimized for memory footprint and lock-free reads.
+ *
+ * Keys are stored back to back as UTF-8 in a single byte arena and looked up through an
+ * open-addressed index of 64-bit hashes, so a segment costs a handful of arrays instead of
+ * one String plus one hash map node per key. Instances are never modified: updates return a
+ * new instance built copy-on-write from the current one.
+ */
+public final class CompactSegment {
+    private final String _name;
+    private final long _changeNumber;
+    private final byte[] _arena;
+    private final ByteBuffer _arenaView;
+    // key i occupies _arena[_starts[i], _starts[i + 1])
+    private final int[] _starts;
+    private final long[] _hashes;
+    // entry index + 1 for each slot, 0 meaning empty
+    private final int[] _slots;
+
+    private CompactSegment(String name, long changeNumber, byte[] arena, int[] starts, long[] hashes, int[] slots) {
+        _name = name;
+        _changeNumber = changeNumber;
+        _arena = arena;
+        _arenaView = ByteBuffer.wrap(arena);
+        _starts = starts;
+        _hashes = hashes;
+        _slots = slots;
+    }
+
+    public static CompactSegment empty(String name, long changeNumber) {
+        return new CompactSegment(name, changeNumber, new byte[0], new int[1], new long[0], new int[2]);
+    }
+
+    public String getName() {
+        return _name;
+    }
+
+    public long getChangeNumber() {
+        return _changeNumber;
+    }
+
+    public long getKeysSize() {
+        return _hashes.length;
+    }
+
+    /**
+     * @return approximate number of bytes held by the arena and index arrays.
+     */
+    public long getSizeInBytes() {
+        return _arena.length + 4L * _starts.length + 8L * _hashes.length + 4L * _slots.length;
+    }
+
+    public boolean contains(String key) {
+        return key != null && indexOf(key, SegmentKeys.hash(key)) >= 0;
+    }
+
+    public CompactSegment withChangeNumber(long changeNumber) {
+        return new CompactSegment(_name, changeNumber, _arena, _starts, _hashes, _slots);
+    }
+
+    /**
+     * Builds a new segment with {@code toRemove} removed and {@code toAdd} added. As with
+     * {@link SegmentImp#update(List, List, long)}, a key present in both lists ends up in the segment.
+     */
+    public CompactSegment update(Collection<String> toAdd, Collection<String> toRemove, long changeNumber) {
+        int size = _hashes.length;
+        BitSet removed = new BitSet(size);
+        if (toRemove != null) {
+            for (String key : toRemove) {
+                if (key == null) {
+                    continue;
+                }
+                int index = indexOf(key, SegmentKeys.hash(key));
+                if (index >= 0) {
+                    removed.set(index);
+                }
+            }
+        }
+
+        Set<String> added = new LinkedHashSet<>();
+        if (toAdd != null) {
+            for (String key : toAdd) {
+                if (key == null) {
+                    continue;
+                }
+                int index = indexOf(key, SegmentKeys.hash(key));
+                if (index >= 0) {
+                    removed.clear(index);
+                } else {
+                    added.add(key);
+                }
+            }
+        }
+
+        if (removed.isEmpty() && added.isEmpty()) {
+            return withChangeNumber(changeNumber);
+        }
+
+        int count = size - removed.cardinality() + added.size();
+        byte[][] encoded = new byte[added.size()][];
+        int arenaSize = 0;
+        for (int i = 0; i < size; i++) {
+            if (!removed.get(i)) {
+                arenaSize += _starts[i + 1] - _starts[i];
+            }
+        }
+        int e = 0;
+        for (String key : added) {
+            encoded[e] = key.getBytes(StandardCharsets.UTF_8);
+            arenaSize += encoded[e].length;
+            e++;
+        }
+
+        byte[] arena = new byte[arenaSize];
+        int[] starts = new int[count + 1];
+        long[] hashes = new long[count];
+        int entry = 0;
+        int position = 0;
+        for (int i = 0; i < size; i++) {
+            if (removed.get(i)) {
+                continue;
+            }
+            int length = _starts[i + 1] - _starts[i];
+            System.arraycopy(_arena, _starts[i], arena, position, length);
+            starts[entry] = position;
+            hashes[entry] = _hashes[i];
+            position += length;
+            entry++;
+        }
+        e = 0;
+        for (String key : added) {
+            System.arraycopy(encoded[e], 0, arena, position, encoded[e].length);
+            starts[entry] = position;
+            hashes[entry] = SegmentKeys.hash(key);
+            position += encoded[e].length;
+            entry++;
+            e++;
+        }
+        starts[count] = position;
+
+        return new CompactSegment(_name, changeNumber, arena, starts, hashes, buildIndex(hashes));
+    }
+
+    private int indexOf(String key, long hash) {
+        int mask = _slots.length - 1;
+        for (int slot = (int) hash & mask; ; slot = (slot + 1) & mask) {
+            int entry = _slots[slot] - 1;
+            if (entry < 0) {
+                return -1;
+            }
+            if (_hashes[entry] == hash && SegmentKeys.utf8Equals(key, _arenaView, _starts[entry], _starts[entry + 1])) {
+                return entry;
+            }
+        }
+    }
+
+    private static int[] buildIndex(long[] hashes) {
+        int capacity = SegmentKeys.indexCapacity(hashes.length);
+        int mask = capacity - 1;
+        int[] slots = new int[capacity];
+        for (int entry = 0; entry < hashes.length; entry++) {
+            int slot = (int) hashes[entry] & mask;
+            while (slots[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            slots[slot] = entry + 1;
+        }
+        return slots;
+    }
+}
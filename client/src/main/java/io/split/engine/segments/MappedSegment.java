@@ -0,0 +1,258 @@
+package io.split.engine.segments;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Segment whose members live in a memory-mapped file, outside of the java heap.
+ *
+ * File layout: a 24 byte header (magic, version, change number, key count, slot count), an
+ * open-addressed index of 12 byte slots (64-bit key hash, offset of the key in the arena + 1)
+ * and an arena of length-prefixed UTF-8 keys. Membership is answered straight from the mapping,
+ * and the file can be mapped again by a new process to restore the segment without fetching it.
+ *
+ * Updates never touch a mapped file: each one is written to a new file, which is moved into place
+ * under the name given by the caller once complete. Readers holding the previous instance keep using
+ * the old mapping until they pick up the new one, and the caller deletes the old file afterwards.
+ */
+public final class MappedSegment {
+    private static final int MAGIC = 0x53474d54;
+    private static final int VERSION = 1;
+    private static final int CHANGE_NUMBER_OFFSET = 8;
+    private static final int KEY_COUNT_OFFSET = 16;
+    private static final int CAPACITY_OFFSET = 20;
+    private static final int HEADER_SIZE = 24;
+    private static final int SLOT_SIZE = 12;
+
+    private final String _name;
+    private final Path _file;
+    private final MappedByteBuffer _buffer;
+    private final int _keyCount;
+    private final int _capacity;
+    private final int _arenaStart;
+    private volatile long _changeNumber;
+
+    private MappedSegment(String name, Path file, MappedByteBuffer buffer) {
+        _name = name;
+        _file = file;
+        _buffer = buffer;
+        _keyCount = buffer.getInt(KEY_COUNT_OFFSET);
+        _capacity = buffer.getInt(CAPACITY_OFFSET);
+        _arenaStart = HEADER_SIZE + _capacity * SLOT_SIZE;
+        _changeNumber = buffer.getLong(CHANGE_NUMBER_OFFSET);
+    }
+
+    /**
+     * Creates (or truncates) {@code file} with an empty segment.
+     */
+    public static MappedSegment create(String name, Path file, long changeNumber) throws IOException {
+        return write(name, file, changeNumber, 0, 0, (arena, slots) -> { });
+    }
+
+    /**
+     * Maps a file previously written by this class.
+     *
+     * @throws IOException if the file cannot be read or was not written by this class.
+     */
+    public static MappedSegment open(String name, Path file) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            if (channel.size() < HEADER_SIZE || channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Invalid segment file size " + channel.size() + ": " + file);
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+        }
+        int capacity = buffer.getInt(CAPACITY_OFFSET);
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION || Integer.bitCount(capacity) != 1
+                || (long) HEADER_SIZE + (long) capacity * SLOT_SIZE > buffer.capacity()) {
+            throw new IOException("Not a segment file: " + file);
+        }
+        return new MappedSegment(name, file, buffer);
+    }
+
+    public String getName() {
+        return _name;
+    }
+
+    public Path getFile() {
+        return _file;
+    }
+
+    public long getChangeNumber() {
+        return _changeNumber;
+    }
+
+    /**
+     * Records the change number in memory and in the mapped file.
+     */
+    public void setChangeNumber(long changeNumber) {
+        _buffer.putLong(CHANGE_NUMBER_OFFSET, changeNumber);
+        _changeNumber = changeNumber;
+    }
+
+    public long getKeysSize() {
+        return _keyCount;
+    }
+
+    public long getSizeInBytes() {
+        return _buffer.capacity();
+    }
+
+    public boolean contains(String key) {
+        return key != null && slotOf(key, SegmentKeys.hash(key)) >= 0;
+    }
+
+    /**
+     * Writes a segment with {@code toRemove} removed and {@code toAdd} added to {@code file} and maps it in
+     * place of this one. As with {@link SegmentImp}, a key present in both lists ends up in the segment.
+     *
+     * @return the new segment, or this one, with the change number updated, when nothing changed.
+     */
+    public MappedSegment update(Collection<String> toAdd, Collection<String> toRemove, long changeNumber, Path file) throws IOException {
+        BitSet removed = new BitSet(_capacity);
+        if (toRemove != null) {
+            for (String key : toRemove) {
+                if (key == null) {
+                    continue;
+                }
+                int slot = slotOf(key, SegmentKeys.hash(key));
+                if (slot >= 0) {
+                    removed.set(slot);
+                }
+            }
+        }
+
+        Set<String> added = new LinkedHashSet<>();
+        if (toAdd != null) {
+            for (String key : toAdd) {
+                if (key == null) {
+                    continue;
+                }
+                int slot = slotOf(key, SegmentKeys.hash(key));
+                if (slot >= 0) {
+                    removed.clear(slot);
+                } else {
+                    added.add(key);
+                }
+            }
+        }
+
+        if (removed.isEmpty() && added.isEmpty()) {
+            setChangeNumber(changeNumber);
+            return this;
+        }
+
+        long arenaSize = 0;
+        for (int slot = 0; slot < _capacity; slot++) {
+            int offset = entryOffset(slot);
+            if (offset >= 0 && !removed.get(slot)) {
+                arenaSize += 4 + _buffer.getInt(offset);
+            }
+        }
+        byte[][] encoded = new byte[added.size()][];
+        int e = 0;
+        for (String key : added) {
+            encoded[e] = key.getBytes(StandardCharsets.UTF_8);
+            arenaSize += 4 + encoded[e].length;
+            e++;
+        }
+
+        int count = _keyCount - removed.cardinality() + added.size();
+        ByteBuffer source = _buffer.duplicate();
+        return write(_name, file, changeNumber, count, arenaSize, (arena, slots) -> {
+            for (int slot = 0; slot < _capacity; slot++) {
+                int offset = entryOffset(slot);
+                if (offset < 0 || removed.get(slot)) {
+                    continue;
+                }
+                source.limit(offset + 4 + _buffer.getInt(offset)).position(offset);
+                slots.insert(_buffer.getLong(HEADER_SIZE + slot * SLOT_SIZE), arena.position());
+                arena.put(source);
+            }
+            int i = 0;
+            for (String key : added) {
+                slots.insert(SegmentKeys.hash(key), arena.position());
+                arena.putInt(encoded[i].length).put(encoded[i]);
+                i++;
+            }
+        });
+    }
+
+    private int slotOf(String key, long hash) {
+        int mask = _capacity - 1;
+        for (int slot = (int) hash & mask; ; slot = (slot + 1) & mask) {
+            int offset = entryOffset(slot);
+            if (offset < 0) {
+                return -1;
+            }
+            if (_buffer.getLong(HEADER_SIZE + slot * SLOT_SIZE) == hash
+                    && SegmentKeys.utf8Equals(key, _buffer, offset + 4, offset + 4 + _buffer.getInt(offset))) {
+                return slot;
+            }
+        }
+    }
+
+    /**
+     * @return absolute position of the key referenced by the slot, or -1 if the slot is empty.
+     */
+    private int entryOffset(int slot) {
+        int reference = _buffer.getInt(HEADER_SIZE + slot * SLOT_SIZE + 8);
+        return reference == 0 ? -1 : _arenaStart + reference - 1;
+    }
+
+    private static MappedSegment write(String name, Path file, long changeNumber, int count, long arenaSize,
+                                       Filler filler) throws IOException {
+        int capacity = SegmentKeys.indexCapacity(count);
+        int arenaStart = HEADER_SIZE + capacity * SLOT_SIZE;
+        long size = arenaStart + arenaSize;
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("Segment " + name + " is too large to be mapped: " + size + " bytes");
+        }
+
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        }
+        buffer.putInt(0, MAGIC);
+        buffer.putInt(4, VERSION);
+        buffer.putLong(CHANGE_NUMBER_OFFSET, changeNumber);
+        buffer.putInt(KEY_COUNT_OFFSET, count);
+        buffer.putInt(CAPACITY_OFFSET, capacity);
+
+        ByteBuffer arena = buffer.duplicate();
+        arena.position(arenaStart);
+        filler.fill(arena, (hash, position) -> {
+            int mask = capacity - 1;
+            int slot = (int) hash & mask;
+            while (buffer.getInt(HEADER_SIZE + slot * SLOT_SIZE + 8) != 0) {
+                slot = (slot + 1) & mask;
+            }
+            buffer.putLong(HEADER_SIZE + slot * SLOT_SIZE, hash);
+            buffer.putInt(HEADER_SIZE + slot * SLOT_SIZE + 8, position - arenaStart + 1);
+        });
+        buffer.force();
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return new MappedSegment(name, file, buffer);
+    }
+
+    private interface Filler {
+        void fill(ByteBuffer arena, SlotWriter slots);
+    }
+
+    private interface SlotWriter {
+        void insert(long hash, int position);
+    }
+}
@@ -30,7 +30,10 @@ public class SegmentFetcherImp implements SegmentFetcher {
         _segmentCacheProducer = checkNotNull(segmentCacheProducer);
         _telemetryRuntimeProducer = checkNotNull(telemetryRuntimeProducer);
 
-        _segmentCacheProducer.updateSegment(segmentName, new ArrayList<>(), new ArrayList<>(), -1L);
+        // segments restored by a persistent cache keep their state and resume from their change number
+        if (_segmentCacheProducer.getChangeNumber(segmentName) == -1L) {
+            _segmentCacheProducer.updateSegment(segmentName, new ArrayList<>(), new ArrayList<>(), -1L);
+        }
     }
 
     @Override
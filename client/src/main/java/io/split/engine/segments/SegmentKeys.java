@@ -0,0 +1,80 @@
+package io.split.engine.segments;
+
+import io.split.client.utils.MurmurHash3;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Hashing and comparison of segment keys against their stored UTF-8 form, shared by the
+ * compact and memory-mapped segment representations. Neither method allocates.
+ */
+final class SegmentKeys {
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+    private static final byte REPLACEMENT = (byte) '?';
+
+    private SegmentKeys() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * 64-bit hash over the UTF-16 code units of the key, so lookups never need to encode it.
+     */
+    static long hash(String key) {
+        long h = FNV_OFFSET_BASIS;
+        for (int i = 0; i < key.length(); i++) {
+            h = (h ^ key.charAt(i)) * FNV_PRIME;
+        }
+        return MurmurHash3.fmix64(h ^ key.length());
+    }
+
+    /**
+     * Power-of-two slot count for an open-addressed index over {@code keys} entries. The load factor
+     * stays at or below 2/3 so probe sequences are short and always reach an empty slot.
+     */
+    static int indexCapacity(int keys) {
+        return Integer.highestOneBit(Math.max(2, keys + ((keys + 1) >> 1)) - 1) << 1;
+    }
+
+    /**
+     * Compares the key against the UTF-8 bytes in {@code [from, to)} without encoding it. Unpaired
+     * surrogates are compared as '?', matching what {@link String#getBytes(java.nio.charset.Charset)} stores.
+     */
+    static boolean utf8Equals(String key, ByteBuffer bytes, int from, int to) {
+        int position = from;
+        int length = key.length();
+        for (int i = 0; i < length; i++) {
+            char c = key.charAt(i);
+            if (c < 0x80) {
+                if (position >= to || bytes.get(position++) != (byte) c) {
+                    return false;
+                }
+            } else if (c < 0x800) {
+                if (to - position < 2
+                        || bytes.get(position++) != (byte) (0xc0 | (c >> 6))
+                        || bytes.get(position++) != (byte) (0x80 | (c & 0x3f))) {
+                    return false;
+                }
+            } else if (!Character.isSurrogate(c)) {
+                if (to - position < 3
+                        || bytes.get(position++) != (byte) (0xe0 | (c >> 12))
+                        || bytes.get(position++) != (byte) (0x80 | ((c >> 6) & 0x3f))
+                        || bytes.get(position++) != (byte) (0x80 | (c & 0x3f))) {
+                    return false;
+                }
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(key.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, key.charAt(++i));
+                if (to - position < 4
+                        || bytes.get(position++) != (byte) (0xf0 | (codePoint >> 18))
+                        || bytes.get(position++) != (byte) (0x80 | ((codePoint >> 12) & 0x3f))
+                        || bytes.get(position++) != (byte) (0x80 | ((codePoint >> 6) & 0x3f))
+                        || bytes.get(position++) != (byte) (0x80 | (codePoint & 0x3f))) {
+                    return false;
+                }
+            } else if (position >= to || bytes.get(position++) != REPLACEMENT) {
+                return false;
+            }
+        }
+        return position == to;
+    }
+}
@@ -14,6 +14,7 @@ import java.util.List;
 public class Splitter {
     private static final int ALGO_LEGACY = 1;
     private static final int ALGO_MURMUR = 2;
+    private static final int BUCKETS = 100;
 
     public static String getTreatment(String key, int seed, List<Partition> partitions, int algo) {
 
@@ -30,6 +31,21 @@ public class Splitter {
         return getTreatment(bucket(hash(key, seed, algo)), partitions);
     }
 
+    /**
+     * Resolves the treatment of every bucket up front, so that picking a treatment becomes a single
+     * array access: the treatment for bucket b is at index b - 1.
+     *
+     * @param partitions MUST NOT be null.
+     * @return an array of BUCKETS treatments, all control when there are no partitions.
+     */
+    public static String[] bucketTreatments(List<Partition> partitions) {
+        String[] treatments = new String[BUCKETS];
+        for (int bucket = 1; bucket <= BUCKETS; bucket++) {
+            treatments[bucket - 1] = partitions.isEmpty() ? Treatments.CONTROL : getTreatment(bucket, partitions);
+        }
+        return treatments;
+    }
+
     static long hash(String key, int seed, int algo) {
         switch (algo) {
             case ALGO_MURMUR:
@@ -19,15 +19,24 @@ public class HttpPostImp {
     private static final Logger _logger = LoggerFactory.getLogger(HttpPostImp.class);
     private CloseableHttpClient _client;
     private final TelemetryRuntimeProducer _telemetryRuntimeProducer;
+    private final boolean _gzip;
 
     public HttpPostImp(CloseableHttpClient client, TelemetryRuntimeProducer telemetryRuntimeProducer) {
+        this(client, telemetryRuntimeProducer, false);
+    }
+
+    public HttpPostImp(CloseableHttpClient client, TelemetryRuntimeProducer telemetryRuntimeProducer, boolean gzip) {
         _client = client;
         _telemetryRuntimeProducer = checkNotNull(telemetryRuntimeProducer);
+        _gzip = gzip;
     }
 
-    public void post(URI uri, Object object, String posted, HttpParamsWrapper httpParamsWrapper) {
+    /**
+     * @return whether the post was accepted, and otherwise whether it is worth retrying.
+     */
+    public PostResult post(URI uri, Object object, String posted, HttpParamsWrapper httpParamsWrapper) {
         long initTime = System.currentTimeMillis();
-        HttpEntity entity = Utils.toJsonEntity(object);
+        HttpEntity entity = Utils.toJsonStreamEntity(object, _gzip);
         HttpPost request = new HttpPost(uri);
         request.setEntity(entity);
 
@@ -41,12 +50,14 @@ public class HttpPostImp {
             if (status < HttpStatus.SC_OK || status >= HttpStatus.SC_MULTIPLE_CHOICES) {
                 _telemetryRuntimeProducer.recordSyncError(httpParamsWrapper.getResourceEnum(), status);
                 _logger.warn(String.format("Response status was: %s. Reason: %s", status , response.getReasonPhrase()));
-                return;
+                return PostResult.fromStatus(status);
             }
             _telemetryRuntimeProducer.recordSyncLatency(httpParamsWrapper.getHttpLatenciesEnum(), System.currentTimeMillis() - initTime);
             _telemetryRuntimeProducer.recordSuccessfulSync(httpParamsWrapper.getLastSynchronizationRecordsEnum(), System.currentTimeMillis());
+            return PostResult.ACCEPTED;
         } catch (Throwable t) {
             _logger.warn("Exception when posting " + posted + object, t);
+            return PostResult.RETRIABLE;
         }
     }
 }
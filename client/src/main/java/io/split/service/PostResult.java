@@ -0,0 +1,31 @@
+package io.split.service;
+
+/**
+ * Outcome of posting data to the backend, telling failures worth retrying apart from permanent rejections.
+ */
+public enum PostResult {
+    ACCEPTED,
+    /**
+     * The request did not go through or the server could not take it at the time; the same data may be
+     * accepted later.
+     */
+    RETRIABLE,
+    /**
+     * The server rejected the data itself, posting it again would fail the same way.
+     */
+    REJECTED;
+
+    /**
+     * Client errors are permanent, except for timeouts and throttling. Anything else that is not a success
+     * is worth retrying.
+     */
+    public static PostResult fromStatus(int status) {
+        if (status >= 200 && status < 300) {
+            return ACCEPTED;
+        }
+        if (status >= 400 && status < 500 && status != 408 && status != 429) {
+            return REJECTED;
+        }
+        return RETRIABLE;
+    }
+}
@@ -2,7 +2,10 @@ package io.split.storages;
 
 import io.split.engine.segments.SegmentImp;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 public interface SegmentCacheConsumer extends SegmentCacheCommons{
     /**
@@ -13,6 +16,22 @@ public interface SegmentCacheConsumer extends SegmentCacheCommons{
      */
     boolean isInSegment(String segmentName, String key);
 
+    /**
+     * evaluates if a key belongs to each of the given segments, in as few storage calls as possible.
+     * Segments whose membership could not be resolved are left out of the result.
+     * Storages answering from memory can keep this default, which looks each segment up in turn.
+     * @param segmentNames
+     * @param key
+     * @return membership of the key by segment name
+     */
+    default Map<String, Boolean> isInSegments(Set<String> segmentNames, String key) {
+        Map<String, Boolean> memberships = new HashMap<>();
+        for (String segmentName : segmentNames) {
+            memberships.put(segmentName, isInSegment(segmentName, key));
+        }
+        return memberships;
+    }
+
     /**
      * return every segment
      * @return
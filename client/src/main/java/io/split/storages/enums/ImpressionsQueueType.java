@@ -0,0 +1,6 @@
+package io.split.storages.enums;
+
+public enum ImpressionsQueueType {
+    BLOCKING_QUEUE,
+    RING_BUFFER
+}
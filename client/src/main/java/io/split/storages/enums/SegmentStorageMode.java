@@ -0,0 +1,7 @@
+package io.split.storages.enums;
+
+public enum SegmentStorageMode {
+    MEMORY,
+    COMPACT,
+    MEMORY_MAPPED
+}
@@ -0,0 +1,81 @@
+package io.split.storages.memory;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.Maps;
+import io.split.engine.segments.CompactSegment;
+import io.split.storages.SegmentCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * InMemoryCache Implementation backed by {@link CompactSegment}s.
+ *
+ * Each update swaps in a freshly built immutable segment, so {@link #isInSegment(String, String)}
+ * reads without locking while keeping per-key overhead to a few bytes beyond the key itself.
+ */
+public class SegmentCacheCompactImpl implements SegmentCache {
+    private static final Logger _log = LoggerFactory.getLogger(SegmentCacheCompactImpl.class);
+    private static final long DEFAULT_CHANGE_NUMBER = -1l;
+    private final ConcurrentMap<String, CompactSegment> _segments = Maps.newConcurrentMap();
+
+    @Override
+    public void updateSegment(String segmentName, List<String> toAdd, List<String> toRemove, long changeNumber) {
+        CompactSegment segment = _segments.compute(segmentName, (name, current) ->
+                (current == null ? CompactSegment.empty(name, changeNumber) : current).update(toAdd, toRemove, changeNumber));
+        if (_log.isDebugEnabled()) {
+            _log.debug(String.format("Segment %s now holds %d keys in %d bytes", segmentName, segment.getKeysSize(),
+                    segment.getSizeInBytes()));
+        }
+    }
+
+    @Override
+    public boolean isInSegment(String segmentName, String key) {
+        CompactSegment segment = _segments.get(segmentName);
+        if(segment == null){
+            _log.error("Segment " + segmentName + "Not found.");
+            return false;
+        }
+        return segment.contains(key);
+    }
+
+    @Override
+    public void setChangeNumber(String segmentName, long changeNumber) {
+        if(_segments.computeIfPresent(segmentName, (name, current) -> current.withChangeNumber(changeNumber)) == null){
+            _log.error("Segment " + segmentName + "Not found.");
+        }
+    }
+
+    @Override
+    public long getChangeNumber(String segmentName) {
+        CompactSegment segment = _segments.get(segmentName);
+        if(segment == null){
+            return DEFAULT_CHANGE_NUMBER;
+        }
+        return segment.getChangeNumber();
+    }
+
+    @VisibleForTesting
+    void clear() {
+        _segments.clear();
+    }
+
+    @Override
+    public long getSegmentCount() {
+        return _segments.values().size();
+    }
+
+    @Override
+    public long getKeyCount() {
+        return _segments.values().stream().mapToLong(CompactSegment::getKeysSize).sum();
+    }
+
+    /**
+     * @return approximate number of bytes used to store the members of every segment.
+     */
+    public long getSizeInBytes() {
+        return _segments.values().stream().mapToLong(CompactSegment::getSizeInBytes).sum();
+    }
+}
@@ -0,0 +1,199 @@
+package io.split.storages.memory;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.Maps;
+import io.split.engine.segments.MappedSegment;
+import io.split.storages.SegmentCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.UnsupportedEncodingException;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentMap;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * SegmentCache that keeps segment members off-heap, in one memory-mapped {@link MappedSegment}
+ * file per segment under a configurable directory.
+ *
+ * Segment files found in the directory at start up are mapped again, so a restarted process can
+ * evaluate with them right away and only fetches the changes made since it stopped.
+ *
+ * Files are named after the segment and a version that grows with each update, so an update never
+ * replaces a file that is still mapped. The previous version is deleted once the new one is in place;
+ * versions that could not be deleted, and temporary files left by an interrupted update, are removed
+ * on the next start up.
+ */
+public class SegmentCacheMappedImpl implements SegmentCache {
+    private static final Logger _log = LoggerFactory.getLogger(SegmentCacheMappedImpl.class);
+    private static final long DEFAULT_CHANGE_NUMBER = -1l;
+    private static final String FILE_EXTENSION = ".segment";
+    private static final String TEMP_EXTENSION = ".tmp";
+    // never produced by URLEncoder, which encodes '~'
+    private static final char VERSION_SEPARATOR = '~';
+    private static final String ENCODING = "UTF-8";
+    private final Path _directory;
+    private final ConcurrentMap<String, MappedSegment> _segments = Maps.newConcurrentMap();
+
+    public SegmentCacheMappedImpl(String directory) {
+        _directory = Paths.get(checkNotNull(directory));
+        try {
+            Files.createDirectories(_directory);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not create segment storage directory " + directory, e);
+        }
+        restore();
+    }
+
+    @Override
+    public void updateSegment(String segmentName, List<String> toAdd, List<String> toRemove, long changeNumber) {
+        _segments.compute(segmentName, (name, current) -> {
+            try {
+                if (current == null) {
+                    current = MappedSegment.create(name, fileFor(name, 0), changeNumber);
+                }
+                MappedSegment updated = current.update(toAdd, toRemove, changeNumber, fileFor(name, versionOf(current.getFile()) + 1));
+                if (updated != current) {
+                    delete(current.getFile());
+                }
+                return updated;
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not write segment " + name, e);
+            }
+        });
+    }
+
+    @Override
+    public boolean isInSegment(String segmentName, String key) {
+        MappedSegment segment = _segments.get(segmentName);
+        if(segment == null){
+            _log.error("Segment " + segmentName + "Not found.");
+            return false;
+        }
+        return segment.contains(key);
+    }
+
+    @Override
+    public void setChangeNumber(String segmentName, long changeNumber) {
+        MappedSegment segment = _segments.get(segmentName);
+        if(segment == null){
+            _log.error("Segment " + segmentName + "Not found.");
+            return ;
+        }
+        segment.setChangeNumber(changeNumber);
+    }
+
+    @Override
+    public long getChangeNumber(String segmentName) {
+        MappedSegment segment = _segments.get(segmentName);
+        if(segment == null){
+            return DEFAULT_CHANGE_NUMBER;
+        }
+        return segment.getChangeNumber();
+    }
+
+    @VisibleForTesting
+    void clear() {
+        _segments.clear();
+    }
+
+    @Override
+    public long getSegmentCount() {
+        return _segments.values().size();
+    }
+
+    @Override
+    public long getKeyCount() {
+        return _segments.values().stream().mapToLong(MappedSegment::getKeysSize).sum();
+    }
+
+    /**
+     * @return size of all mapped segment files, in bytes.
+     */
+    public long getSizeInBytes() {
+        return _segments.values().stream().mapToLong(MappedSegment::getSizeInBytes).sum();
+    }
+
+    private void restore() {
+        Map<String, TreeMap<Long, Path>> versions = new HashMap<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(_directory)) {
+            for (Path file : files) {
+                String fileName = file.getFileName().toString();
+                if (fileName.endsWith(TEMP_EXTENSION)) {
+                    delete(file);
+                    continue;
+                }
+                if (!fileName.endsWith(FILE_EXTENSION)) {
+                    continue;
+                }
+                String baseName = fileName.substring(0, fileName.length() - FILE_EXTENSION.length());
+                int separator = baseName.lastIndexOf(VERSION_SEPARATOR);
+                String segmentName = URLDecoder.decode(separator < 0 ? baseName : baseName.substring(0, separator), ENCODING);
+                versions.computeIfAbsent(segmentName, name -> new TreeMap<>()).put(versionOf(file), file);
+            }
+        } catch (IOException e) {
+            _log.warn(String.format("Could not list segment storage directory %s: %s", _directory, e.getMessage()));
+            return;
+        }
+
+        for (Map.Entry<String, TreeMap<Long, Path>> entry : versions.entrySet()) {
+            String segmentName = entry.getKey();
+            for (Path file : entry.getValue().descendingMap().values()) {
+                if (_segments.containsKey(segmentName)) {
+                    delete(file);
+                    continue;
+                }
+                try {
+                    MappedSegment segment = MappedSegment.open(segmentName, file);
+                    _segments.put(segmentName, segment);
+                    _log.info(String.format("Restored segment %s with %d keys at change number %d", segmentName,
+                            segment.getKeysSize(), segment.getChangeNumber()));
+                } catch (IOException e) {
+                    _log.warn(String.format("Ignoring unreadable segment file %s: %s", file, e.getMessage()));
+                    delete(file);
+                }
+            }
+        }
+    }
+
+    private Path fileFor(String segmentName, long version) throws UnsupportedEncodingException {
+        return _directory.resolve(URLEncoder.encode(segmentName, ENCODING) + VERSION_SEPARATOR + version + FILE_EXTENSION);
+    }
+
+    /**
+     * @return the version in the name of a segment file, 0 for files written before versions were added.
+     */
+    private static long versionOf(Path file) {
+        String fileName = file.getFileName().toString();
+        int separator = fileName.lastIndexOf(VERSION_SEPARATOR);
+        if (separator < 0) {
+            return 0;
+        }
+        try {
+            return Long.parseLong(fileName.substring(separator + 1, fileName.length() - FILE_EXTENSION.length()));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private static void delete(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            // the file may still be mapped on some platforms, it is removed on the next start up
+            _log.debug(String.format("Could not delete segment file %s: %s", file, e.getMessage()));
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package io.split.storages.pluggable.adapters;
+
+import io.split.client.dtos.Event;
+import io.split.client.events.EventsStorageProducer;
+import io.split.telemetry.domain.enums.EventsDataRecordsEnum;
+import io.split.telemetry.storage.TelemetryRuntimeProducer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ThreadFactory;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Queues events for a background writer that pushes them to the storage in batches, instead of one push
+ * per track on the caller's thread.
+ */
+public class AsyncEventAdapterProducer implements EventsStorageProducer {
+
+    private static final Logger _log = LoggerFactory.getLogger(AsyncEventAdapterProducer.class);
+
+    private final AsyncStorageWriter<Event> _writer;
+    private final TelemetryRuntimeProducer _telemetryRuntimeProducer;
+
+    public AsyncEventAdapterProducer(UserCustomEventAdapterProducer eventAdapterProducer, TelemetryRuntimeProducer telemetryRuntimeProducer,
+                                     int queueSize, int batchSize, long flushIntervalInMillis, ThreadFactory threadFactory) {
+        checkNotNull(eventAdapterProducer);
+        _telemetryRuntimeProducer = checkNotNull(telemetryRuntimeProducer);
+        _writer = new AsyncStorageWriter<>(queueSize, batchSize, flushIntervalInMillis,
+                eventAdapterProducer::put,
+                failed -> _telemetryRuntimeProducer.recordEventStats(EventsDataRecordsEnum.EVENTS_DROPPED, failed),
+                threadFactory, "Split-EventsWriter-%d");
+    }
+
+    @Override
+    public boolean track(Event event, int eventSize) {
+        if (event == null) {
+            return false;
+        }
+        if (!_writer.offer(event)) {
+            _log.warn("Event queue is full, dropping event.");
+            _telemetryRuntimeProducer.recordEventStats(EventsDataRecordsEnum.EVENTS_DROPPED, 1);
+            return false;
+        }
+        return true;
+    }
+
+    public void start() {
+        _writer.start();
+    }
+
+    public void stop() {
+        _writer.stop();
+    }
+
+    public long getDropped() {
+        return _writer.getDropped();
+    }
+}
@@ -0,0 +1,47 @@
+package io.split.storages.pluggable.adapters;
+
+import io.split.client.dtos.KeyImpression;
+import io.split.client.impressions.ImpressionsStorageProducer;
+import io.split.telemetry.domain.enums.ImpressionsDataTypeEnum;
+import io.split.telemetry.storage.TelemetryRuntimeProducer;
+
+import java.util.List;
+import java.util.concurrent.ThreadFactory;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Queues impressions for a background writer instead of pushing them to the storage on the caller's thread.
+ * The impressions that do not fit in the queue are not counted as queued, so the manager reports them as dropped.
+ */
+public class AsyncImpressionAdapterProducer implements ImpressionsStorageProducer {
+
+    private final AsyncStorageWriter<KeyImpression> _writer;
+
+    public AsyncImpressionAdapterProducer(ImpressionsStorageProducer impressionsStorageProducer, TelemetryRuntimeProducer telemetryRuntimeProducer,
+                                          int queueSize, int batchSize, long flushIntervalInMillis, ThreadFactory threadFactory) {
+        checkNotNull(impressionsStorageProducer);
+        checkNotNull(telemetryRuntimeProducer);
+        _writer = new AsyncStorageWriter<>(queueSize, batchSize, flushIntervalInMillis,
+                batch -> impressionsStorageProducer.put(batch) > 0,
+                failed -> telemetryRuntimeProducer.recordImpressionStats(ImpressionsDataTypeEnum.IMPRESSIONS_DROPPED, failed),
+                threadFactory, "Split-ImpressionsWriter-%d");
+    }
+
+    @Override
+    public long put(List<KeyImpression> imps) {
+        return _writer.offerAll(imps);
+    }
+
+    public void start() {
+        _writer.start();
+    }
+
+    public void stop() {
+        _writer.stop();
+    }
+
+    public long getDropped() {
+        return _writer.getDropped();
+    }
+}
@@ -0,0 +1,162 @@
+package io.split.storages.pluggable.adapters;
+
+import com.google.common.annotations.VisibleForTesting;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongConsumer;
+import java.util.function.Predicate;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static io.split.client.utils.SplitExecutorFactory.buildSingleThreadScheduledExecutor;
+
+/**
+ * Moves writes to a pluggable storage off the caller's thread.
+ *
+ * Items are offered to a bounded queue, which never blocks: when it is full the item is dropped and
+ * counted. A background thread writes the queue in batches, as soon as it holds a full batch and on a
+ * fixed delay, so each batch costs one storage call. Stopping the writer writes whatever is left.
+ *
+ * @param <T> the items written
+ */
+public class AsyncStorageWriter<T> {
+
+    private static final Logger _log = LoggerFactory.getLogger(AsyncStorageWriter.class);
+
+    private final BlockingQueue<T> _queue;
+    private final int _batchSize;
+    private final long _flushIntervalInMillis;
+    private final Predicate<List<T>> _write;
+    private final LongConsumer _writeFailed;
+    private final ScheduledExecutorService _executorService;
+    private final AtomicBoolean _flushPending = new AtomicBoolean();
+    private final AtomicLong _dropped = new AtomicLong();
+
+    /**
+     * @param write        writes one batch to the storage, returns whether it succeeded
+     * @param writeFailed  receives the size of every batch that could not be written, may be null
+     */
+    public AsyncStorageWriter(int queueSize, int batchSize, long flushIntervalInMillis, Predicate<List<T>> write,
+                              LongConsumer writeFailed, ThreadFactory threadFactory, String name) {
+        checkArgument(queueSize > 0, "queueSize must be > 0");
+        checkArgument(batchSize > 0, "batchSize must be > 0");
+        _queue = new ArrayBlockingQueue<>(queueSize);
+        _batchSize = batchSize;
+        _flushIntervalInMillis = flushIntervalInMillis;
+        _write = checkNotNull(write);
+        _writeFailed = writeFailed;
+        _executorService = buildSingleThreadScheduledExecutor(threadFactory, name);
+    }
+
+    public void start() {
+        _executorService.scheduleWithFixedDelay(this::safeFlush, _flushIntervalInMillis, _flushIntervalInMillis,
+                TimeUnit.MILLISECONDS);
+    }
+
+    public void stop() {
+        _executorService.shutdown();
+        try {
+            if (!_executorService.awaitTermination(_flushIntervalInMillis, TimeUnit.MILLISECONDS)) {
+                _log.warn("Storage writer did not finish its last batch in time.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        safeFlush();
+    }
+
+    /**
+     * @return whether the item was queued, false when the queue is full and it was dropped
+     */
+    public boolean offer(T item) {
+        if (!_queue.offer(item)) {
+            _dropped.incrementAndGet();
+            return false;
+        }
+        triggerFlush();
+        return true;
+    }
+
+    /**
+     * @return how many of the items were queued, the rest were dropped
+     */
+    public int offerAll(List<T> items) {
+        int queued = 0;
+        for (T item : items) {
+            if (!_queue.offer(item)) {
+                _dropped.addAndGet(items.size() - queued);
+                break;
+            }
+            queued++;
+        }
+        if (queued > 0) {
+            triggerFlush();
+        }
+        return queued;
+    }
+
+    /**
+     * @return the items dropped so far, because the queue was full or their batch could not be written
+     */
+    public long getDropped() {
+        return _dropped.get();
+    }
+
+    @VisibleForTesting
+    int size() {
+        return _queue.size();
+    }
+
+    @VisibleForTesting
+    void flush() {
+        List<T> batch = new ArrayList<>(_batchSize);
+        while (_queue.drainTo(batch, _batchSize) > 0) {
+            boolean written;
+            try {
+                written = _write.test(batch);
+            } catch (Exception e) {
+                _log.warn("Error writing a batch to the storage.", e);
+                written = false;
+            }
+            if (!written) {
+                _dropped.addAndGet(batch.size());
+                if (_writeFailed != null) {
+                    _writeFailed.accept(batch.size());
+                }
+            }
+            batch = new ArrayList<>(_batchSize);
+        }
+    }
+
+    private void triggerFlush() {
+        if (_queue.size() >= _batchSize && _flushPending.compareAndSet(false, true)) {
+            try {
+                _executorService.execute(() -> {
+                    _flushPending.set(false);
+                    safeFlush();
+                });
+            } catch (Exception e) {
+                // shutting down, stop() writes what is left
+                _flushPending.set(false);
+            }
+        }
+    }
+
+    private void safeFlush() {
+        try {
+            flush();
+        } catch (Exception e) {
+            _log.warn("Error writing to the storage.", e);
+        }
+    }
+}
@@ -0,0 +1,219 @@
+package io.split.storages.pluggable.adapters;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import io.split.storages.SegmentCacheConsumer;
+import io.split.storages.pluggable.domain.PrefixAdapter;
+import io.split.storages.pluggable.domain.UserStorageWrapper;
+import io.split.storages.pluggable.utils.Helper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import pluggable.CustomStorageWrapper;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static io.split.client.utils.SplitExecutorFactory.buildSingleThreadScheduledExecutor;
+
+/**
+ * Keeps recent segment membership answers read from a pluggable storage in a bounded local cache.
+ *
+ * Every cached answer remembers the segment change number it was read at. The change numbers of the
+ * segments in use are polled on a fixed delay, and an answer read at an older change number is treated
+ * as a miss, so a segment update invalidates just that segment without walking the cache. Answers also
+ * expire after a fixed time, which bounds how stale they get if the storage can not be polled.
+ * Hits and misses are added to the consumer telemetry on every poll.
+ */
+public class CachedSegmentAdapterConsumer implements SegmentCacheConsumer {
+
+    private static final Logger _log = LoggerFactory.getLogger(CachedSegmentAdapterConsumer.class);
+    private static final long UNKNOWN_CHANGE_NUMBER = -1L;
+
+    private final SegmentCacheConsumer _segmentCacheConsumer;
+    private final UserStorageWrapper _userStorageWrapper;
+    private final UserCustomTelemetryAdapterProducer _telemetryProducer;
+    private final Cache<MembershipKey, Membership> _memberships;
+    private final ConcurrentHashMap<String, Long> _changeNumbers = new ConcurrentHashMap<>();
+    private final AtomicLong _hits = new AtomicLong();
+    private final AtomicLong _misses = new AtomicLong();
+    private long _hitsReported;
+    private long _missesReported;
+    private final int _refreshRate;
+    private final ScheduledExecutorService _executorService;
+
+    public CachedSegmentAdapterConsumer(SegmentCacheConsumer segmentCacheConsumer, CustomStorageWrapper customStorageWrapper,
+                                        UserCustomTelemetryAdapterProducer telemetryProducer, long size, int ttl,
+                                        int refreshRate, ThreadFactory threadFactory) {
+        _segmentCacheConsumer = checkNotNull(segmentCacheConsumer);
+        _userStorageWrapper = new UserStorageWrapper(checkNotNull(customStorageWrapper));
+        _telemetryProducer = checkNotNull(telemetryProducer);
+        _memberships = CacheBuilder.newBuilder()
+                .maximumSize(size)
+                .expireAfterWrite(ttl, TimeUnit.SECONDS)
+                .concurrencyLevel(4)
+                .build();
+        _refreshRate = refreshRate;
+        _executorService = buildSingleThreadScheduledExecutor(threadFactory, "Segment-cache-refresh-%d");
+    }
+
+    public void start() {
+        _executorService.scheduleWithFixedDelay(() -> {
+            try {
+                refresh();
+            } catch (Exception e) {
+                _log.warn("Error refreshing segment membership cache.", e);
+            }
+        }, _refreshRate, _refreshRate, TimeUnit.SECONDS);
+    }
+
+    public void stop() {
+        _executorService.shutdown();
+        try {
+            recordStats();
+        } catch (Exception e) {
+            _log.warn("Error recording segment membership cache stats.");
+        }
+    }
+
+    @VisibleForTesting
+    void refresh() {
+        List<String> segmentNames = new ArrayList<>(_changeNumbers.keySet());
+        if (!segmentNames.isEmpty()) {
+            List<String> keys = new ArrayList<>(segmentNames.size());
+            for (String segmentName : segmentNames) {
+                keys.add(PrefixAdapter.buildSegmentTill(segmentName));
+            }
+            List<String> changeNumbers = _userStorageWrapper.getMany(keys);
+            if (changeNumbers != null && changeNumbers.size() == segmentNames.size()) {
+                for (int i = 0; i < segmentNames.size(); i++) {
+                    _changeNumbers.put(segmentNames.get(i), Helper.responseToLong(changeNumbers.get(i), UNKNOWN_CHANGE_NUMBER));
+                }
+            }
+        }
+        recordStats();
+    }
+
+    public long getHits() {
+        return _hits.get();
+    }
+
+    public long getMisses() {
+        return _misses.get();
+    }
+
+    @Override
+    public long getChangeNumber(String segmentName) {
+        return _segmentCacheConsumer.getChangeNumber(segmentName);
+    }
+
+    @Override
+    public boolean isInSegment(String segmentName, String key) {
+        Boolean member = isInSegments(Collections.singleton(segmentName), key).get(segmentName);
+        return member != null && member;
+    }
+
+    @Override
+    public Map<String, Boolean> isInSegments(Set<String> segmentNames, String key) {
+        Map<String, Boolean> memberships = new HashMap<>();
+        Set<String> toFetch = new HashSet<>();
+        Map<String, Long> changeNumbers = new HashMap<>();
+        for (String segmentName : segmentNames) {
+            long changeNumber = changeNumber(segmentName);
+            Membership membership = _memberships.getIfPresent(new MembershipKey(segmentName, key));
+            if (membership != null && membership._changeNumber == changeNumber) {
+                memberships.put(segmentName, membership._member);
+                continue;
+            }
+            changeNumbers.put(segmentName, changeNumber);
+            toFetch.add(segmentName);
+        }
+        _hits.addAndGet(memberships.size());
+        if (toFetch.isEmpty()) {
+            return memberships;
+        }
+        _misses.addAndGet(toFetch.size());
+        // answers that could not be read are left out by the storage consumer, so they are never cached
+        for (Map.Entry<String, Boolean> entry : _segmentCacheConsumer.isInSegments(toFetch, key).entrySet()) {
+            _memberships.put(new MembershipKey(entry.getKey(), key),
+                    new Membership(changeNumbers.get(entry.getKey()), entry.getValue()));
+            memberships.put(entry.getKey(), entry.getValue());
+        }
+        return memberships;
+    }
+
+    @Override
+    public long getSegmentCount() {
+        return _segmentCacheConsumer.getSegmentCount();
+    }
+
+    @Override
+    public long getKeyCount() {
+        return _segmentCacheConsumer.getKeyCount();
+    }
+
+    private long changeNumber(String segmentName) {
+        Long changeNumber = _changeNumbers.get(segmentName);
+        if (changeNumber != null) {
+            return changeNumber;
+        }
+        // read before any membership of the segment, so an answer is never older than the change number it is stamped with
+        String wrapperResponse = _userStorageWrapper.get(PrefixAdapter.buildSegmentTill(segmentName));
+        Long current = _changeNumbers.putIfAbsent(segmentName, Helper.responseToLong(wrapperResponse, UNKNOWN_CHANGE_NUMBER));
+        return current != null ? current : _changeNumbers.get(segmentName);
+    }
+
+    private synchronized void recordStats() {
+        long hits = _hits.get();
+        long misses = _misses.get();
+        _telemetryProducer.recordSegmentCacheStats(hits - _hitsReported, misses - _missesReported);
+        _hitsReported = hits;
+        _missesReported = misses;
+    }
+
+    private static final class MembershipKey {
+        private final String _segmentName;
+        private final String _key;
+
+        MembershipKey(String segmentName, String key) {
+            _segmentName = segmentName;
+            _key = key;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * _segmentName.hashCode() + Objects.hashCode(_key);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+
+            MembershipKey other = (MembershipKey) o;
+            return _segmentName.equals(other._segmentName) && Objects.equals(_key, other._key);
+        }
+    }
+
+    private static final class Membership {
+        private final long _changeNumber;
+        private final boolean _member;
+
+        Membership(long changeNumber, boolean member) {
+            _changeNumber = changeNumber;
+            _member = member;
+        }
+    }
+}
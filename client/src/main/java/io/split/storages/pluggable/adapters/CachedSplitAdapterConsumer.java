@@ -0,0 +1,135 @@
+package io.split.storages.pluggable.adapters;
+
+import com.google.common.annotations.VisibleForTesting;
+import io.split.engine.experiments.ParsedSplit;
+import io.split.storages.SplitCacheConsumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static io.split.client.utils.SplitExecutorFactory.buildSingleThreadScheduledExecutor;
+
+/**
+ * Keeps the feature flags read from a pluggable storage parsed in memory.
+ *
+ * The split change number stored next to the flags is polled on a fixed delay and the whole cache is
+ * dropped as soon as it moves, so evaluations between two changes never reach the storage nor the parser.
+ * Flags that are not found are not cached, so they are looked up again on every call.
+ */
+public class CachedSplitAdapterConsumer implements SplitCacheConsumer {
+
+    private static final Logger _log = LoggerFactory.getLogger(CachedSplitAdapterConsumer.class);
+
+    private final SplitCacheConsumer _splitCacheConsumer;
+    private final int _refreshRate;
+    private final ScheduledExecutorService _executorService;
+    private volatile ConcurrentHashMap<String, ParsedSplit> _splits = new ConcurrentHashMap<>();
+    private volatile long _changeNumber = -1L;
+
+    public CachedSplitAdapterConsumer(SplitCacheConsumer splitCacheConsumer, int refreshRate, ThreadFactory threadFactory) {
+        _splitCacheConsumer = checkNotNull(splitCacheConsumer);
+        _refreshRate = refreshRate;
+        _executorService = buildSingleThreadScheduledExecutor(threadFactory, "Split-cache-refresh-%d");
+    }
+
+    public void start() {
+        refresh();
+        _executorService.scheduleWithFixedDelay(() -> {
+            try {
+                refresh();
+            } catch (Exception e) {
+                _log.warn("Error refreshing feature flag cache.", e);
+            }
+        }, _refreshRate, _refreshRate, TimeUnit.SECONDS);
+    }
+
+    public void stop() {
+        _executorService.shutdown();
+    }
+
+    @VisibleForTesting
+    void refresh() {
+        long changeNumber = _splitCacheConsumer.getChangeNumber();
+        if (changeNumber != _changeNumber) {
+            // readers hold on to the map they started with, so a flag read before the change can not leak into the new one
+            _splits = new ConcurrentHashMap<>();
+            _changeNumber = changeNumber;
+            _log.debug(String.format("Feature flag cache dropped, change number is now %d", changeNumber));
+        }
+    }
+
+    @Override
+    public long getChangeNumber() {
+        return _splitCacheConsumer.getChangeNumber();
+    }
+
+    @Override
+    public ParsedSplit get(String name) {
+        ConcurrentHashMap<String, ParsedSplit> splits = _splits;
+        ParsedSplit parsedSplit = splits.get(name);
+        if (parsedSplit != null) {
+            return parsedSplit;
+        }
+        parsedSplit = _splitCacheConsumer.get(name);
+        if (parsedSplit != null) {
+            splits.put(name, parsedSplit);
+        }
+        return parsedSplit;
+    }
+
+    @Override
+    public Collection<ParsedSplit> getAll() {
+        return _splitCacheConsumer.getAll();
+    }
+
+    @Override
+    public Map<String, ParsedSplit> fetchMany(List<String> names) {
+        ConcurrentHashMap<String, ParsedSplit> splits = _splits;
+        Map<String, ParsedSplit> result = new HashMap<>();
+        List<String> toFetch = new ArrayList<>();
+        for (String name : names) {
+            ParsedSplit parsedSplit = splits.get(name);
+            if (parsedSplit != null) {
+                result.put(name, parsedSplit);
+            } else {
+                toFetch.add(name);
+            }
+        }
+        if (toFetch.isEmpty()) {
+            return result;
+        }
+        for (Map.Entry<String, ParsedSplit> entry : _splitCacheConsumer.fetchMany(toFetch).entrySet()) {
+            if (entry.getValue() != null) {
+                splits.put(entry.getKey(), entry.getValue());
+            }
+            result.put(entry.getKey(), entry.getValue());
+        }
+        return result;
+    }
+
+    @Override
+    public boolean trafficTypeExists(String trafficTypeName) {
+        return _splitCacheConsumer.trafficTypeExists(trafficTypeName);
+    }
+
+    @Override
+    public List<String> splitNames() {
+        return _splitCacheConsumer.splitNames();
+    }
+
+    @Override
+    public Set<String> getSegments() {
+        return _splitCacheConsumer.getSegments();
+    }
+}
@@ -0,0 +1,236 @@
+package io.split.storages.pluggable.adapters;
+
+import com.google.common.annotations.VisibleForTesting;
+import io.split.storages.SegmentCacheConsumer;
+import io.split.storages.pluggable.domain.PrefixAdapter;
+import io.split.storages.pluggable.domain.UserStorageWrapper;
+import io.split.storages.pluggable.utils.Helper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import pluggable.CustomStorageWrapper;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static io.split.client.utils.SplitExecutorFactory.buildSingleThreadScheduledExecutor;
+
+/**
+ * Replicates whole segments from a pluggable storage into memory, so membership is answered locally.
+ *
+ * A segment is replicated once it is first evaluated, and until then its lookups go to the storage. The
+ * change numbers of the replicated segments are polled on a fixed delay; a segment whose change number
+ * advanced is scanned again in batches into a sorted array, which replaces the previous replica at once.
+ * Segments with more keys than the limit keep using storage lookups, and so does every segment when the
+ * storage can not scan sets. The scan of such a segment stops as soon as it goes over the limit; every
+ * {@value #SKIPPED_RECHECK_POLLS} polls the change numbers of the skipped segments are read too, and a segment
+ * whose change number advanced since it was skipped is scanned again, so one that shrank is replicated.
+ * The replication lag, how long the most outdated replica has been behind the storage, is added to the
+ * consumer telemetry on every poll.
+ */
+public class ReplicatedSegmentAdapterConsumer implements SegmentCacheConsumer {
+
+    private static final Logger _log = LoggerFactory.getLogger(ReplicatedSegmentAdapterConsumer.class);
+    private static final long UNKNOWN_CHANGE_NUMBER = -1L;
+    private static final int SKIPPED_RECHECK_POLLS = 10;
+
+    private final SegmentCacheConsumer _segmentCacheConsumer;
+    private final UserStorageWrapper _userStorageWrapper;
+    private final UserCustomTelemetryAdapterProducer _telemetryProducer;
+    private final ConcurrentHashMap<String, Replica> _replicas = new ConcurrentHashMap<>();
+    private final Set<String> _wanted = ConcurrentHashMap.newKeySet();
+    // segments too large to replicate, left to the storage, with the change number they were skipped at
+    private final Map<String, Long> _skipped = new HashMap<>();
+    // when each segment was first seen behind the storage, cleared once its replica catches up
+    private final Map<String, Long> _behindSince = new HashMap<>();
+    private final long _maxKeys;
+    private final int _refreshRate;
+    private final ScheduledExecutorService _executorService;
+    private volatile long _replicationLag;
+    private long _polls;
+
+    public ReplicatedSegmentAdapterConsumer(SegmentCacheConsumer segmentCacheConsumer, CustomStorageWrapper customStorageWrapper,
+                                            UserCustomTelemetryAdapterProducer telemetryProducer, long maxKeys, int refreshRate,
+                                            ThreadFactory threadFactory) {
+        _segmentCacheConsumer = checkNotNull(segmentCacheConsumer);
+        _userStorageWrapper = new UserStorageWrapper(checkNotNull(customStorageWrapper));
+        _telemetryProducer = checkNotNull(telemetryProducer);
+        _maxKeys = maxKeys;
+        _refreshRate = refreshRate;
+        _executorService = buildSingleThreadScheduledExecutor(threadFactory, "Segment-replication-%d");
+    }
+
+    public void start() {
+        _executorService.scheduleWithFixedDelay(() -> {
+            try {
+                refresh();
+            } catch (Exception e) {
+                _log.warn("Error replicating segments.", e);
+            }
+        }, 0, _refreshRate, TimeUnit.SECONDS);
+    }
+
+    public void stop() {
+        _executorService.shutdown();
+    }
+
+    /**
+     * Replicates the segments whose change number advanced since their replica was read.
+     */
+    @VisibleForTesting
+    synchronized void refresh() {
+        List<String> segmentNames = new ArrayList<>(_wanted);
+        if (++_polls % SKIPPED_RECHECK_POLLS != 0) {
+            segmentNames.removeAll(_skipped.keySet());
+        }
+        if (segmentNames.isEmpty()) {
+            recordLag();
+            return;
+        }
+        List<String> keys = new ArrayList<>(segmentNames.size());
+        for (String segmentName : segmentNames) {
+            keys.add(PrefixAdapter.buildSegmentTill(segmentName));
+        }
+        List<String> changeNumbers = _userStorageWrapper.getMany(keys);
+        if (changeNumbers == null || changeNumbers.size() != segmentNames.size()) {
+            recordLag();
+            return;
+        }
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < segmentNames.size(); i++) {
+            String segmentName = segmentNames.get(i);
+            long changeNumber = Helper.responseToLong(changeNumbers.get(i), UNKNOWN_CHANGE_NUMBER);
+            Long skippedAt = _skipped.get(segmentName);
+            if (skippedAt != null && skippedAt == changeNumber) {
+                continue;
+            }
+            Replica replica = _replicas.get(segmentName);
+            if (replica != null && replica._changeNumber == changeNumber) {
+                _behindSince.remove(segmentName);
+                continue;
+            }
+            _behindSince.putIfAbsent(segmentName, now);
+            Replica updated = replicate(segmentName, changeNumber);
+            if (updated != null) {
+                _replicas.put(segmentName, updated);
+                _behindSince.remove(segmentName);
+            }
+        }
+        recordLag();
+    }
+
+    /**
+     * @return how long the most outdated replica has been behind the storage, in milliseconds, as of the last poll
+     */
+    public long getReplicationLag() {
+        return _replicationLag;
+    }
+
+    @Override
+    public long getChangeNumber(String segmentName) {
+        return _segmentCacheConsumer.getChangeNumber(segmentName);
+    }
+
+    @Override
+    public boolean isInSegment(String segmentName, String key) {
+        Replica replica = _replicas.get(segmentName);
+        if (replica != null) {
+            return replica.contains(key);
+        }
+        _wanted.add(segmentName);
+        return _segmentCacheConsumer.isInSegment(segmentName, key);
+    }
+
+    @Override
+    public Map<String, Boolean> isInSegments(Set<String> segmentNames, String key) {
+        Map<String, Boolean> memberships = new HashMap<>();
+        Set<String> toFetch = new HashSet<>();
+        for (String segmentName : segmentNames) {
+            Replica replica = _replicas.get(segmentName);
+            if (replica != null) {
+                memberships.put(segmentName, replica.contains(key));
+                continue;
+            }
+            _wanted.add(segmentName);
+            toFetch.add(segmentName);
+        }
+        if (!toFetch.isEmpty()) {
+            memberships.putAll(_segmentCacheConsumer.isInSegments(toFetch, key));
+        }
+        return memberships;
+    }
+
+    @Override
+    public long getSegmentCount() {
+        return _segmentCacheConsumer.getSegmentCount();
+    }
+
+    @Override
+    public long getKeyCount() {
+        return _segmentCacheConsumer.getKeyCount();
+    }
+
+    private Replica replicate(String segmentName, long changeNumber) {
+        List<String> keys = new ArrayList<>();
+        boolean scanned = _userStorageWrapper.scanItemsWhile(PrefixAdapter.buildSegment(segmentName), items -> {
+            keys.addAll(items);
+            return keys.size() <= _maxKeys;
+        });
+        if (!scanned) {
+            // retried on the next poll, the current replica, if any, keeps answering meanwhile
+            _log.warn(String.format("Segment %s could not be replicated.", segmentName));
+            return null;
+        }
+        if (keys.size() > _maxKeys) {
+            _log.warn(String.format("Segment %s has more than %d keys, its lookups keep going to the storage.", segmentName, _maxKeys));
+            _replicas.remove(segmentName);
+            _behindSince.remove(segmentName);
+            _skipped.put(segmentName, changeNumber);
+            return null;
+        }
+        _skipped.remove(segmentName);
+        return new Replica(changeNumber, keys);
+    }
+
+    private void recordLag() {
+        long now = System.currentTimeMillis();
+        long lag = 0;
+        for (long since : _behindSince.values()) {
+            lag = Math.max(lag, now - since);
+        }
+        _replicationLag = lag;
+        _telemetryProducer.recordSegmentReplicationLag(lag);
+    }
+
+    private static final class Replica {
+        private final long _changeNumber;
+        // sorted and without duplicates, far smaller than a hash set of the same keys
+        private final String[] _keys;
+
+        Replica(long changeNumber, List<String> keys) {
+            _changeNumber = changeNumber;
+            String[] sorted = keys.toArray(new String[0]);
+            Arrays.sort(sorted);
+            int distinct = 0;
+            for (int i = 0; i < sorted.length; i++) {
+                if (distinct == 0 || !sorted[i].equals(sorted[distinct - 1])) {
+                    sorted[distinct++] = sorted[i];
+                }
+            }
+            _keys = distinct == sorted.length ? sorted : Arrays.copyOf(sorted, distinct);
+        }
+
+        boolean contains(String key) {
+            return key != null && Arrays.binarySearch(_keys, key) >= 0;
+        }
+    }
+}
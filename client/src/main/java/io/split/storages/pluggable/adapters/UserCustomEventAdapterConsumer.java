@@ -14,6 +14,12 @@ public class UserCustomEventAdapterConsumer implements EventsStorageConsumer {
         return new WrappedEvent(new Event(), 0L);
     }
 
+    @Override
+    public List<WrappedEvent> pop(int count) {
+        //No-op
+        return new ArrayList<>();
+    }
+
     @Override
     public List<WrappedEvent> popAll(){
         //No-op
@@ -6,12 +6,14 @@ import io.split.client.events.EventsStorageProducer;
 import io.split.client.utils.Json;
 import io.split.storages.pluggable.domain.EventConsumer;
 import io.split.storages.pluggable.domain.PrefixAdapter;
+import io.split.storages.enums.PluggableStorageEncoding;
 import io.split.storages.pluggable.domain.UserStorageWrapper;
+import io.split.storages.pluggable.utils.CompactEncoding;
 import pluggable.CustomStorageWrapper;
 
+import java.util.Collections;
 import java.util.List;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
@@ -19,16 +21,36 @@ public class UserCustomEventAdapterProducer implements EventsStorageProducer {
 
     private final UserStorageWrapper _userStorageWrapper;
     private Metadata _metadata;
+    private final PluggableStorageEncoding _encoding;
 
     public UserCustomEventAdapterProducer(CustomStorageWrapper customStorageWrapper, Metadata metadata) {
+        this(customStorageWrapper, metadata, PluggableStorageEncoding.JSON);
+    }
+
+    public UserCustomEventAdapterProducer(CustomStorageWrapper customStorageWrapper, Metadata metadata, PluggableStorageEncoding encoding) {
         _userStorageWrapper = new UserStorageWrapper(checkNotNull(customStorageWrapper));
         _metadata = metadata;
+        _encoding = checkNotNull(encoding);
     }
 
     @Override
     public boolean track(Event event, int eventSize) {
-        List<String> events = Stream.of(Json.toJson(new EventConsumer(_metadata, event))).collect(Collectors.toList());
-        _userStorageWrapper.pushItems(PrefixAdapter.buildEvent(), events);
+        put(Collections.singletonList(event));
         return true;
     }
+
+    /**
+     * Pushes a batch of events with a single storage call.
+     *
+     * @return whether the storage accepted them
+     */
+    public boolean put(List<Event> events) {
+        if (events.isEmpty()) {
+            return true;
+        }
+        List<String> items = PluggableStorageEncoding.COMPACT.equals(_encoding)
+                ? Collections.singletonList(CompactEncoding.encodeEvents(_metadata, events))
+                : events.stream().map(event -> Json.toJson(new EventConsumer(_metadata, event))).collect(Collectors.toList());
+        return _userStorageWrapper.pushItems(PrefixAdapter.buildEvent(), items) > 0;
+    }
 }
@@ -9,10 +9,13 @@ import io.split.client.dtos.Metadata;
 import io.split.client.impressions.ImpressionsStorageProducer;
 import io.split.storages.pluggable.domain.ImpressionConsumer;
 import io.split.storages.pluggable.domain.PrefixAdapter;
+import io.split.storages.enums.PluggableStorageEncoding;
 import io.split.storages.pluggable.domain.UserStorageWrapper;
+import io.split.storages.pluggable.utils.CompactEncoding;
 import pluggable.CustomStorageWrapper;
 
 import java.lang.reflect.Modifier;
+import java.util.Collections;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -31,10 +34,16 @@ public class UserCustomImpressionAdapterProducer implements ImpressionsStoragePr
             })
             .create();
     private Metadata _metadata;
+    private final PluggableStorageEncoding _encoding;
 
     public UserCustomImpressionAdapterProducer(CustomStorageWrapper customStorageWrapper, Metadata metadata) {
+        this(customStorageWrapper, metadata, PluggableStorageEncoding.JSON);
+    }
+
+    public UserCustomImpressionAdapterProducer(CustomStorageWrapper customStorageWrapper, Metadata metadata, PluggableStorageEncoding encoding) {
         _userStorageWrapper = new UserStorageWrapper(checkNotNull(customStorageWrapper));
         _metadata = metadata;
+        _encoding = checkNotNull(encoding);
     }
 
     @Override
@@ -43,6 +52,11 @@ public class UserCustomImpressionAdapterProducer implements ImpressionsStoragePr
         if (imps.isEmpty()){
             return 0;
         }
+        if (PluggableStorageEncoding.COMPACT.equals(_encoding)) {
+            // the whole batch is one list item
+            String batch = CompactEncoding.encodeImpressions(_metadata, imps);
+            return _userStorageWrapper.pushItems(PrefixAdapter.buildImpressions(), Collections.singletonList(batch)) > 0 ? imps.size() : 0;
+        }
         List<String> impressions = imps.stream().map(keyImp -> _json.toJson(new ImpressionConsumer(_metadata, keyImp))).collect(Collectors.toList());
         return _userStorageWrapper.pushItems(PrefixAdapter.buildImpressions(), impressions);
     }
@@ -2,16 +2,27 @@ package io.split.storages.pluggable.adapters;
 
 import io.split.storages.SegmentCacheConsumer;
 import io.split.storages.pluggable.domain.PrefixAdapter;
+import io.split.storages.pluggable.domain.UserPipelineWrapper;
 import io.split.storages.pluggable.domain.UserStorageWrapper;
 import io.split.storages.pluggable.utils.Helper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import pluggable.CustomStorageWrapper;
+import pluggable.Result;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
 public class UserCustomSegmentAdapterConsumer implements SegmentCacheConsumer {
 
+    private static final Logger _log = LoggerFactory.getLogger(UserCustomSegmentAdapterConsumer.class);
+
     private final UserStorageWrapper _userStorageWrapper;
 
     public UserCustomSegmentAdapterConsumer(CustomStorageWrapper customStorageWrapper) {
@@ -29,6 +40,30 @@ public class UserCustomSegmentAdapterConsumer implements SegmentCacheConsumer {
         return _userStorageWrapper.itemContains(PrefixAdapter.buildSegment(segmentName), key);
     }
 
+    @Override
+    public Map<String, Boolean> isInSegments(Set<String> segmentNames, String key) {
+        Map<String, Boolean> memberships = new HashMap<>();
+        if (segmentNames.isEmpty()) {
+            return memberships;
+        }
+        List<String> names = new ArrayList<>(segmentNames);
+        try (UserPipelineWrapper pipelineExecution = _userStorageWrapper.pipeline()) {
+            for (String segmentName : names) {
+                pipelineExecution.itemContains(PrefixAdapter.buildSegment(segmentName), key);
+            }
+            List<Result> results = pipelineExecution.exec();
+            for (int i = 0; i < Math.min(names.size(), results.size()); i++) {
+                Optional<Boolean> member = results.get(i).asBoolean();
+                if (member.isPresent()) {
+                    memberships.put(names.get(i), member.get());
+                }
+            }
+        } catch (Exception e) {
+            _log.warn("Pipeline exception when checking segment memberships: ", e);
+        }
+        return memberships;
+    }
+
     @Override
     public long getSegmentCount() {
         Set<String> keys = _userStorageWrapper.getKeysByPrefix(PrefixAdapter.buildSegmentAll());
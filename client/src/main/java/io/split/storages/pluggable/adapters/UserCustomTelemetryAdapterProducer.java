@@ -1,7 +1,9 @@
 package io.split.storages.pluggable.adapters;
 
+import com.google.common.annotations.VisibleForTesting;
 import io.split.client.utils.SDKMetadata;
 import io.split.storages.pluggable.domain.PrefixAdapter;
+import io.split.storages.pluggable.domain.UserPipelineWrapper;
 import io.split.storages.pluggable.domain.UserStorageWrapper;
 import io.split.telemetry.domain.StreamingEvent;
 import io.split.telemetry.domain.enums.EventsDataRecordsEnum;
@@ -13,18 +15,132 @@ import io.split.telemetry.domain.enums.ResourceEnum;
 import io.split.telemetry.domain.enums.UpdatesFromSSEEnum;
 import io.split.telemetry.storage.TelemetryStorageProducer;
 import io.split.telemetry.utils.BucketCalculator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import pluggable.CustomStorageWrapper;
 
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
 import static com.google.common.base.Preconditions.checkNotNull;
+import static io.split.client.utils.SplitExecutorFactory.buildSingleThreadScheduledExecutor;
+import static io.split.telemetry.storage.InMemoryTelemetryStorage.MAX_LATENCY_BUCKET_COUNT;
 
+/**
+ * Records consumer mode telemetry as counters in the custom storage.
+ *
+ * With a flush rate, latencies and exceptions are counted in process in striped counters per method and
+ * latency bucket, and added to the storage in one pipeline on a fixed delay and on stop, instead of one
+ * increment per evaluation. When the storage is written asynchronously, impressions and events dropped before
+ * reaching it are counted this way too, so a drop never costs a storage call on the thread that dropped them;
+ * without a flush rate they are flushed every {@value #DROPPED_FLUSH_RATE} seconds. Without either there is
+ * nothing to flush and no flush task is started.
+ */
 public class UserCustomTelemetryAdapterProducer implements TelemetryStorageProducer {
 
+    private static final Logger _log = LoggerFactory.getLogger(UserCustomTelemetryAdapterProducer.class);
+    private static final int METHODS = MethodEnum.values().length;
+    private static final String IMPRESSIONS_FIELD = "impressions";
+    private static final String EVENTS_FIELD = "events";
+    private static final int DROPPED_FLUSH_RATE = 60;
+
     private final UserStorageWrapper _userStorageWrapper;
     private SDKMetadata _sdkMetadata;
+    private final int _flushRate;
+    private final LongAdder[] _latencies;
+    private final LongAdder[] _exceptions;
+    private final LongAdder _droppedImpressions;
+    private final LongAdder _droppedEvents;
+    private final ScheduledExecutorService _executorService;
 
     public UserCustomTelemetryAdapterProducer(CustomStorageWrapper customStorageWrapper, SDKMetadata sdkMetadata) {
+        this(customStorageWrapper, sdkMetadata, 0, false, null);
+    }
+
+    /**
+     * @param flushRate seconds between flushes of the aggregated counters, 0 to increment the storage on every latency
+     *                  and exception
+     * @param recordDropped whether to count the impressions and events dropped by the asynchronous storage writers
+     */
+    public UserCustomTelemetryAdapterProducer(CustomStorageWrapper customStorageWrapper, SDKMetadata sdkMetadata, int flushRate,
+                                              boolean recordDropped, ThreadFactory threadFactory) {
         _userStorageWrapper = new UserStorageWrapper(checkNotNull(customStorageWrapper));
         _sdkMetadata = sdkMetadata;
+        _flushRate = flushRate;
+        _latencies = flushRate > 0 ? counters(METHODS * MAX_LATENCY_BUCKET_COUNT) : null;
+        _exceptions = flushRate > 0 ? counters(METHODS) : null;
+        _droppedImpressions = recordDropped ? new LongAdder() : null;
+        _droppedEvents = recordDropped ? new LongAdder() : null;
+        _executorService = flushRate > 0 || recordDropped
+                ? buildSingleThreadScheduledExecutor(threadFactory, "Telemetry-consumer-flush-%d")
+                : null;
+    }
+
+    public void start() {
+        if (_executorService == null) {
+            return;
+        }
+        int rate = _flushRate > 0 ? _flushRate : DROPPED_FLUSH_RATE;
+        _executorService.scheduleWithFixedDelay(() -> {
+            try {
+                flush();
+            } catch (Exception e) {
+                _log.warn("Error flushing consumer telemetry.", e);
+            }
+        }, rate, rate, TimeUnit.SECONDS);
+    }
+
+    public void stop() {
+        if (_executorService == null) {
+            return;
+        }
+        _executorService.shutdown();
+        try {
+            flush();
+        } catch (Exception e) {
+            _log.warn("Error flushing consumer telemetry.", e);
+        }
+    }
+
+    /**
+     * Adds the aggregated counters to the storage in one pipeline and starts them over.
+     */
+    @VisibleForTesting
+    void flush() throws Exception {
+        UserPipelineWrapper pipeline = null;
+        if (_latencies != null) {
+            for (MethodEnum method : MethodEnum.values()) {
+                for (int bucket = 0; bucket < MAX_LATENCY_BUCKET_COUNT; bucket++) {
+                    long count = _latencies[method.ordinal() * MAX_LATENCY_BUCKET_COUNT + bucket].sumThenReset();
+                    if (count > 0) {
+                        pipeline = pipeline != null ? pipeline : _userStorageWrapper.pipeline();
+                        pipeline.hIncrement(PrefixAdapter.buildTelemetryLatenciesPrefix(), latencyField(method, bucket), count);
+                    }
+                }
+                long count = _exceptions[method.ordinal()].sumThenReset();
+                if (count > 0) {
+                    pipeline = pipeline != null ? pipeline : _userStorageWrapper.pipeline();
+                    pipeline.hIncrement(PrefixAdapter.buildTelemetryExceptionsPrefix(), exceptionField(method), count);
+                }
+            }
+        }
+        if (_droppedImpressions != null) {
+            long droppedImpressions = _droppedImpressions.sumThenReset();
+            if (droppedImpressions > 0) {
+                pipeline = pipeline != null ? pipeline : _userStorageWrapper.pipeline();
+                pipeline.hIncrement(PrefixAdapter.buildTelemetryDroppedPrefix(), droppedField(IMPRESSIONS_FIELD), droppedImpressions);
+            }
+            long droppedEvents = _droppedEvents.sumThenReset();
+            if (droppedEvents > 0) {
+                pipeline = pipeline != null ? pipeline : _userStorageWrapper.pipeline();
+                pipeline.hIncrement(PrefixAdapter.buildTelemetryDroppedPrefix(), droppedField(EVENTS_FIELD), droppedEvents);
+            }
+        }
+        if (pipeline != null) {
+            pipeline.exec();
+        }
     }
 
     @Override
@@ -39,16 +155,44 @@ public class UserCustomTelemetryAdapterProducer implements TelemetryStorageProdu
 
     @Override
     public void recordLatency(MethodEnum method, long latency) {
-        String key = String.format("%s/%s/%s/%s/%d", _sdkMetadata.getSdkVersion(), _sdkMetadata.getMachineName(),
-                _sdkMetadata.getMachineIp(), method.getMethod(), BucketCalculator.getBucketForLatency(latency));
-        _userStorageWrapper.hIncrement(PrefixAdapter.buildTelemetryLatenciesPrefix(), key, 1);
+        int bucket = BucketCalculator.getBucketForLatency(latency);
+        if (_latencies != null) {
+            _latencies[method.ordinal() * MAX_LATENCY_BUCKET_COUNT + bucket].increment();
+            return;
+        }
+        _userStorageWrapper.hIncrement(PrefixAdapter.buildTelemetryLatenciesPrefix(), latencyField(method, bucket), 1);
     }
 
     @Override
     public void recordException(MethodEnum method) {
-        String key = String.format("%s/%s/%s/%s", _sdkMetadata.getSdkVersion(), _sdkMetadata.getMachineName(),
-                _sdkMetadata.getMachineIp(), method.getMethod());
-        _userStorageWrapper.hIncrement(PrefixAdapter.buildTelemetryExceptionsPrefix(), key, 1);
+        if (_exceptions != null) {
+            _exceptions[method.ordinal()].increment();
+            return;
+        }
+        _userStorageWrapper.hIncrement(PrefixAdapter.buildTelemetryExceptionsPrefix(), exceptionField(method), 1);
+    }
+
+    /**
+     * Adds the hits and misses of the local segment membership cache to the counters kept in the storage.
+     */
+    public void recordSegmentCacheStats(long hits, long misses) {
+        String key = String.format("%s/%s/%s", _sdkMetadata.getSdkVersion(), _sdkMetadata.getMachineName(),
+                _sdkMetadata.getMachineIp());
+        if (hits > 0) {
+            _userStorageWrapper.hIncrement(PrefixAdapter.buildTelemetrySegmentCachePrefix(), key + "/hits", hits);
+        }
+        if (misses > 0) {
+            _userStorageWrapper.hIncrement(PrefixAdapter.buildTelemetrySegmentCachePrefix(), key + "/misses", misses);
+        }
+    }
+
+    /**
+     * Stores how far behind the storage the local segment replicas are, in milliseconds.
+     */
+    public void recordSegmentReplicationLag(long lagInMillis) {
+        String key = String.format("%s/%s/%s", _sdkMetadata.getSdkVersion(), _sdkMetadata.getMachineName(),
+                _sdkMetadata.getMachineIp());
+        _userStorageWrapper.hSet(PrefixAdapter.buildTelemetrySegmentCachePrefix(), key + "/replicationLag", String.valueOf(lagInMillis));
     }
 
     @Override
@@ -58,12 +202,16 @@ public class UserCustomTelemetryAdapterProducer implements TelemetryStorageProdu
 
     @Override
     public void recordImpressionStats(ImpressionsDataTypeEnum dataType, long count) {
-        //No-op
+        if (ImpressionsDataTypeEnum.IMPRESSIONS_DROPPED.equals(dataType)) {
+            recordDropped(_droppedImpressions, count);
+        }
     }
 
     @Override
     public void recordEventStats(EventsDataRecordsEnum dataType, long count) {
-        //No-op
+        if (EventsDataRecordsEnum.EVENTS_DROPPED.equals(dataType)) {
+            recordDropped(_droppedEvents, count);
+        }
     }
 
     @Override
@@ -105,4 +253,33 @@ public class UserCustomTelemetryAdapterProducer implements TelemetryStorageProdu
     public void recordUpdatesFromSSE(UpdatesFromSSEEnum updatesFromSSEEnum) {
         //No-op
     }
-}
\ No newline at end of file
+
+    private static void recordDropped(LongAdder counter, long count) {
+        if (counter != null && count > 0) {
+            counter.add(count);
+        }
+    }
+
+    private String droppedField(String field) {
+        return String.format("%s/%s/%s/%s", _sdkMetadata.getSdkVersion(), _sdkMetadata.getMachineName(),
+                _sdkMetadata.getMachineIp(), field);
+    }
+
+    private String latencyField(MethodEnum method, int bucket) {
+        return String.format("%s/%s/%s/%s/%d", _sdkMetadata.getSdkVersion(), _sdkMetadata.getMachineName(),
+                _sdkMetadata.getMachineIp(), method.getMethod(), bucket);
+    }
+
+    private String exceptionField(MethodEnum method) {
+        return String.format("%s/%s/%s/%s", _sdkMetadata.getSdkVersion(), _sdkMetadata.getMachineName(),
+                _sdkMetadata.getMachineIp(), method.getMethod());
+    }
+
+    private static LongAdder[] counters(int size) {
+        LongAdder[] counters = new LongAdder[size];
+        for (int i = 0; i < size; i++) {
+            counters[i] = new LongAdder();
+        }
+        return counters;
+    }
+}
@@ -18,6 +18,8 @@ public class PrefixAdapter {
     private static final String TELEMETRY = "telemetry.";
     private static final String LATENCIES = "latencies";
     private static final String EXCEPTIONS = "exceptions";
+    private static final String SEGMENT_CACHE = "segmentCache";
+    private static final String DROPPED = "dropped";
     private static final String INIT = "init";
 
     public static String buildSplitKey(String name) {
@@ -84,6 +86,19 @@ public class PrefixAdapter {
         return String.format(DEFAULT_PREFIX+TELEMETRY+EXCEPTIONS);
     }
 
+    public static String buildTelemetrySegmentCachePrefix() {
+        return String.format(DEFAULT_PREFIX+TELEMETRY+SEGMENT_CACHE);
+    }
+
+    /**
+     * Hash of the impressions and events dropped by the asynchronous storage writers, only written when those are
+     * enabled. Fields are {@code <sdkVersion>/<machineName>/<machineIp>/impressions} and
+     * {@code <sdkVersion>/<machineName>/<machineIp>/events}, each holding the count dropped so far.
+     */
+    public static String buildTelemetryDroppedPrefix() {
+        return String.format(DEFAULT_PREFIX+TELEMETRY+DROPPED);
+    }
+
     public static String buildTelemetryInit() {
         return String.format(DEFAULT_PREFIX + TELEMETRY + INIT);
     }
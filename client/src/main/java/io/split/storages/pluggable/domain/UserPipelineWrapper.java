@@ -6,35 +6,126 @@ import pluggable.Pipeline;
 import pluggable.Result;
 
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.List;
+import java.util.function.Consumer;
 
+/**
+ * Wraps a user pipeline so its failures are logged instead of thrown.
+ *
+ * Operations the user pipeline does not support are queued on a fallback pipeline instead, when there is
+ * one, and exec merges the results of both back in the order the operations were queued.
+ */
 public class UserPipelineWrapper implements Pipeline{
 
     private static final Logger _logger = LoggerFactory.getLogger(UserPipelineWrapper.class);
 
     private final Pipeline _pipeline;
-
+    private final Pipeline _fallback;
+    // positions of the queued operations that went to the fallback
+    private final BitSet _onFallback = new BitSet();
+    private int _queued;
 
     public UserPipelineWrapper(Pipeline pipeline) {
+        this(pipeline, null);
+    }
+
+    /**
+     * @param fallback runs the operations the pipeline does not support, may be null
+     */
+    public UserPipelineWrapper(Pipeline pipeline, Pipeline fallback) {
         _pipeline = pipeline;
+        _fallback = fallback;
     }
 
     @Override
     public List<Result> exec() {
         try{
-            return _pipeline.exec();
+            if (_onFallback.isEmpty()) {
+                return _pipeline.exec();
+            }
+            List<Result> results = _pipeline.exec();
+            List<Result> fallbackResults = _fallback.exec();
+            List<Result> merged = new ArrayList<>(_queued);
+            int next = 0;
+            int nextFallback = 0;
+            for (int i = 0; i < _queued; i++) {
+                merged.add(_onFallback.get(i) ? fallbackResults.get(nextFallback++) : results.get(next++));
+            }
+            return merged;
         } catch (Exception e) {
             _logger.warn("Exception calling Pipeline exec", e);
             return new ArrayList<>();
+        } finally {
+            _onFallback.clear();
+            _queued = 0;
         }
     }
 
     @Override
     public void hIncrement(String key, String field, long value) {
+        queue("hIncrement", pipeline -> pipeline.hIncrement(key, field, value));
+    }
+
+    @Override
+    public void itemContains(String key, String item) {
+        queue("itemContains", pipeline -> pipeline.itemContains(key, item));
+    }
+
+    @Override
+    public void get(String key) {
+        queue("get", pipeline -> pipeline.get(key));
+    }
+
+    @Override
+    public void getMany(List<String> keys) {
+        queue("getMany", pipeline -> pipeline.getMany(keys));
+    }
+
+    @Override
+    public void pushItems(String key, List<String> items) {
+        queue("pushItems", pipeline -> pipeline.pushItems(key, items));
+    }
+
+    @Override
+    public void addItems(String key, List<String> items) {
+        queue("addItems", pipeline -> pipeline.addItems(key, items));
+    }
+
+    @Override
+    public void removeItems(String key, List<String> items) {
+        queue("removeItems", pipeline -> pipeline.removeItems(key, items));
+    }
+
+    @Override
+    public void close() {
+        try {
+            _pipeline.close();
+            if (_fallback != null) {
+                _fallback.close();
+            }
+        } catch (Exception e){
+            _logger.warn("Exception calling Pipeline close", e);
+        }
+    }
+
+    private void queue(String operation, Consumer<Pipeline> call) {
         try {
-            _pipeline.hIncrement(key, field, value);
+            call.accept(_pipeline);
+            _queued++;
+        } catch (UnsupportedOperationException e) {
+            if (_fallback == null) {
+                _logger.warn("Pipeline does not support " + operation);
+                return;
+            }
+            try {
+                call.accept(_fallback);
+                _onFallback.set(_queued++);
+            } catch (Exception fallbackException) {
+                _logger.warn("Exception calling Pipeline " + operation, fallbackException);
+            }
         } catch (Exception e){
-           _logger.warn("Exception calling Pipeline hIncrement", e);
+            _logger.warn("Exception calling Pipeline " + operation, e);
         }
     }
 }
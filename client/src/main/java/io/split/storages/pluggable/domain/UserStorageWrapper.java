@@ -4,16 +4,20 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import pluggable.CustomStorageWrapper;
 import pluggable.HasPipelineSupport;
+import pluggable.HasScanSupport;
 import pluggable.NotPipelinedImpl;
 
 import java.util.List;
 import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
 public class UserStorageWrapper implements CustomStorageWrapper {
 
     private static final Logger _log = LoggerFactory.getLogger(UserStorageWrapper.class);
+    private static final RuntimeException STOP_SCAN = new ScanStoppedException();
 
     private final CustomStorageWrapper _customStorageWrapper;
 
@@ -225,9 +229,66 @@ public class UserStorageWrapper implements CustomStorageWrapper {
         }
     }
 
+    /**
+     * Walks the members of a set in batches when the storage supports scanning.
+     *
+     * @return false when the storage can not scan sets or the scan failed
+     */
+    public boolean scanItems(String key, Consumer<List<String>> itemsConsumer) {
+        if (!(_customStorageWrapper instanceof HasScanSupport)) {
+            return false;
+        }
+        try {
+            ((HasScanSupport) _customStorageWrapper).scanItems(key, itemsConsumer);
+            return true;
+        }
+        catch (Exception e) {
+            _log.error(String.format("error scanning items with key '%s' from storage. Error: '%s'", key, e.getMessage()));
+            return false;
+        }
+    }
+
+    /**
+     * Walks the members of a set in batches like {@link #scanItems}, until the consumer returns false.
+     *
+     * @return false when the storage can not scan sets or the scan failed, true when it was walked to the end or stopped
+     */
+    public boolean scanItemsWhile(String key, Predicate<List<String>> itemsConsumer) {
+        if (!(_customStorageWrapper instanceof HasScanSupport)) {
+            return false;
+        }
+        // storages may wrap what the consumer throws, so the stop is told apart by this flag rather than by the exception
+        boolean[] stopped = {false};
+        try {
+            ((HasScanSupport) _customStorageWrapper).scanItems(key, items -> {
+                if (stopped[0]) {
+                    return;
+                }
+                if (!itemsConsumer.test(items)) {
+                    stopped[0] = true;
+                    throw STOP_SCAN;
+                }
+            });
+            return true;
+        }
+        catch (Exception e) {
+            if (stopped[0]) {
+                return true;
+            }
+            _log.error(String.format("error scanning items with key '%s' from storage. Error: '%s'", key, e.getMessage()));
+            return false;
+        }
+    }
+
     public UserPipelineWrapper pipeline() throws Exception {
         return (_customStorageWrapper instanceof HasPipelineSupport)
-                ? new UserPipelineWrapper(((HasPipelineSupport) _customStorageWrapper).pipeline())
+                ? new UserPipelineWrapper(((HasPipelineSupport) _customStorageWrapper).pipeline(), new NotPipelinedImpl(_customStorageWrapper))
                 : new UserPipelineWrapper(new NotPipelinedImpl(_customStorageWrapper));
     }
+
+    private static final class ScanStoppedException extends RuntimeException {
+        ScanStoppedException() {
+            super("scan stopped", null, false, false);
+        }
+    }
 }
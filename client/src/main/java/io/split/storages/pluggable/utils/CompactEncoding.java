@@ -0,0 +1,302 @@
+package io.split.storages.pluggable.utils;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+import io.split.client.dtos.Event;
+import io.split.client.dtos.KeyImpression;
+import io.split.client.dtos.Metadata;
+import io.split.client.utils.Json;
+import io.split.storages.pluggable.domain.EventConsumer;
+import io.split.storages.pluggable.domain.ImpressionConsumer;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact encoding for impressions and events pushed to a pluggable storage.
+ *
+ * A whole batch becomes a single list item: the metadata is written once, feature flag names,
+ * treatments and labels are written once and then referenced by index, times are stored as
+ * variable length deltas and the result is base64 encoded behind a short marker. The decode
+ * methods read both these items and the JSON envelopes, so a synchronizer can drain a list
+ * written by SDKs on either setting.
+ */
+public final class CompactEncoding {
+
+    public static final String MARKER = "c1:";
+
+    private static final byte IMPRESSIONS = 1;
+    private static final byte EVENTS = 2;
+    private static final int HAS_BUCKETING_KEY = 1;
+    private static final int HAS_CHANGE_NUMBER = 1 << 1;
+    private static final int HAS_PREVIOUS_TIME = 1 << 2;
+    private static final Gson GSON = new Gson();
+    private static final Type PROPERTIES_TYPE = new TypeToken<Map<String, Object>>() {}.getType();
+
+    private CompactEncoding() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    public static boolean isCompact(String item) {
+        return item != null && item.startsWith(MARKER);
+    }
+
+    public static String encodeImpressions(Metadata metadata, List<KeyImpression> impressions) {
+        Map<String, Integer> dictionary = new HashMap<>();
+        List<String> words = new ArrayList<>();
+        int[] references = new int[impressions.size() * 3];
+        int i = 0;
+        for (KeyImpression impression : impressions) {
+            references[i++] = reference(impression.feature, dictionary, words);
+            references[i++] = reference(impression.treatment, dictionary, words);
+            references[i++] = reference(impression.label, dictionary, words);
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + impressions.size() * 32);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(IMPRESSIONS);
+            writeMetadata(out, metadata);
+            writeVarLong(out, words.size());
+            for (String word : words) {
+                writeString(out, word);
+            }
+            writeVarLong(out, impressions.size());
+            long previousTime = 0;
+            i = 0;
+            for (KeyImpression impression : impressions) {
+                int flags = (impression.bucketingKey != null ? HAS_BUCKETING_KEY : 0)
+                        | (impression.changeNumber != null ? HAS_CHANGE_NUMBER : 0)
+                        | (impression.previousTime != null ? HAS_PREVIOUS_TIME : 0);
+                out.writeByte(flags);
+                writeString(out, impression.keyName);
+                if (impression.bucketingKey != null) {
+                    writeString(out, impression.bucketingKey);
+                }
+                writeVarLong(out, references[i++]);
+                writeVarLong(out, references[i++]);
+                writeVarLong(out, references[i++]);
+                writeVarLong(out, zigZag(impression.time - previousTime));
+                previousTime = impression.time;
+                if (impression.changeNumber != null) {
+                    writeVarLong(out, zigZag(impression.changeNumber));
+                }
+                if (impression.previousTime != null) {
+                    writeVarLong(out, zigZag(impression.previousTime));
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return MARKER + Base64.getEncoder().encodeToString(bytes.toByteArray());
+    }
+
+    public static String encodeEvents(Metadata metadata, List<Event> events) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + events.size() * 64);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(EVENTS);
+            writeMetadata(out, metadata);
+            writeVarLong(out, events.size());
+            for (Event event : events) {
+                writeString(out, event.eventTypeId);
+                writeString(out, event.trafficTypeName);
+                writeString(out, event.key);
+                out.writeDouble(event.value);
+                writeVarLong(out, zigZag(event.timestamp));
+                writeString(out, event.properties == null ? null : Json.toJson(event.properties));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return MARKER + Base64.getEncoder().encodeToString(bytes.toByteArray());
+    }
+
+    /**
+     * @return the impressions held by one list item, either a compact batch or a single JSON envelope.
+     */
+    public static List<ImpressionConsumer> decodeImpressions(String item) {
+        if (!isCompact(item)) {
+            return Collections.singletonList(Json.fromJson(item, ImpressionConsumer.class));
+        }
+        try (DataInputStream in = open(item, IMPRESSIONS)) {
+            Metadata metadata = readMetadata(in);
+            int wordCount = readCount(in);
+            List<String> words = new ArrayList<>(wordCount);
+            for (int i = 0; i < wordCount; i++) {
+                words.add(readString(in));
+            }
+            int count = readCount(in);
+            List<ImpressionConsumer> impressions = new ArrayList<>(count);
+            long previousTime = 0;
+            for (int i = 0; i < count; i++) {
+                int flags = in.readUnsignedByte();
+                KeyImpression impression = new KeyImpression();
+                impression.keyName = readString(in);
+                if ((flags & HAS_BUCKETING_KEY) != 0) {
+                    impression.bucketingKey = readString(in);
+                }
+                impression.feature = word(words, readVarLong(in));
+                impression.treatment = word(words, readVarLong(in));
+                impression.label = word(words, readVarLong(in));
+                impression.time = previousTime + unZigZag(readVarLong(in));
+                previousTime = impression.time;
+                if ((flags & HAS_CHANGE_NUMBER) != 0) {
+                    impression.changeNumber = unZigZag(readVarLong(in));
+                }
+                if ((flags & HAS_PREVIOUS_TIME) != 0) {
+                    impression.previousTime = unZigZag(readVarLong(in));
+                }
+                impressions.add(new ImpressionConsumer(metadata, impression));
+            }
+            return impressions;
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Malformed compact impressions item", e);
+        }
+    }
+
+    /**
+     * @return the events held by one list item, either a compact batch or a single JSON envelope.
+     */
+    public static List<EventConsumer> decodeEvents(String item) {
+        if (!isCompact(item)) {
+            return Collections.singletonList(Json.fromJson(item, EventConsumer.class));
+        }
+        try (DataInputStream in = open(item, EVENTS)) {
+            Metadata metadata = readMetadata(in);
+            int count = readCount(in);
+            List<EventConsumer> events = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                Event event = new Event();
+                event.eventTypeId = readString(in);
+                event.trafficTypeName = readString(in);
+                event.key = readString(in);
+                event.value = in.readDouble();
+                event.timestamp = unZigZag(readVarLong(in));
+                String properties = readString(in);
+                event.properties = properties == null ? null : GSON.fromJson(properties, PROPERTIES_TYPE);
+                events.add(new EventConsumer(metadata, event));
+            }
+            return events;
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Malformed compact events item", e);
+        }
+    }
+
+    private static int reference(String word, Map<String, Integer> dictionary, List<String> words) {
+        if (word == null) {
+            return 0;
+        }
+        Integer index = dictionary.get(word);
+        if (index == null) {
+            words.add(word);
+            index = words.size();
+            dictionary.put(word, index);
+        }
+        return index;
+    }
+
+    private static String word(List<String> words, long reference) throws IOException {
+        if (reference == 0) {
+            return null;
+        }
+        if (reference > words.size()) {
+            throw new IOException("Unknown dictionary reference " + reference);
+        }
+        return words.get((int) reference - 1);
+    }
+
+    private static DataInputStream open(String item, byte type) throws IOException {
+        byte[] bytes = Base64.getDecoder().decode(item.substring(MARKER.length()));
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+        byte actual = in.readByte();
+        if (actual != type) {
+            throw new IOException("Unexpected item type " + actual);
+        }
+        return in;
+    }
+
+    private static void writeMetadata(DataOutputStream out, Metadata metadata) throws IOException {
+        writeString(out, metadata == null ? null : metadata.getSdkVersion());
+        writeString(out, metadata == null ? null : metadata.getHostname());
+        writeString(out, metadata == null ? null : metadata.getIp());
+    }
+
+    private static Metadata readMetadata(DataInputStream in) throws IOException {
+        String sdkVersion = readString(in);
+        String hostname = readString(in);
+        String ip = readString(in);
+        return new Metadata(sdkVersion, hostname, ip);
+    }
+
+    // length + 1, so 0 stands for null
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            writeVarLong(out, 0);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarLong(out, bytes.length + 1L);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = readCount(in);
+        if (length == 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length - 1];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static int readCount(DataInputStream in) throws IOException {
+        long count = readVarLong(in);
+        if (count > in.available() + 1L) {
+            throw new IOException("Count " + count + " larger than the item");
+        }
+        return (int) count;
+    }
+
+    private static void writeVarLong(DataOutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    private static long readVarLong(DataInputStream in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.read();
+            if (b < 0) {
+                throw new EOFException();
+            }
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed variable length number");
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
@@ -0,0 +1,323 @@
+package io.split.storages.spool;
+
+import com.google.common.annotations.VisibleForTesting;
+import io.split.service.PostResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.zip.CRC32;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static io.split.client.utils.SplitExecutorFactory.buildSingleThreadScheduledExecutor;
+
+/**
+ * Append-only spool of records on disk, for batches that could not be posted or did not fit in the queue.
+ *
+ * Records are appended to the newest of a sequence of segment files, each record written as its length, its
+ * UTF-8 bytes and a CRC32, so a write torn by a crash is detected and skipped on replay. A background task
+ * seals the open segment and replays segments oldest first through a handler; a segment is deleted once every
+ * record in it was handled, and a retriable failure stops the replay and doubles the delay before the next try.
+ * A record the handler rejects, or throws on, is skipped and counted as dropped, since it would fail on every
+ * retry too and block the records behind it.
+ * Records that would take the spool over its quota are dropped. Segments left by a previous process are
+ * replayed too, so records may be posted more than once but are not lost.
+ *
+ * Threads that must not wait on the disk use a {@link #handOff hand-off} instead of appending: items go to a
+ * bounded in-memory queue, and a thread of the spool encodes them into records in batches. Hand-offs are drained
+ * on a thread of their own, so a replay waiting on the network does not leave their queues to fill up.
+ */
+public class DiskSpool {
+
+    private static final Logger _log = LoggerFactory.getLogger(DiskSpool.class);
+    private static final String FILE_PREFIX = "segment-";
+    private static final String FILE_EXTENSION = ".spool";
+    private static final long SEGMENT_MAX_BYTES = 8L * 1024 * 1024;
+    private static final int RECORD_OVERHEAD = 8;
+    private static final long REPLAY_BASE_DELAY_SECONDS = 30L;
+    private static final long REPLAY_MAX_DELAY_SECONDS = 600L;
+    private static final long HAND_OFF_DRAIN_MILLIS = 500L;
+    private static final int HAND_OFF_BATCH_SIZE = 1000;
+    private static final long STOP_TIMEOUT_SECONDS = 10L;
+
+    private final Path _directory;
+    private final long _quotaBytes;
+    private final boolean _fsync;
+    private final ScheduledExecutorService _executorService;
+    private final ScheduledExecutorService _handOffExecutorService;
+    private final AtomicLong _dropped = new AtomicLong();
+    private final List<Runnable> _handOffDrains = new CopyOnWriteArrayList<>();
+    private long _size;
+    private long _nextSequence;
+    private FileChannel _open;
+    private Path _openPath;
+    private long _openSize;
+    // records of the oldest segment already handled, so a retry does not post them again
+    private Path _replayPath;
+    private long _replayOffset;
+    private int _failures;
+    private long _nextReplay;
+
+    public DiskSpool(String directory, long quotaBytes, boolean fsync, ThreadFactory threadFactory, String name) {
+        _directory = Paths.get(checkNotNull(directory));
+        _quotaBytes = quotaBytes;
+        _fsync = fsync;
+        try {
+            Files.createDirectories(_directory);
+            for (Path segment : segments()) {
+                _size += Files.size(segment);
+                _nextSequence = Math.max(_nextSequence, sequence(segment) + 1);
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not open spool directory " + directory, e);
+        }
+        _executorService = buildSingleThreadScheduledExecutor(threadFactory, name);
+        _handOffExecutorService = buildSingleThreadScheduledExecutor(threadFactory, "HandOff-" + name);
+    }
+
+    public void start(Function<String, PostResult> handler) {
+        checkNotNull(handler);
+        _executorService.scheduleWithFixedDelay(() -> {
+            try {
+                if (System.currentTimeMillis() >= _nextReplay) {
+                    replay(handler);
+                }
+            } catch (Exception e) {
+                _log.warn("Error replaying spooled records.", e);
+            }
+        }, REPLAY_BASE_DELAY_SECONDS, REPLAY_BASE_DELAY_SECONDS, TimeUnit.SECONDS);
+    }
+
+    public void stop() {
+        _executorService.shutdown();
+        _handOffExecutorService.shutdown();
+        try {
+            if (!_handOffExecutorService.awaitTermination(STOP_TIMEOUT_SECONDS, TimeUnit.SECONDS)
+                    || !_executorService.awaitTermination(STOP_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                _log.warn("Spool in " + _directory + " did not finish its running tasks in time.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (this) {
+            drainHandOffs();
+            seal();
+        }
+    }
+
+    /**
+     * Returns a consumer that queues items for this spool without blocking. The spool's hand-off thread appends
+     * them on a short fixed delay, encoding up to {@value #HAND_OFF_BATCH_SIZE} items into each record.
+     * Items that do not fit in the queue are dropped.
+     *
+     * @param capacity how many items the queue holds
+     * @param encoder turns a batch of items into one record
+     */
+    public <T> Consumer<T> handOff(int capacity, Function<List<T>, String> encoder) {
+        checkNotNull(encoder);
+        BlockingQueue<T> queue = new ArrayBlockingQueue<>(Math.max(1, capacity));
+        Runnable drain = () -> {
+            List<T> batch = new ArrayList<>();
+            while (queue.drainTo(batch, HAND_OFF_BATCH_SIZE) > 0) {
+                append(encoder.apply(batch));
+                batch = new ArrayList<>();
+            }
+        };
+        _handOffDrains.add(drain);
+        _handOffExecutorService.scheduleWithFixedDelay(() -> {
+            try {
+                drain.run();
+            } catch (Exception e) {
+                _log.warn("Error spooling handed off items.", e);
+            }
+        }, HAND_OFF_DRAIN_MILLIS, HAND_OFF_DRAIN_MILLIS, TimeUnit.MILLISECONDS);
+        return item -> {
+            if (!queue.offer(item)) {
+                _dropped.incrementAndGet();
+            }
+        };
+    }
+
+    /**
+     * @return false when the record was dropped because the spool is over its quota or could not be written.
+     */
+    public synchronized boolean append(String record) {
+        byte[] bytes = record.getBytes(StandardCharsets.UTF_8);
+        long recordSize = bytes.length + (long) RECORD_OVERHEAD;
+        if (_size + recordSize > _quotaBytes) {
+            _dropped.incrementAndGet();
+            _log.warn("Spool in " + _directory + " is over its quota, dropping a record of " + recordSize + " bytes.");
+            return false;
+        }
+        try {
+            if (_open == null || _openSize + recordSize > SEGMENT_MAX_BYTES) {
+                seal();
+                _openPath = _directory.resolve(FILE_PREFIX + _nextSequence++ + FILE_EXTENSION);
+                _open = FileChannel.open(_openPath, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+                _openSize = 0;
+            }
+            CRC32 crc = new CRC32();
+            crc.update(bytes);
+            ByteBuffer buffer = ByteBuffer.allocate((int) recordSize);
+            buffer.putInt(bytes.length).put(bytes).putInt((int) crc.getValue());
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                _open.write(buffer);
+            }
+            if (_fsync) {
+                _open.force(false);
+            }
+            _openSize += recordSize;
+            _size += recordSize;
+            return true;
+        } catch (IOException e) {
+            _dropped.incrementAndGet();
+            _log.warn("Could not write to spool in " + _directory, e);
+            return false;
+        }
+    }
+
+    public synchronized long size() {
+        return _size;
+    }
+
+    public long getDropped() {
+        return _dropped.get();
+    }
+
+    /**
+     * Replays sealed segments oldest first until they run out or the handler fails.
+     */
+    @VisibleForTesting
+    void replay(Function<String, PostResult> handler) throws IOException {
+        List<Path> segments;
+        synchronized (this) {
+            seal();
+            segments = segments();
+        }
+        for (Path segment : segments) {
+            if (!replaySegment(segment, handler)) {
+                _failures++;
+                long delay = Math.min(REPLAY_BASE_DELAY_SECONDS << Math.min(_failures, 10), REPLAY_MAX_DELAY_SECONDS);
+                _nextReplay = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(delay);
+                return;
+            }
+            long segmentSize = Files.size(segment);
+            Files.delete(segment);
+            synchronized (this) {
+                _size -= segmentSize;
+            }
+        }
+        _failures = 0;
+        _nextReplay = 0;
+    }
+
+    private boolean replaySegment(Path segment, Function<String, PostResult> handler) throws IOException {
+        if (!segment.equals(_replayPath)) {
+            _replayPath = segment;
+            _replayOffset = 0;
+        }
+        ByteBuffer content = ByteBuffer.wrap(Files.readAllBytes(segment));
+        content.position((int) _replayOffset);
+        while (content.remaining() >= RECORD_OVERHEAD) {
+            int length = content.getInt();
+            if (length < 0 || length > content.remaining() - 4) {
+                _log.warn("Skipping the torn end of spool segment " + segment);
+                break;
+            }
+            byte[] bytes = new byte[length];
+            content.get(bytes);
+            int checksum = content.getInt();
+            CRC32 crc = new CRC32();
+            crc.update(bytes);
+            if ((int) crc.getValue() != checksum) {
+                _log.warn("Skipping a corrupt record in spool segment " + segment);
+            } else if (!handle(handler, new String(bytes, StandardCharsets.UTF_8), segment)) {
+                return false;
+            }
+            _replayOffset = content.position();
+        }
+        return true;
+    }
+
+    private boolean handle(Function<String, PostResult> handler, String record, Path segment) {
+        try {
+            PostResult result = handler.apply(record);
+            if (result == PostResult.REJECTED) {
+                _dropped.incrementAndGet();
+                _log.warn("Dropping a record in spool segment " + segment + " that was rejected.");
+            }
+            return result != PostResult.RETRIABLE;
+        } catch (RuntimeException e) {
+            _dropped.incrementAndGet();
+            _log.warn("Skipping a record in spool segment " + segment + " that could not be replayed.", e);
+            return true;
+        }
+    }
+
+    @VisibleForTesting
+    void drainHandOffs() {
+        for (Runnable drain : _handOffDrains) {
+            drain.run();
+        }
+    }
+
+    private void seal() {
+        if (_open == null) {
+            return;
+        }
+        try {
+            if (_fsync) {
+                _open.force(true);
+            }
+            _open.close();
+            if (_openSize == 0) {
+                Files.deleteIfExists(_openPath);
+            }
+        } catch (IOException e) {
+            _log.warn("Could not close spool segment " + _openPath, e);
+        }
+        _open = null;
+        _openPath = null;
+    }
+
+    private List<Path> segments() throws IOException {
+        List<Path> segments = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(_directory, FILE_PREFIX + "*" + FILE_EXTENSION)) {
+            for (Path segment : stream) {
+                segments.add(segment);
+            }
+        }
+        Collections.sort(segments, (a, b) -> Long.compare(sequence(a), sequence(b)));
+        return segments;
+    }
+
+    private static long sequence(Path segment) {
+        String name = segment.getFileName().toString();
+        try {
+            return Long.parseLong(name.substring(FILE_PREFIX.length(), name.length() - FILE_EXTENSION.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
@@ -1502,6 +1502,99 @@ public class SplitClientImplTest {
         verify(TELEMETRY_STORAGE, times(1)).recordLatency(Mockito.anyObject(), Mockito.anyLong());
     }
 
+    @Test
+    public void getTreatmentsForKeys_works() {
+        String test = "test1";
+        ParsedCondition rollOutToEveryone = ParsedCondition.createParsedConditionForTests(CombiningMatcher.of(new AllKeysMatcher()), Lists.newArrayList(partition("on", 100)));
+        ParsedSplit parsedSplit = ParsedSplit.createParsedSplitForTests(test, 123, false, Treatments.OFF, Lists.newArrayList(rollOutToEveryone), null, 1, 1);
+        SDKReadinessGates gates = mock(SDKReadinessGates.class);
+        SplitCacheConsumer splitCacheConsumer = mock(SplitCacheConsumer.class);
+        SegmentCacheConsumer segmentCacheConsumer = mock(SegmentCacheConsumer.class);
+        ImpressionsManager impressionsManager = mock(ImpressionsManager.class);
+        when(splitCacheConsumer.get(test)).thenReturn(parsedSplit);
+        when(gates.isSDKReady()).thenReturn(true);
+
+        SplitClientImpl client = new SplitClientImpl(
+                mock(SplitFactory.class),
+                splitCacheConsumer,
+                impressionsManager,
+                NoopEventsStorageImp.create(),
+                config,
+                gates,
+                new EvaluatorImp(splitCacheConsumer, segmentCacheConsumer), TELEMETRY_STORAGE, TELEMETRY_STORAGE
+        );
+        List<Key> keys = Arrays.asList(new Key("key1", "bucket1"), null, new Key("", "bucket3"), new Key("key4", "bucket4"));
+        List<String> result = client.getTreatmentsForKeys(keys, test, null);
+
+        assertEquals(Arrays.asList("on", Treatments.CONTROL, Treatments.CONTROL, "on"), result);
+        verify(splitCacheConsumer, times(1)).get(test);
+        verify(TELEMETRY_STORAGE, times(1)).recordLatency(Mockito.anyObject(), Mockito.anyLong());
+
+        ArgumentCaptor<List> impressionCaptor = ArgumentCaptor.forClass(List.class);
+        verify(impressionsManager, times(1)).track(impressionCaptor.capture());
+        List<Impression> impressions = impressionCaptor.getValue();
+        assertEquals(2, impressions.size());
+        assertEquals("key1", impressions.get(0).key());
+        assertEquals("bucket1", impressions.get(0).bucketingKey());
+        assertEquals("key4", impressions.get(1).key());
+    }
+
+    @Test
+    public void getTreatmentsForKeys_in_parallel() {
+        String test = "test1";
+        ParsedCondition rollOutToEveryone = ParsedCondition.createParsedConditionForTests(CombiningMatcher.of(new AllKeysMatcher()),
+                Lists.newArrayList(partition("on", 50), partition("off", 50)));
+        ParsedSplit parsedSplit = ParsedSplit.createParsedSplitForTests(test, 123, false, Treatments.OFF, Lists.newArrayList(rollOutToEveryone), null, 1, 1);
+        SDKReadinessGates gates = mock(SDKReadinessGates.class);
+        SplitCacheConsumer splitCacheConsumer = mock(SplitCacheConsumer.class);
+        SegmentCacheConsumer segmentCacheConsumer = mock(SegmentCacheConsumer.class);
+        when(splitCacheConsumer.get(test)).thenReturn(parsedSplit);
+        when(gates.isSDKReady()).thenReturn(true);
+
+        SplitClientImpl client = new SplitClientImpl(
+                mock(SplitFactory.class),
+                splitCacheConsumer,
+                new ImpressionsManager.NoOpImpressionsManager(),
+                NoopEventsStorageImp.create(),
+                config,
+                gates,
+                new EvaluatorImp(splitCacheConsumer, segmentCacheConsumer, 10), TELEMETRY_STORAGE, TELEMETRY_STORAGE
+        );
+        List<Key> keys = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            keys.add(new Key("key" + i, "key" + i));
+        }
+        List<String> result = client.getTreatmentsForKeys(keys, test, null);
+
+        assertEquals(keys.size(), result.size());
+        for (int i = 0; i < keys.size(); i++) {
+            assertEquals(client.getTreatment(keys.get(i), test, null), result.get(i));
+        }
+    }
+
+    @Test
+    public void getTreatmentsForKeys_non_existent_split_results_in_control() {
+        SDKReadinessGates gates = mock(SDKReadinessGates.class);
+        SplitCacheConsumer splitCacheConsumer = mock(SplitCacheConsumer.class);
+        SegmentCacheConsumer segmentCacheConsumer = mock(SegmentCacheConsumer.class);
+        ImpressionsManager impressionsManager = mock(ImpressionsManager.class);
+        when(gates.isSDKReady()).thenReturn(true);
+
+        SplitClientImpl client = new SplitClientImpl(
+                mock(SplitFactory.class),
+                splitCacheConsumer,
+                impressionsManager,
+                NoopEventsStorageImp.create(),
+                config,
+                gates,
+                new EvaluatorImp(splitCacheConsumer, segmentCacheConsumer), TELEMETRY_STORAGE, TELEMETRY_STORAGE
+        );
+        List<String> result = client.getTreatmentsForKeys(Arrays.asList(new Key("key1", "key1"), new Key("key2", "key2")), "missing", null);
+
+        assertEquals(Arrays.asList(Treatments.CONTROL, Treatments.CONTROL), result);
+        verifyZeroInteractions(impressionsManager);
+    }
+
     @Test
     public void empty_splits_results_in_null_getTreatments() {
         String test = "test1";
@@ -221,4 +221,12 @@ public class SplitFactoryImplTest extends TestCase {
         assertTrue(splitFactory.isDestroyed());
         Mockito.verify(userStorageWrapper, Mockito.times(1)).disconnect();
     }
+
+    @Test
+    public void testStorageNamespaceDependsOnTheSdkKey() {
+        assertEquals(SplitFactoryImpl.storageNamespace(API_KEY), SplitFactoryImpl.storageNamespace(API_KEY));
+        assertFalse(SplitFactoryImpl.storageNamespace(API_KEY).equals(SplitFactoryImpl.storageNamespace(API_KEY + "x")));
+        assertFalse(SplitFactoryImpl.storageNamespace(API_KEY).contains(API_KEY));
+        assertEquals(16, SplitFactoryImpl.storageNamespace(API_KEY).length());
+    }
 }
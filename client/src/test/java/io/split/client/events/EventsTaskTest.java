@@ -99,4 +99,19 @@ public class EventsTaskTest {
         Thread.sleep(1000);
         Mockito.verify(eventsSender, Mockito.times(2)).sendEvents(Mockito.anyObject());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testEventsArePostedInChunks() {
+        TelemetryRuntimeProducer telemetryRuntimeProducer = Mockito.mock(TelemetryRuntimeProducer.class);
+        EventsSender eventsSender = Mockito.mock(EventsSender.class);
+        EventsStorage eventsStorage = new InMemoryEventsStorage(10000, telemetryRuntimeProducer);
+        EventsTask eventClient = new EventsTask(eventsStorage, 2000, eventsSender, null, 4, 1024 * 64, 1);
+
+        for (int i = 0; i < 10; ++i) {
+            eventsStorage.track(new Event(), 1024 * 32);
+        }
+        eventClient.sendEvents();
+        // 4 per chunk by count, then 2 per chunk by size
+        Mockito.verify(eventsSender, Mockito.times(5)).sendEvents(Mockito.anyObject());
+    }
+}
@@ -0,0 +1,103 @@
+package io.split.client.impressions;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mockito;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+public class BufferedImpressionsManagerTest {
+
+    private ImpressionsManager _impressionsManager;
+    private List<Impression> _tracked;
+
+    @Before
+    public void setUp() {
+        _impressionsManager = Mockito.mock(ImpressionsManager.class);
+        _tracked = Collections.synchronizedList(new ArrayList<>());
+        Mockito.doAnswer(invocation -> {
+            _tracked.addAll((List<Impression>) invocation.getArguments()[0]);
+            return null;
+        }).when(_impressionsManager).track(Mockito.anyList());
+    }
+
+    @Test
+    public void testBatchIsHandedOverWhenFull() {
+        BufferedImpressionsManager buffered = new BufferedImpressionsManager(_impressionsManager, 3, 60000, null);
+        buffered.track(Collections.singletonList(impression("key-1")));
+        buffered.track(Collections.singletonList(impression("key-2")));
+        Mockito.verify(_impressionsManager, Mockito.never()).track(Mockito.anyList());
+
+        buffered.track(Collections.singletonList(impression("key-3")));
+        ArgumentCaptor<List> batch = ArgumentCaptor.forClass(List.class);
+        Mockito.verify(_impressionsManager, Mockito.times(1)).track(batch.capture());
+        Assert.assertEquals(3, batch.getValue().size());
+        Assert.assertEquals("key-1", ((Impression) batch.getValue().get(0)).key());
+    }
+
+    @Test
+    public void testFlushHandsOverPartialBatches() {
+        BufferedImpressionsManager buffered = new BufferedImpressionsManager(_impressionsManager, 100, 60000, null);
+        buffered.track(Collections.singletonList(impression("key-1")));
+        buffered.flush();
+        Mockito.verify(_impressionsManager, Mockito.times(1)).track(Mockito.anyList());
+
+        buffered.flush();
+        Mockito.verify(_impressionsManager, Mockito.times(1)).track(Mockito.anyList());
+    }
+
+    @Test
+    public void testCloseFlushesBeforeClosingManager() throws Exception {
+        BufferedImpressionsManager buffered = new BufferedImpressionsManager(_impressionsManager, 100, 60000, null);
+        buffered.start();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < 1000; i++) {
+            String key = "key-" + i;
+            executor.submit(() -> buffered.track(Collections.singletonList(impression(key))));
+        }
+        executor.shutdown();
+        Assert.assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        buffered.close();
+
+        Assert.assertEquals(1000, _tracked.size());
+        InOrder inOrder = Mockito.inOrder(_impressionsManager);
+        inOrder.verify(_impressionsManager).start();
+        inOrder.verify(_impressionsManager, Mockito.atLeastOnce()).track(Mockito.anyList());
+        inOrder.verify(_impressionsManager).close();
+    }
+
+    @Test
+    public void testCloseWaitsForARunningFlush() throws Exception {
+        CountDownLatch flushing = new CountDownLatch(1);
+        List<String> calls = Collections.synchronizedList(new ArrayList<>());
+        Mockito.doAnswer(invocation -> {
+            flushing.countDown();
+            Thread.sleep(200);
+            calls.add("track");
+            return null;
+        }).when(_impressionsManager).track(Mockito.anyList());
+        Mockito.doAnswer(invocation -> calls.add("close")).when(_impressionsManager).close();
+
+        BufferedImpressionsManager buffered = new BufferedImpressionsManager(_impressionsManager, 100, 10, null);
+        buffered.track(Collections.singletonList(impression("key-1")));
+        buffered.start();
+        Assert.assertTrue(flushing.await(5, TimeUnit.SECONDS));
+        buffered.close();
+
+        Assert.assertEquals(Arrays.asList("track", "close"), calls);
+    }
+
+    private static Impression impression(String key) {
+        return new Impression(key, null, "feature", "on", System.currentTimeMillis(), "label", 1L, null);
+    }
+}
@@ -6,6 +6,9 @@ import io.split.TestHelper;
 import io.split.client.dtos.ImpressionCount;
 import io.split.client.dtos.KeyImpression;
 import io.split.client.dtos.TestImpressions;
+import io.split.client.utils.Json;
+import io.split.service.PostResult;
+import io.split.storages.spool.DiskSpool;
 import io.split.telemetry.storage.InMemoryTelemetryStorage;
 import io.split.telemetry.storage.TelemetryStorage;
 import org.apache.hc.client5.http.classic.methods.HttpPost;
@@ -164,4 +167,31 @@ public class HttpImpressionsSenderTest {
         assertThat(request.getHeaders().length, is(1));
         assertThat(request.getFirstHeader("SplitSDKImpressionsMode").getValue(), is(equalTo("DEBUG")));
     }
+
+    @Test
+    public void testFailedBulkIsSpooled() throws Exception {
+        URI rootTarget = URI.create("https://kubernetesturl.com/split");
+        DiskSpool spool = Mockito.mock(DiskSpool.class);
+        List<TestImpressions> toSend = Arrays.asList(new TestImpressions("t1", Arrays.asList(
+                KeyImpression.fromImpression(new Impression("k1", null, "t1", "on", 123L, "r1", 456L, null)))));
+
+        CloseableHttpClient failingClient = TestHelper.mockHttpClient("", HttpStatus.SC_SERVICE_UNAVAILABLE);
+        HttpImpressionsSender sender = HttpImpressionsSender.create(failingClient, rootTarget, ImpressionsManager.Mode.DEBUG, TELEMETRY_STORAGE,
+                false, spool);
+        sender.postImpressionsBulk(toSend);
+        verify(spool).append(Json.toJson(toSend));
+
+        CloseableHttpClient httpClient = TestHelper.mockHttpClient("", HttpStatus.SC_OK);
+        sender = HttpImpressionsSender.create(httpClient, rootTarget, ImpressionsManager.Mode.DEBUG, TELEMETRY_STORAGE, false, spool);
+        Assert.assertEquals(PostResult.ACCEPTED, sender.sendImpressionsBulk(toSend));
+        sender.postImpressionsBulk(toSend);
+        Mockito.verify(spool, Mockito.times(1)).append(Mockito.anyString());
+
+        // a bulk the server rejects would be rejected again, so it is not spooled
+        CloseableHttpClient rejectingClient = TestHelper.mockHttpClient("", HttpStatus.SC_REQUEST_TOO_LONG);
+        sender = HttpImpressionsSender.create(rejectingClient, rootTarget, ImpressionsManager.Mode.DEBUG, TELEMETRY_STORAGE, false, spool);
+        Assert.assertEquals(PostResult.REJECTED, sender.sendImpressionsBulk(toSend));
+        sender.postImpressionsBulk(toSend);
+        Mockito.verify(spool, Mockito.times(1)).append(Mockito.anyString());
+    }
 }
@@ -5,11 +5,15 @@ import org.junit.Test;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static org.hamcrest.CoreMatchers.both;
 import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.greaterThan;
 import static org.hamcrest.Matchers.lessThan;
@@ -70,6 +74,67 @@ public class ImpressionCounterTest {
         assertThat(counter.popAll().size(), is(equalTo(0)));
     }
 
+    @Test
+    public void testIsEmptyAndIdleHours() {
+        final ImpressionCounter counter = new ImpressionCounter();
+        final long timestamp = makeTimestamp(2020, 9, 2, 10, 10, 12);
+        final long nextHourTimestamp = makeTimestamp(2020, 9, 2, 11, 10, 12);
+        assertThat(counter.isEmpty(), is(true));
+
+        counter.inc("feature1", timestamp, 1);
+        counter.inc("feature1", nextHourTimestamp, 1);
+        assertThat(counter.isEmpty(), is(false));
+        assertThat(counter.popAll().size(), is(equalTo(2)));
+        assertThat(counter.isEmpty(), is(true));
+
+        // the idle past hour is dropped on this pop, late impressions for it are still counted afterwards
+        assertThat(counter.popAll().size(), is(equalTo(0)));
+        counter.inc("feature1", timestamp, 5);
+        Map<ImpressionCounter.Key, Integer> counted = counter.popAll();
+        assertThat(counted.size(), is(equalTo(1)));
+        assertThat(counted.get(new ImpressionCounter.Key("feature1", ImpressionUtils.truncateTimeframe(timestamp))), is(equalTo(5)));
+    }
+
+    @Test
+    public void testIdleHoursDroppedByOverlappingPopsKeepEveryCount() throws InterruptedException {
+        final int iterations = 200000;
+        final long timestamp = makeTimestamp(2020, 9, 2, 10, 10, 12);
+        final long nextHourTimestamp = makeTimestamp(2020, 9, 2, 11, 10, 12);
+        ImpressionCounter counter = new ImpressionCounter();
+        AtomicBoolean done = new AtomicBoolean();
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        List<Map<ImpressionCounter.Key, Integer>> pops = Collections.synchronizedList(new ArrayList<>());
+        List<Thread> poppers = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            Thread popper = new Thread(() -> {
+                while (!done.get()) {
+                    pops.add(counter.popAll());
+                }
+            });
+            popper.setUncaughtExceptionHandler((thread, e) -> failure.set(e));
+            poppers.add(popper);
+        }
+        poppers.forEach(Thread::start);
+        for (int i = 0; i < iterations; i++) {
+            counter.inc("feature1", nextHourTimestamp, 1);
+            // the past hour stays idle long enough to be dropped, and is counted again right after
+            if (i % 100 == 0) {
+                counter.inc("feature1", timestamp, 1);
+            }
+        }
+        done.set(true);
+        for (Thread popper : poppers) {
+            popper.join();
+        }
+        pops.add(counter.popAll());
+
+        assertThat(failure.get(), is(nullValue()));
+        ImpressionCounter.Key pastHour = new ImpressionCounter.Key("feature1", ImpressionUtils.truncateTimeframe(timestamp));
+        ImpressionCounter.Key currentHour = new ImpressionCounter.Key("feature1", ImpressionUtils.truncateTimeframe(nextHourTimestamp));
+        assertThat(pops.stream().mapToInt(pop -> pop.getOrDefault(pastHour, 0)).sum(), is(equalTo(iterations / 100)));
+        assertThat(pops.stream().mapToInt(pop -> pop.getOrDefault(currentHour, 0)).sum(), is(equalTo(iterations)));
+    }
+
     @Test
     public void manyConcurrentCalls() throws InterruptedException {
         final int iterations = 10000000;
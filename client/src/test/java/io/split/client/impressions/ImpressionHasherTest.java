@@ -1,8 +1,11 @@
 package io.split.client.impressions;
 
 import io.split.client.dtos.KeyImpression;
+import io.split.client.utils.MurmurHash3;
 import org.junit.Test;
 
+import java.nio.charset.StandardCharsets;
+
 import static org.hamcrest.Matchers.*;
 import static org.junit.Assert.*;
 
@@ -131,4 +134,30 @@ public class ImpressionHasherTest {
         assertNotNull(ImpressionHasher.process(imp1));
         assertNull(ImpressionHasher.process(null));
     }
+
+    @Test
+    public void matchesFormattedHash() {
+        String[] values = {null, "", "a", "someKey", "fifteen_chars__", "sixteen_chars___", "seventeen_chars__",
+                "ñandú", "日本語のキー", "emoji😀key", "broken\uD800surrogate", "a-much-longer-key-spanning-several-murmur-blocks"};
+        Long[] changeNumbers = {null, 0L, 7L, -42L, 1234567890123L, Long.MAX_VALUE, Long.MIN_VALUE};
+
+        for (String key : values) {
+            for (String other : values) {
+                for (Long changeNumber : changeNumbers) {
+                    Impression impression = new Impression(key, null, other, key, System.currentTimeMillis(), other,
+                            changeNumber, null);
+                    assertEquals(formattedHash(impression), ImpressionHasher.process(impression));
+                }
+            }
+        }
+    }
+
+    private static Long formattedHash(Impression impression) {
+        return MurmurHash3.hash128x64(String.format("%s:%s:%s:%s:%d",
+                impression.key() == null ? "UNKNOWN" : impression.key(),
+                impression.split() == null ? "UNKNOWN" : impression.split(),
+                impression.treatment() == null ? "UNKNOWN" : impression.treatment(),
+                impression.appliedRule() == null ? "UNKNOWN" : impression.appliedRule(),
+                impression.changeNumber() == null ? 0 : impression.changeNumber()).getBytes(StandardCharsets.UTF_8))[0];
+    }
 }
@@ -0,0 +1,71 @@
+package io.split.client.impressions;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class LastSeenTableTest {
+
+    @Test
+    public void testReturnsThePreviousTime() {
+        LastSeenTable table = new LastSeenTable(16);
+        Assert.assertEquals(LastSeenTable.NONE, table.testAndSet(42L, 100L));
+        Assert.assertEquals(100L, table.testAndSet(42L, 200L));
+        Assert.assertEquals(200L, table.testAndSet(42L, 300L));
+        Assert.assertEquals(LastSeenTable.NONE, table.testAndSet(43L, 100L));
+    }
+
+    @Test
+    public void testReservedHashesAreStored() {
+        LastSeenTable table = new LastSeenTable(16);
+        Assert.assertEquals(LastSeenTable.NONE, table.testAndSet(0L, 100L));
+        Assert.assertEquals(100L, table.testAndSet(0L, 200L));
+        // both reserved hashes share the key they are stored under, like any other hash collision
+        Assert.assertEquals(200L, table.testAndSet(Long.MIN_VALUE, 300L));
+        Assert.assertEquals(300L, table.testAndSet(Long.MIN_VALUE, 400L));
+    }
+
+    @Test
+    public void testNewHashEvictsTheEntrySeenLongestAgo() {
+        // a single set of two entries
+        LastSeenTable table = new LastSeenTable(2);
+        table.testAndSet(10L, 100L);
+        table.testAndSet(20L, 300L);
+        table.testAndSet(30L, 200L);
+
+        Assert.assertEquals(300L, table.testAndSet(20L, 400L));
+        Assert.assertEquals(200L, table.testAndSet(30L, 500L));
+        Assert.assertEquals(LastSeenTable.NONE, table.testAndSet(10L, 600L));
+    }
+
+    @Test
+    public void testConcurrentWritersNeverMixHashesAndTimes() throws InterruptedException {
+        LastSeenTable table = new LastSeenTable(64);
+        AtomicInteger mismatches = new AtomicInteger();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            threads.add(new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < 200000; i++) {
+                    long hash = random.nextInt(1000) + 1;
+                    // every time stored for a hash is a multiple of it
+                    long previous = table.testAndSet(hash, hash * random.nextInt(1, 1000));
+                    if (previous != LastSeenTable.NONE && previous % hash != 0) {
+                        mismatches.incrementAndGet();
+                    }
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        Assert.assertEquals(0, mismatches.get());
+    }
+}
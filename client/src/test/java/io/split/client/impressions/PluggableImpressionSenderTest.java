@@ -6,6 +6,7 @@ import org.junit.Test;
 import org.mockito.Mockito;
 import pluggable.CustomStorageWrapper;
 import pluggable.HasPipelineSupport;
+import pluggable.Pipeline;
 
 import java.util.HashMap;
 import java.util.Optional;
@@ -41,4 +42,19 @@ public class PluggableImpressionSenderTest {
         String key = "feature1::100";
         Assert.assertEquals(Optional.of(2L), Optional.of(impressionsCount.get(key)));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testPipelineIsClosedWhenExecFails() throws Exception {
+        CustomStorageWrapper customStorageWrapper = Mockito.mock(CustomStorageWrapper.class, Mockito.withSettings().extraInterfaces(HasPipelineSupport.class));
+        Pipeline pipeline = Mockito.mock(Pipeline.class);
+        Mockito.when(((HasPipelineSupport) customStorageWrapper).pipeline()).thenReturn(pipeline);
+        Mockito.when(pipeline.exec()).thenThrow(new Exception("down"));
+        PluggableImpressionSender redisImpressionSender = PluggableImpressionSender.create(customStorageWrapper);
+
+        HashMap<ImpressionCounter.Key, Integer> counters =  new HashMap<>();
+        counters.put(new ImpressionCounter.Key("feature1", 100), 2);
+        redisImpressionSender.postCounters(counters);
+
+        Mockito.verify(pipeline, Mockito.times(1)).close();
+    }
+}
@@ -0,0 +1,107 @@
+package io.split.client.impressions;
+
+import io.split.client.dtos.KeyImpression;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class RingBufferImpressionsStorageTest {
+
+    @Test
+    public void testBasicUsage() {
+        RingBufferImpressionsStorage storage = new RingBufferImpressionsStorage(10);
+        for (int i = 0; i < 15; i++) {
+            if (i < 10) {
+                assertThat(storage.put(Stream.of(new KeyImpression()).collect(Collectors.toList())), is(1L));
+            } else {
+                assertThat(storage.put(Stream.of(new KeyImpression()).collect(Collectors.toList())), is(0L));
+            }
+        }
+
+        assertThat(storage.isFull(), is(true));
+        List<KeyImpression> res = storage.pop(15);
+        assertThat(res.size(), is(equalTo(10)));
+        assertThat(storage.isFull(), is(false));
+    }
+
+    @Test
+    public void testBatchIsTruncatedToRemainingRoom() {
+        RingBufferImpressionsStorage storage = new RingBufferImpressionsStorage(5);
+        assertThat(storage.put(impressions(0, 3)), is(3L));
+        assertThat(storage.put(Arrays.asList(keyImpression(3), null, keyImpression(4), keyImpression(5))), is(2L));
+
+        List<KeyImpression> popped = storage.pop(2);
+        assertThat(keys(popped), is(equalTo(Arrays.asList("0", "1"))));
+        // wraps around the end of the array
+        assertThat(storage.put(impressions(6, 3)), is(2L));
+        assertThat(keys(storage.pop()), is(equalTo(Arrays.asList("2", "3", "4", "6", "7"))));
+        assertThat(storage.pop().isEmpty(), is(true));
+    }
+
+    @Test
+    public void testConcurrentProducers() throws Exception {
+        RingBufferImpressionsStorage storage = new RingBufferImpressionsStorage(1000);
+        int producers = 16;
+        int perProducer = 5000;
+        ExecutorService executor = Executors.newFixedThreadPool(producers);
+        CountDownLatch done = new CountDownLatch(producers);
+        AtomicLong accepted = new AtomicLong();
+        for (int p = 0; p < producers; p++) {
+            int base = p * perProducer;
+            executor.submit(() -> {
+                for (int i = 0; i < perProducer; i += 5) {
+                    accepted.addAndGet(storage.put(impressions(base + i, 5)));
+                }
+                done.countDown();
+            });
+        }
+
+        Set<String> seen = new HashSet<>();
+        long popped = 0;
+        boolean producing = true;
+        while (producing) {
+            producing = !done.await(1, TimeUnit.MILLISECONDS);
+            for (KeyImpression impression : storage.pop(producing ? 100 : Integer.MAX_VALUE)) {
+                assertThat(seen.add(impression.keyName), is(true));
+                popped++;
+            }
+        }
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+        assertThat(popped, is(equalTo(accepted.get())));
+        assertThat(storage.pop().isEmpty(), is(true));
+    }
+
+    private static List<KeyImpression> impressions(int from, int count) {
+        List<KeyImpression> impressions = new ArrayList<>();
+        for (int i = from; i < from + count; i++) {
+            impressions.add(keyImpression(i));
+        }
+        return impressions;
+    }
+
+    private static KeyImpression keyImpression(int key) {
+        KeyImpression impression = new KeyImpression();
+        impression.keyName = String.valueOf(key);
+        return impression;
+    }
+
+    private static List<String> keys(List<KeyImpression> impressions) {
+        return impressions.stream().map(i -> i.keyName).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,83 @@
+package io.split.client.utils;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ChunkedPosterTest {
+
+    @Test
+    public void testWithoutLimitsPostsEverythingAtOnce() {
+        List<List<Integer>> posts = new ArrayList<>();
+        ChunkedPoster<Integer> poster = new ChunkedPoster<>(0, 0, 1, i -> 1L, posts::add, null, "test-%d");
+        ConcurrentLinkedQueue<Integer> queue = queue(10);
+
+        poster.flush(() -> pop(queue, Integer.MAX_VALUE), count -> {
+            throw new IllegalStateException("should pop everything at once");
+        });
+        Assert.assertEquals(1, posts.size());
+        Assert.assertEquals(10, posts.get(0).size());
+    }
+
+    @Test
+    public void testChunksByItemsAndBytes() {
+        List<List<Integer>> posts = new ArrayList<>();
+        ChunkedPoster<Integer> poster = new ChunkedPoster<>(4, 25, 1, i -> 10L, posts::add, null, "test-%d");
+        ConcurrentLinkedQueue<Integer> queue = queue(8);
+
+        poster.flush(() -> pop(queue, Integer.MAX_VALUE), count -> pop(queue, count));
+        Assert.assertEquals(Arrays.asList(Arrays.asList(0, 1), Arrays.asList(2, 3), Arrays.asList(4, 5), Arrays.asList(6, 7)), posts);
+        Assert.assertTrue(queue.isEmpty());
+
+        posts.clear();
+        poster.flush(() -> pop(queue, Integer.MAX_VALUE), count -> pop(queue, count));
+        Assert.assertTrue(posts.isEmpty());
+    }
+
+    @Test
+    public void testInFlightPostsAreBounded() {
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        List<Integer> posted = Collections.synchronizedList(new ArrayList<>());
+        ChunkedPoster<Integer> poster = new ChunkedPoster<>(5, 0, 3, i -> 1L, chunk -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            posted.addAll(chunk);
+            inFlight.decrementAndGet();
+        }, null, "test-%d");
+        ConcurrentLinkedQueue<Integer> queue = queue(100);
+
+        poster.flush(() -> pop(queue, Integer.MAX_VALUE), count -> pop(queue, count));
+        poster.close();
+        Assert.assertEquals(100, posted.size());
+        Assert.assertTrue(maxInFlight.get() <= 3);
+        Assert.assertTrue(maxInFlight.get() > 1);
+    }
+
+    private static ConcurrentLinkedQueue<Integer> queue(int size) {
+        ConcurrentLinkedQueue<Integer> queue = new ConcurrentLinkedQueue<>();
+        for (int i = 0; i < size; i++) {
+            queue.add(i);
+        }
+        return queue;
+    }
+
+    private static List<Integer> pop(ConcurrentLinkedQueue<Integer> queue, int count) {
+        List<Integer> popped = new ArrayList<>();
+        Integer item;
+        while (popped.size() < count && (item = queue.poll()) != null) {
+            popped.add(item);
+        }
+        return popped;
+    }
+}
@@ -0,0 +1,72 @@
+package io.split.client.utils;
+
+import io.split.client.dtos.KeyImpression;
+import io.split.client.dtos.TestImpressions;
+import org.apache.hc.core5.http.ContentType;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+public class JsonStreamEntityTest {
+
+    @Test
+    public void testWritesSameJsonAsString() throws IOException {
+        List<TestImpressions> impressions = impressions();
+        JsonStreamEntity entity = new JsonStreamEntity(impressions, false);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        entity.writeTo(out);
+        Assert.assertEquals(Json.toJson(impressions), new String(out.toByteArray(), StandardCharsets.UTF_8));
+        Assert.assertEquals(ContentType.APPLICATION_JSON.toString(), entity.getContentType());
+        Assert.assertNull(entity.getContentEncoding());
+        Assert.assertTrue(entity.isChunked());
+        // repeatable, so a retried request sends the same body
+        Assert.assertEquals(Json.toJson(impressions), read(entity.getContent()));
+    }
+
+    @Test
+    public void testGzip() throws IOException {
+        List<TestImpressions> impressions = impressions();
+        JsonStreamEntity entity = new JsonStreamEntity(impressions, true);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        entity.writeTo(out);
+        Assert.assertEquals("gzip", entity.getContentEncoding());
+        Assert.assertTrue(out.size() < Json.toJson(impressions).length());
+        Assert.assertEquals(Json.toJson(impressions), read(new GZIPInputStream(new ByteArrayInputStream(out.toByteArray()))));
+    }
+
+    private static List<TestImpressions> impressions() {
+        List<KeyImpression> keyImpressions = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            KeyImpression impression = new KeyImpression();
+            impression.keyName = "key-" + i;
+            impression.feature = "feature";
+            impression.treatment = "on";
+            impression.label = "ñandú";
+            impression.time = 1700000000000L + i;
+            impression.changeNumber = 1L;
+            keyImpressions.add(impression);
+        }
+        return Collections.singletonList(new TestImpressions("feature", keyImpressions));
+    }
+
+    private static String read(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[4096];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+        }
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+}
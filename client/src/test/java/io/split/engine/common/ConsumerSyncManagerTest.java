@@ -11,8 +11,10 @@ public class ConsumerSyncManagerTest {
         Synchronizer redisSynchronizer = Mockito.mock(ConsumerSynchronizer.class);
         ConsumerSyncManager imp = new ConsumerSyncManager(redisSynchronizer);
         imp.start();
+        Mockito.verify(redisSynchronizer, Mockito.times(1)).startPeriodicFetching();
         Mockito.verify(redisSynchronizer, Mockito.times(1)).startPeriodicDataRecording();
         imp.shutdown();
+        Mockito.verify(redisSynchronizer, Mockito.times(1)).stopPeriodicFetching();
         Mockito.verify(redisSynchronizer, Mockito.times(1)).stopPeriodicDataRecording();
     }
 }
\ No newline at end of file
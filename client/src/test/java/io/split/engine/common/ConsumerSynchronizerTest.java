@@ -2,8 +2,14 @@ package io.split.engine.common;
 
 import io.split.client.impressions.ImpressionsManager;
 import io.split.client.impressions.UniqueKeysTracker;
+import io.split.storages.pluggable.adapters.AsyncEventAdapterProducer;
+import io.split.storages.pluggable.adapters.AsyncImpressionAdapterProducer;
+import io.split.storages.pluggable.adapters.CachedSegmentAdapterConsumer;
+import io.split.storages.pluggable.adapters.CachedSplitAdapterConsumer;
+import io.split.storages.pluggable.adapters.UserCustomTelemetryAdapterProducer;
 import io.split.telemetry.synchronizer.TelemetrySyncTask;
 import org.junit.Test;
+import org.mockito.InOrder;
 import org.mockito.Mockito;
 
 public class ConsumerSynchronizerTest {
@@ -14,7 +20,7 @@ public class ConsumerSynchronizerTest {
         UniqueKeysTracker uniqueKeysTracker = Mockito.mock(UniqueKeysTracker.class);
         TelemetrySyncTask telemetrySyncTask = Mockito.mock(TelemetrySyncTask.class);
         SplitTasks splitTasks = SplitTasks.build(null, null, impressionsManager, null, telemetrySyncTask, uniqueKeysTracker);
-        Synchronizer imp = new ConsumerSynchronizer(splitTasks);
+        Synchronizer imp = new ConsumerSynchronizer(splitTasks, null, null, null, null, null, null);
         imp.startPeriodicDataRecording();
 
         Mockito.verify(impressionsManager, Mockito.times(1)).start();
@@ -27,4 +33,51 @@ public class ConsumerSynchronizerTest {
         Mockito.verify(uniqueKeysTracker, Mockito.times(1)).stop();
         Mockito.verify(telemetrySyncTask, Mockito.times(1)).stopScheduledTask();
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testPeriodicFetchingRefreshesLocalCaches() {
+        CachedSplitAdapterConsumer cachedSplitAdapterConsumer = Mockito.mock(CachedSplitAdapterConsumer.class);
+        CachedSegmentAdapterConsumer cachedSegmentAdapterConsumer = Mockito.mock(CachedSegmentAdapterConsumer.class);
+        SplitTasks splitTasks = SplitTasks.build(null, null, null, null, null, null);
+        Synchronizer imp = new ConsumerSynchronizer(splitTasks, cachedSplitAdapterConsumer, cachedSegmentAdapterConsumer, null, null, null, null);
+        imp.startPeriodicFetching();
+        Mockito.verify(cachedSplitAdapterConsumer, Mockito.times(1)).start();
+        Mockito.verify(cachedSegmentAdapterConsumer, Mockito.times(1)).start();
+
+        imp.stopPeriodicFetching();
+        Mockito.verify(cachedSplitAdapterConsumer, Mockito.times(1)).stop();
+        Mockito.verify(cachedSegmentAdapterConsumer, Mockito.times(1)).stop();
+    }
+
+    @Test
+    public void testDataRecordingFlushesConsumerTelemetry() {
+        UserCustomTelemetryAdapterProducer telemetryAdapterProducer = Mockito.mock(UserCustomTelemetryAdapterProducer.class);
+        SplitTasks splitTasks = SplitTasks.build(null, null, Mockito.mock(ImpressionsManager.class), null,
+                Mockito.mock(TelemetrySyncTask.class), Mockito.mock(UniqueKeysTracker.class));
+        Synchronizer imp = new ConsumerSynchronizer(splitTasks, null, null, telemetryAdapterProducer, null, null, null);
+        imp.startPeriodicDataRecording();
+        Mockito.verify(telemetryAdapterProducer, Mockito.times(1)).start();
+
+        imp.stopPeriodicDataRecording();
+        Mockito.verify(telemetryAdapterProducer, Mockito.times(1)).stop();
+    }
+
+    @Test
+    public void testDataRecordingStartsAndDrainsWriters() {
+        AsyncImpressionAdapterProducer impressionAdapterProducer = Mockito.mock(AsyncImpressionAdapterProducer.class);
+        AsyncEventAdapterProducer eventAdapterProducer = Mockito.mock(AsyncEventAdapterProducer.class);
+        ImpressionsManager impressionsManager = Mockito.mock(ImpressionsManager.class);
+        SplitTasks splitTasks = SplitTasks.build(null, null, impressionsManager, null,
+                Mockito.mock(TelemetrySyncTask.class), Mockito.mock(UniqueKeysTracker.class));
+        Synchronizer imp = new ConsumerSynchronizer(splitTasks, null, null, null, impressionAdapterProducer, eventAdapterProducer, null);
+        imp.startPeriodicDataRecording();
+        Mockito.verify(impressionAdapterProducer, Mockito.times(1)).start();
+        Mockito.verify(eventAdapterProducer, Mockito.times(1)).start();
+
+        imp.stopPeriodicDataRecording();
+        InOrder inOrder = Mockito.inOrder(impressionsManager, impressionAdapterProducer);
+        inOrder.verify(impressionsManager).close();
+        inOrder.verify(impressionAdapterProducer).stop();
+        Mockito.verify(eventAdapterProducer, Mockito.times(1)).stop();
+    }
+}
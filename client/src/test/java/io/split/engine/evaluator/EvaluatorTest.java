@@ -4,7 +4,11 @@ import io.split.client.dtos.ConditionType;
 import io.split.client.dtos.Partition;
 import io.split.engine.experiments.ParsedCondition;
 import io.split.engine.experiments.ParsedSplit;
+import io.split.engine.matchers.AllKeysMatcher;
 import io.split.engine.matchers.CombiningMatcher;
+import io.split.engine.matchers.DependencyMatcher;
+import io.split.engine.matchers.UserDefinedSegmentMatcher;
+import io.split.engine.splitter.Splitter;
 import io.split.storages.SegmentCacheConsumer;
 import io.split.storages.SplitCacheConsumer;
 import org.junit.Before;
@@ -12,11 +16,15 @@ import org.junit.Test;
 import org.mockito.Mockito;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
 
 public class EvaluatorTest {
     private static final String MATCHING_KEY = "test";
@@ -146,4 +154,136 @@ public class EvaluatorTest {
         assertEquals("test whitelist label", result.label);
         assertEquals(CHANGE_NUMBER, result.changeNumber);
     }
+
+    @Test
+    public void evaluateWithMultiplePartitionsMatchesSplitter() {
+        Partition on = new Partition();
+        on.treatment = "on";
+        on.size = 30;
+        Partition off = new Partition();
+        off.treatment = "off";
+        off.size = 70;
+        _partitions.add(on);
+        _partitions.add(off);
+        _configurations.put("on", "{\"color\":\"blue\"}");
+        _conditions.add(new ParsedCondition(ConditionType.ROLLOUT, CombiningMatcher.of(new AllKeysMatcher()), _partitions, TEST_LABEL_VALUE));
+
+        ParsedSplit split = new ParsedSplit(SPLIT_NAME, 0, false, DEFAULT_TREATMENT_VALUE, _conditions, TRAFFIC_TYPE_VALUE, CHANGE_NUMBER, 100, 0, 2, _configurations);
+        Mockito.when(_splitCacheConsumer.get(SPLIT_NAME)).thenReturn(split);
+
+        for (int i = 0; i < 200; i++) {
+            String key = "key" + i;
+            EvaluatorImp.TreatmentLabelAndChangeNumber result = _evaluator.evaluateFeature(key, null, SPLIT_NAME, null);
+
+            assertEquals(Splitter.getTreatment(key, 0, _partitions, 2), result.treatment);
+            assertEquals(TEST_LABEL_VALUE, result.label);
+            assertEquals(_configurations.get(result.treatment), result.configurations);
+        }
+    }
+
+    @Test
+    public void evaluateWithSingleEffectivePartitionReturnsConstantTreatment() {
+        Partition on = new Partition();
+        on.treatment = "on";
+        on.size = 0;
+        Partition off = new Partition();
+        off.treatment = "off";
+        off.size = 100;
+        _partitions.add(on);
+        _partitions.add(off);
+        ParsedCondition condition = new ParsedCondition(ConditionType.ROLLOUT, CombiningMatcher.of(new AllKeysMatcher()), _partitions, TEST_LABEL_VALUE);
+        _conditions.add(condition);
+
+        ParsedSplit split = new ParsedSplit(SPLIT_NAME, 0, false, DEFAULT_TREATMENT_VALUE, _conditions, TRAFFIC_TYPE_VALUE, CHANGE_NUMBER, 100, 0, 2, _configurations);
+        Mockito.when(_splitCacheConsumer.get(SPLIT_NAME)).thenReturn(split);
+
+        EvaluatorImp.TreatmentLabelAndChangeNumber result = _evaluator.evaluateFeature(MATCHING_KEY, BUCKETING_KEY, SPLIT_NAME, null);
+
+        assertEquals("off", condition.constantTreatment());
+        assertEquals("off", result.treatment);
+        assertEquals(TEST_LABEL_VALUE, result.label);
+    }
+
+    @Test
+    public void evaluateKeyIndependentOutcomesReuseResults() {
+        Partition partition = new Partition();
+        partition.treatment = TREATMENT_VALUE;
+        partition.size = 100;
+        _partitions.add(partition);
+        _conditions.add(new ParsedCondition(ConditionType.ROLLOUT, CombiningMatcher.of(new AllKeysMatcher()), _partitions, TEST_LABEL_VALUE));
+        ParsedSplit split = new ParsedSplit(SPLIT_NAME, 0, false, DEFAULT_TREATMENT_VALUE, _conditions, TRAFFIC_TYPE_VALUE, CHANGE_NUMBER, 100, 0, 2, _configurations);
+        ParsedSplit killed = ParsedSplit.createParsedSplitForTests(SPLIT_NAME, 0, true, DEFAULT_TREATMENT_VALUE, _conditions, TRAFFIC_TYPE_VALUE, CHANGE_NUMBER, 2);
+
+        Mockito.when(_splitCacheConsumer.get(SPLIT_NAME)).thenReturn(split);
+        EvaluatorImp.TreatmentLabelAndChangeNumber first = _evaluator.evaluateFeature("key1", null, SPLIT_NAME, null);
+        EvaluatorImp.TreatmentLabelAndChangeNumber second = _evaluator.evaluateFeature("key2", null, SPLIT_NAME, null);
+        assertEquals(TREATMENT_VALUE, first.treatment);
+        assertSame(first, second);
+
+        Mockito.when(_splitCacheConsumer.get(SPLIT_NAME)).thenReturn(killed);
+        assertSame(_evaluator.evaluateFeature("key1", null, SPLIT_NAME, null), _evaluator.evaluateFeature("key2", null, SPLIT_NAME, null));
+    }
+
+    @Test
+    public void evaluateFeaturesChecksEachSegmentAndDependencyOnce() {
+        Partition partition = new Partition();
+        partition.treatment = TREATMENT_VALUE;
+        partition.size = 100;
+        _partitions.add(partition);
+        List<ParsedCondition> segmentConditions = new ArrayList<>();
+        segmentConditions.add(new ParsedCondition(ConditionType.ROLLOUT, CombiningMatcher.of(new UserDefinedSegmentMatcher("segment")), _partitions, TEST_LABEL_VALUE));
+        List<ParsedCondition> dependencyConditions = new ArrayList<>();
+        dependencyConditions.add(new ParsedCondition(ConditionType.ROLLOUT, CombiningMatcher.of(new DependencyMatcher("split1",
+                Collections.singletonList(TREATMENT_VALUE))), _partitions, TEST_LABEL_VALUE));
+
+        Map<String, ParsedSplit> splits = new HashMap<>();
+        splits.put("split1", new ParsedSplit("split1", 0, false, DEFAULT_TREATMENT_VALUE, segmentConditions, TRAFFIC_TYPE_VALUE, CHANGE_NUMBER, 100, 0, 2, _configurations));
+        splits.put("split2", new ParsedSplit("split2", 0, false, DEFAULT_TREATMENT_VALUE, segmentConditions, TRAFFIC_TYPE_VALUE, CHANGE_NUMBER, 100, 0, 2, _configurations));
+        splits.put("split3", new ParsedSplit("split3", 0, false, DEFAULT_TREATMENT_VALUE, dependencyConditions, TRAFFIC_TYPE_VALUE, CHANGE_NUMBER, 100, 0, 2, _configurations));
+        splits.put("split4", new ParsedSplit("split4", 0, false, DEFAULT_TREATMENT_VALUE, dependencyConditions, TRAFFIC_TYPE_VALUE, CHANGE_NUMBER, 100, 0, 2, _configurations));
+        List<String> names = Arrays.asList("split1", "split2", "split3", "split4");
+        Mockito.when(_splitCacheConsumer.fetchMany(names)).thenReturn(splits);
+        Mockito.when(_splitCacheConsumer.get("split1")).thenReturn(splits.get("split1"));
+        Mockito.when(_segmentCacheConsumer.isInSegment("segment", MATCHING_KEY)).thenReturn(true);
+
+        Map<String, EvaluatorImp.TreatmentLabelAndChangeNumber> results = _evaluator.evaluateFeatures(MATCHING_KEY, BUCKETING_KEY, names, null);
+
+        for (String name : names) {
+            assertEquals(TREATMENT_VALUE, results.get(name).treatment);
+        }
+        Mockito.verify(_segmentCacheConsumer, Mockito.times(1)).isInSegment("segment", MATCHING_KEY);
+        Mockito.verify(_splitCacheConsumer, Mockito.times(1)).get("split1");
+
+        // separate calls do not share memberships, so changes to the segment are seen right away
+        _evaluator.evaluateFeatures(MATCHING_KEY, BUCKETING_KEY, names, null);
+        Mockito.verify(_segmentCacheConsumer, Mockito.times(2)).isInSegment("segment", MATCHING_KEY);
+    }
+
+    @Test
+    public void evaluateFeaturesResolvesSegmentsInOneBatch() {
+        Partition partition = new Partition();
+        partition.treatment = TREATMENT_VALUE;
+        partition.size = 100;
+        _partitions.add(partition);
+        _conditions.add(new ParsedCondition(ConditionType.ROLLOUT, CombiningMatcher.of(new UserDefinedSegmentMatcher("segment1")), _partitions, TEST_LABEL_VALUE));
+        _conditions.add(new ParsedCondition(ConditionType.ROLLOUT, CombiningMatcher.of(new UserDefinedSegmentMatcher("segment2")), _partitions, "other label"));
+
+        Map<String, ParsedSplit> splits = new HashMap<>();
+        splits.put(SPLIT_NAME, new ParsedSplit(SPLIT_NAME, 0, false, DEFAULT_TREATMENT_VALUE, _conditions, TRAFFIC_TYPE_VALUE, CHANGE_NUMBER, 100, 0, 2, _configurations));
+        List<String> names = Arrays.asList(SPLIT_NAME, "missing");
+        Mockito.when(_splitCacheConsumer.fetchMany(names)).thenReturn(splits);
+        Map<String, Boolean> memberships = new HashMap<>();
+        memberships.put("segment1", false);
+        memberships.put("segment2", true);
+        Mockito.when(_segmentCacheConsumer.isInSegments(Mockito.anySetOf(String.class), Mockito.eq(MATCHING_KEY))).thenReturn(memberships);
+
+        Evaluator evaluator = new EvaluatorImp(_splitCacheConsumer, _segmentCacheConsumer, 0, true);
+        Map<String, EvaluatorImp.TreatmentLabelAndChangeNumber> results = evaluator.evaluateFeatures(MATCHING_KEY, BUCKETING_KEY, names, null);
+
+        assertEquals(TREATMENT_VALUE, results.get(SPLIT_NAME).treatment);
+        assertEquals("other label", results.get(SPLIT_NAME).label);
+        assertEquals("control", results.get("missing").treatment);
+        Mockito.verify(_segmentCacheConsumer, Mockito.times(1)).isInSegments(new HashSet<>(Arrays.asList("segment1", "segment2")), MATCHING_KEY);
+        Mockito.verify(_segmentCacheConsumer, Mockito.never()).isInSegment(Mockito.anyString(), Mockito.anyString());
+    }
 }
@@ -0,0 +1,18 @@
+package io.split.engine.segments;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class SegmentKeysTest {
+
+    @Test
+    public void testIndexCapacityKeepsLoadFactorAtMostTwoThirds() {
+        for (int keys = 0; keys < 10000; keys++) {
+            int capacity = SegmentKeys.indexCapacity(keys);
+            Assert.assertEquals(1, Integer.bitCount(capacity));
+            Assert.assertTrue("keys " + keys + " capacity " + capacity, 3L * keys <= 2L * capacity);
+        }
+        Assert.assertEquals(8, SegmentKeys.indexCapacity(3));
+        Assert.assertEquals(32, SegmentKeys.indexCapacity(11));
+    }
+}
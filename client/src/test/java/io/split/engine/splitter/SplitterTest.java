@@ -135,6 +135,32 @@ public class SplitterTest {
         assertThat(Splitter.getTreatment("13", 15, partitions, 1), is(equalTo("on")));
     }
 
+    @Test
+    public void bucketTreatmentsMatchPartitions() {
+        List<Partition> partitions = Lists.newArrayList(partition("a", 10), partition("b", 25), partition("c", 50));
+
+        String[] treatments = Splitter.bucketTreatments(partitions);
+
+        assertThat(treatments.length, is(equalTo(100)));
+        assertThat(treatments[0], is(equalTo("a")));
+        assertThat(treatments[9], is(equalTo("a")));
+        assertThat(treatments[10], is(equalTo("b")));
+        assertThat(treatments[34], is(equalTo("b")));
+        assertThat(treatments[35], is(equalTo("c")));
+        assertThat(treatments[84], is(equalTo("c")));
+        assertThat(treatments[85], is(equalTo("control")));
+        assertThat(treatments[99], is(equalTo("control")));
+    }
+
+    @Test
+    public void bucketTreatmentsWithoutPartitionsAreControl() {
+        String[] treatments = Splitter.bucketTreatments(Lists.newArrayList());
+
+        for (String treatment : treatments) {
+            assertThat(treatment, is(equalTo("control")));
+        }
+    }
+
     private Partition partition(String treatment, int size) {
         Partition p = new Partition();
         p.treatment = treatment;
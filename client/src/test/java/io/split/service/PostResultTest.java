@@ -0,0 +1,19 @@
+package io.split.service;
+
+import org.apache.hc.core5.http.HttpStatus;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class PostResultTest {
+
+    @Test
+    public void testPermanentClientErrorsAreRejected() {
+        Assert.assertEquals(PostResult.ACCEPTED, PostResult.fromStatus(HttpStatus.SC_OK));
+        Assert.assertEquals(PostResult.REJECTED, PostResult.fromStatus(HttpStatus.SC_BAD_REQUEST));
+        Assert.assertEquals(PostResult.REJECTED, PostResult.fromStatus(HttpStatus.SC_REQUEST_TOO_LONG));
+        Assert.assertEquals(PostResult.RETRIABLE, PostResult.fromStatus(HttpStatus.SC_REQUEST_TIMEOUT));
+        Assert.assertEquals(PostResult.RETRIABLE, PostResult.fromStatus(HttpStatus.SC_TOO_MANY_REQUESTS));
+        Assert.assertEquals(PostResult.RETRIABLE, PostResult.fromStatus(HttpStatus.SC_INTERNAL_SERVER_ERROR));
+        Assert.assertEquals(PostResult.RETRIABLE, PostResult.fromStatus(HttpStatus.SC_SERVICE_UNAVAILABLE));
+    }
+}
@@ -0,0 +1,100 @@
+package io.split.storages.memory;
+
+import junit.framework.TestCase;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+public class SegmentCacheCompactImplTest extends TestCase {
+    private static final String SEGMENT_NAME = "TestSegment";
+    private static final String FAKE_SEGMENT_NAME = "FakeSegment";
+    private static final long CHANGE_NUMBER = 123L;
+    private static final String KEY = "KEYTEST";
+    private static final long DEFAULT_CHANGE_NUMBER = -1L;
+
+    @Test
+    public void testUpdateSegment(){
+        SegmentCacheCompactImpl segmentCache = new SegmentCacheCompactImpl();
+        segmentCache.updateSegment(SEGMENT_NAME,new ArrayList<>(), new ArrayList<>(), 1L);
+
+        assertEquals(1L, segmentCache.getChangeNumber(SEGMENT_NAME));
+    }
+
+    @Test
+    public void testIsInSegment() {
+        SegmentCacheCompactImpl segmentCache = new SegmentCacheCompactImpl();
+        segmentCache.updateSegment(SEGMENT_NAME, Stream.of(KEY).collect(Collectors.toList()), new ArrayList<>(), 1L);
+        assertTrue(segmentCache.isInSegment(SEGMENT_NAME, KEY));
+        assertFalse(segmentCache.isInSegment(SEGMENT_NAME, KEY + "X"));
+        assertFalse(segmentCache.isInSegment(FAKE_SEGMENT_NAME, KEY));
+    }
+
+    @Test
+    public void testNonAsciiKeys() {
+        List<String> keys = Arrays.asList("ñandú", "日本語", "emoji😀", "broken\uD800", "");
+        SegmentCacheCompactImpl segmentCache = new SegmentCacheCompactImpl();
+        segmentCache.updateSegment(SEGMENT_NAME, keys, new ArrayList<>(), 1L);
+
+        for (String key : keys) {
+            assertTrue(key, segmentCache.isInSegment(SEGMENT_NAME, key));
+        }
+        assertFalse(segmentCache.isInSegment(SEGMENT_NAME, "nandu"));
+        assertFalse(segmentCache.isInSegment(SEGMENT_NAME, "日本"));
+        assertFalse(segmentCache.isInSegment(SEGMENT_NAME, "emoji"));
+    }
+
+    @Test
+    public void testAddAndRemoveAcrossUpdates() {
+        List<String> keys = IntStream.range(0, 1000).mapToObj(i -> "key_" + i).collect(Collectors.toList());
+        SegmentCacheCompactImpl segmentCache = new SegmentCacheCompactImpl();
+        segmentCache.updateSegment(SEGMENT_NAME, keys, new ArrayList<>(), 1L);
+        assertEquals(1000L, segmentCache.getKeyCount());
+
+        List<String> removed = keys.subList(0, 500);
+        segmentCache.updateSegment(SEGMENT_NAME, Arrays.asList("key_10", "new_key", "new_key"), removed, 2L);
+
+        assertEquals(502L, segmentCache.getKeyCount());
+        assertEquals(2L, segmentCache.getChangeNumber(SEGMENT_NAME));
+        assertTrue(segmentCache.isInSegment(SEGMENT_NAME, "key_10"));
+        assertTrue(segmentCache.isInSegment(SEGMENT_NAME, "new_key"));
+        assertFalse(segmentCache.isInSegment(SEGMENT_NAME, "key_11"));
+        for (int i = 500; i < 1000; i++) {
+            assertTrue(segmentCache.isInSegment(SEGMENT_NAME, "key_" + i));
+        }
+    }
+
+    @Test
+    public void testFootprintIsCompact() {
+        List<String> keys = IntStream.range(0, 10000).mapToObj(i -> "user_" + i).collect(Collectors.toList());
+        SegmentCacheCompactImpl segmentCache = new SegmentCacheCompactImpl();
+        segmentCache.updateSegment(SEGMENT_NAME, keys, new ArrayList<>(), 1L);
+
+        long keyBytes = keys.stream().mapToLong(String::length).sum();
+        assertTrue(segmentCache.getSizeInBytes() < keyBytes + 32L * keys.size());
+    }
+
+    @Test
+    public void testSetChangeNumber() {
+        SegmentCacheCompactImpl segmentCache = new SegmentCacheCompactImpl();
+        segmentCache.updateSegment(SEGMENT_NAME, Stream.of(KEY).collect(Collectors.toList()), new ArrayList<>(), 1L);
+        segmentCache.setChangeNumber(SEGMENT_NAME, CHANGE_NUMBER);
+        segmentCache.setChangeNumber(FAKE_SEGMENT_NAME, CHANGE_NUMBER);
+        assertEquals(CHANGE_NUMBER, segmentCache.getChangeNumber(SEGMENT_NAME));
+        assertEquals(DEFAULT_CHANGE_NUMBER, segmentCache.getChangeNumber(FAKE_SEGMENT_NAME));
+        assertTrue(segmentCache.isInSegment(SEGMENT_NAME, KEY));
+    }
+
+    @Test
+    public void testClear() {
+        SegmentCacheCompactImpl segmentCache = new SegmentCacheCompactImpl();
+        segmentCache.updateSegment(SEGMENT_NAME,new ArrayList<>(), new ArrayList<>(), 1L);
+        segmentCache.clear();
+        assertEquals(DEFAULT_CHANGE_NUMBER, segmentCache.getChangeNumber(SEGMENT_NAME));
+        assertEquals(0L, segmentCache.getSegmentCount());
+    }
+}
@@ -0,0 +1,123 @@
+package io.split.storages.memory;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+public class SegmentCacheMappedImplTest {
+    private static final String SEGMENT_NAME = "TestSegment";
+    private static final String FAKE_SEGMENT_NAME = "FakeSegment";
+    private static final long CHANGE_NUMBER = 123L;
+    private static final String KEY = "KEYTEST";
+    private static final long DEFAULT_CHANGE_NUMBER = -1L;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testUpdateAndIsInSegment() throws IOException {
+        SegmentCacheMappedImpl segmentCache = new SegmentCacheMappedImpl(folder.getRoot().getPath());
+        segmentCache.updateSegment(SEGMENT_NAME, Collections.singletonList(KEY), new ArrayList<>(), 1L);
+
+        Assert.assertEquals(1L, segmentCache.getChangeNumber(SEGMENT_NAME));
+        Assert.assertTrue(segmentCache.isInSegment(SEGMENT_NAME, KEY));
+        Assert.assertFalse(segmentCache.isInSegment(SEGMENT_NAME, KEY + "X"));
+        Assert.assertFalse(segmentCache.isInSegment(FAKE_SEGMENT_NAME, KEY));
+        Assert.assertEquals(DEFAULT_CHANGE_NUMBER, segmentCache.getChangeNumber(FAKE_SEGMENT_NAME));
+    }
+
+    @Test
+    public void testAddAndRemoveAcrossUpdates() throws IOException {
+        List<String> keys = IntStream.range(0, 1000).mapToObj(i -> "key_" + i).collect(Collectors.toList());
+        SegmentCacheMappedImpl segmentCache = new SegmentCacheMappedImpl(folder.getRoot().getPath());
+        segmentCache.updateSegment(SEGMENT_NAME, keys, new ArrayList<>(), 1L);
+        segmentCache.updateSegment(SEGMENT_NAME, Arrays.asList("key_10", "ñandú", "emoji😀"), keys.subList(0, 500), 2L);
+
+        Assert.assertEquals(503L, segmentCache.getKeyCount());
+        Assert.assertTrue(segmentCache.isInSegment(SEGMENT_NAME, "key_10"));
+        Assert.assertTrue(segmentCache.isInSegment(SEGMENT_NAME, "ñandú"));
+        Assert.assertTrue(segmentCache.isInSegment(SEGMENT_NAME, "emoji😀"));
+        Assert.assertFalse(segmentCache.isInSegment(SEGMENT_NAME, "key_11"));
+        for (int i = 500; i < 1000; i++) {
+            Assert.assertTrue(segmentCache.isInSegment(SEGMENT_NAME, "key_" + i));
+        }
+    }
+
+    @Test
+    public void testSegmentsAreRestoredFromDirectory() throws IOException {
+        SegmentCacheMappedImpl segmentCache = new SegmentCacheMappedImpl(folder.getRoot().getPath());
+        segmentCache.updateSegment(SEGMENT_NAME, Arrays.asList("a", "b"), new ArrayList<>(), 1L);
+        segmentCache.updateSegment("other/segment", Collections.singletonList("c"), new ArrayList<>(), 5L);
+        segmentCache.setChangeNumber(SEGMENT_NAME, CHANGE_NUMBER);
+
+        SegmentCacheMappedImpl restored = new SegmentCacheMappedImpl(folder.getRoot().getPath());
+        Assert.assertEquals(2L, restored.getSegmentCount());
+        Assert.assertEquals(CHANGE_NUMBER, restored.getChangeNumber(SEGMENT_NAME));
+        Assert.assertEquals(5L, restored.getChangeNumber("other/segment"));
+        Assert.assertTrue(restored.isInSegment(SEGMENT_NAME, "b"));
+        Assert.assertTrue(restored.isInSegment("other/segment", "c"));
+        Assert.assertFalse(restored.isInSegment(SEGMENT_NAME, "c"));
+    }
+
+    @Test
+    public void testUnreadableFilesAreIgnored() throws IOException {
+        Files.write(folder.getRoot().toPath().resolve(SEGMENT_NAME + ".segment"), "garbage".getBytes());
+
+        SegmentCacheMappedImpl segmentCache = new SegmentCacheMappedImpl(folder.getRoot().getPath());
+        Assert.assertEquals(0L, segmentCache.getSegmentCount());
+
+        segmentCache.updateSegment(SEGMENT_NAME, Collections.singletonList(KEY), new ArrayList<>(), 1L);
+        Assert.assertTrue(segmentCache.isInSegment(SEGMENT_NAME, KEY));
+    }
+
+    @Test
+    public void testUpdatesWriteANewVersionAndDeleteTheOldOne() throws IOException {
+        SegmentCacheMappedImpl segmentCache = new SegmentCacheMappedImpl(folder.getRoot().getPath());
+        segmentCache.updateSegment(SEGMENT_NAME, Collections.singletonList("a"), new ArrayList<>(), 1L);
+        segmentCache.updateSegment(SEGMENT_NAME, Collections.singletonList("b"), new ArrayList<>(), 2L);
+
+        Assert.assertEquals(Collections.singletonList(SEGMENT_NAME + "~2.segment"), listFiles());
+        Assert.assertTrue(segmentCache.isInSegment(SEGMENT_NAME, "a"));
+        Assert.assertTrue(segmentCache.isInSegment(SEGMENT_NAME, "b"));
+    }
+
+    @Test
+    public void testRestoreKeepsTheNewestVersionAndSweepsLeftovers() throws IOException {
+        SegmentCacheMappedImpl segmentCache = new SegmentCacheMappedImpl(folder.getRoot().getPath());
+        segmentCache.updateSegment(SEGMENT_NAME, Collections.singletonList("a"), new ArrayList<>(), 1L);
+        Path current = folder.getRoot().toPath().resolve(SEGMENT_NAME + "~1.segment");
+        Files.copy(current, folder.getRoot().toPath().resolve(SEGMENT_NAME + "~0.segment"));
+        Files.write(folder.getRoot().toPath().resolve(SEGMENT_NAME + "~2.segment.tmp"), "partial".getBytes());
+
+        SegmentCacheMappedImpl restored = new SegmentCacheMappedImpl(folder.getRoot().getPath());
+        Assert.assertEquals(1L, restored.getSegmentCount());
+        Assert.assertTrue(restored.isInSegment(SEGMENT_NAME, "a"));
+        Assert.assertEquals(Collections.singletonList(SEGMENT_NAME + "~1.segment"), listFiles());
+    }
+
+    @Test
+    public void testClear() throws IOException {
+        SegmentCacheMappedImpl segmentCache = new SegmentCacheMappedImpl(folder.getRoot().getPath());
+        segmentCache.updateSegment(SEGMENT_NAME, new ArrayList<>(), new ArrayList<>(), 1L);
+        segmentCache.clear();
+        Assert.assertEquals(DEFAULT_CHANGE_NUMBER, segmentCache.getChangeNumber(SEGMENT_NAME));
+    }
+
+    private List<String> listFiles() throws IOException {
+        try (Stream<Path> files = Files.list(folder.getRoot().toPath())) {
+            return files.map(file -> file.getFileName().toString()).sorted().collect(Collectors.toList());
+        }
+    }
+}
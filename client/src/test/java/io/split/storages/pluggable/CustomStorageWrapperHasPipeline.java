@@ -145,6 +145,36 @@ public class CustomStorageWrapperHasPipeline implements CustomStorageWrapper, Ha
             methodsToExecute.add(() -> { return  hIncrementToExecute(key, field, value);});
         }
 
+        @Override
+        public void itemContains(String key, String item) {
+            methodsToExecute.add(() -> { return  CustomStorageWrapperHasPipeline.this.itemContains(key, item);});
+        }
+
+        @Override
+        public void get(String key) {
+            methodsToExecute.add(() -> { return  CustomStorageWrapperHasPipeline.this.get(key);});
+        }
+
+        @Override
+        public void getMany(List<String> keys) {
+            methodsToExecute.add(() -> { return  CustomStorageWrapperHasPipeline.this.getMany(keys);});
+        }
+
+        @Override
+        public void pushItems(String key, List<String> items) {
+            methodsToExecute.add(() -> { return  CustomStorageWrapperHasPipeline.this.pushItems(key, items);});
+        }
+
+        @Override
+        public void addItems(String key, List<String> items) {
+            methodsToExecute.add(() -> { CustomStorageWrapperHasPipeline.this.addItems(key, items); return null;});
+        }
+
+        @Override
+        public void removeItems(String key, List<String> items) {
+            methodsToExecute.add(() -> { CustomStorageWrapperHasPipeline.this.removeItems(key, items); return null;});
+        }
+
         public long hIncrementToExecute(String key, String field, long value){
             String storageKey = getStorage(key);
             Long count = 0L;
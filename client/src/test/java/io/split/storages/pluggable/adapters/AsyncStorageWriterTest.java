@@ -0,0 +1,71 @@
+package io.split.storages.pluggable.adapters;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class AsyncStorageWriterTest {
+
+    @Test
+    public void testOfferNeverBlocksAndCountsDrops() {
+        List<List<Integer>> written = new ArrayList<>();
+        AsyncStorageWriter<Integer> writer = new AsyncStorageWriter<>(3, 10, 60000, written::add, null, null, "test-%d");
+
+        Assert.assertEquals(2, writer.offerAll(Arrays.asList(1, 2)));
+        Assert.assertEquals(1, writer.offerAll(Arrays.asList(3, 4, 5)));
+        Assert.assertFalse(writer.offer(6));
+        Assert.assertEquals(3, writer.getDropped());
+        Assert.assertEquals(3, writer.size());
+        Assert.assertTrue(written.isEmpty());
+    }
+
+    @Test
+    public void testFlushWritesInBatches() {
+        List<List<Integer>> written = new ArrayList<>();
+        AsyncStorageWriter<Integer> writer = new AsyncStorageWriter<>(100, 2, 60000, written::add, null, null, "test-%d");
+        writer.offerAll(Arrays.asList(1, 2, 3, 4, 5));
+
+        writer.flush();
+        Assert.assertEquals(Arrays.asList(Arrays.asList(1, 2), Arrays.asList(3, 4), Collections.singletonList(5)), written);
+        Assert.assertEquals(0, writer.size());
+    }
+
+    @Test
+    public void testFailedBatchesAreCountedAsDropped() {
+        AtomicLong failed = new AtomicLong();
+        AsyncStorageWriter<Integer> writer = new AsyncStorageWriter<>(100, 2, 60000, batch -> {
+            if (batch.contains(3)) {
+                throw new IllegalStateException("storage down");
+            }
+            return batch.size() == 2;
+        }, failed::addAndGet, null, "test-%d");
+        writer.offerAll(Arrays.asList(1, 2, 3, 4, 5));
+
+        writer.flush();
+        Assert.assertEquals(3, failed.get());
+        Assert.assertEquals(3, writer.getDropped());
+    }
+
+    @Test
+    public void testFullBatchIsWrittenInTheBackgroundAndStopWritesTheRest() throws InterruptedException {
+        List<List<Integer>> written = new CopyOnWriteArrayList<>();
+        AsyncStorageWriter<Integer> writer = new AsyncStorageWriter<>(100, 2, 60000, written::add, null, null, "test-%d");
+        writer.start();
+
+        writer.offerAll(Arrays.asList(1, 2));
+        for (int i = 0; i < 100 && written.isEmpty(); i++) {
+            Thread.sleep(10);
+        }
+        Assert.assertEquals(Collections.singletonList(Arrays.asList(1, 2)), written);
+
+        writer.offer(3);
+        writer.stop();
+        Assert.assertEquals(Arrays.asList(Arrays.asList(1, 2), Collections.singletonList(3)), written);
+    }
+}
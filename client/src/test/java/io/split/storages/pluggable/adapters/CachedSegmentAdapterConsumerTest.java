@@ -0,0 +1,99 @@
+package io.split.storages.pluggable.adapters;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import io.split.client.utils.Json;
+import io.split.storages.SegmentCacheConsumer;
+import io.split.storages.pluggable.domain.PrefixAdapter;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import pluggable.CustomStorageWrapper;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class CachedSegmentAdapterConsumerTest {
+
+    private static final String SEGMENT_NAME = "SegmentName";
+    private static final String OTHER_SEGMENT = "OtherSegment";
+    private CustomStorageWrapper _customStorageWrapper;
+    private SegmentCacheConsumer _segmentCacheConsumer;
+    private UserCustomTelemetryAdapterProducer _telemetryProducer;
+    private CachedSegmentAdapterConsumer _cachedSegmentAdapterConsumer;
+
+    @Before
+    public void setUp() throws Exception {
+        _customStorageWrapper = Mockito.mock(CustomStorageWrapper.class);
+        _segmentCacheConsumer = Mockito.mock(SegmentCacheConsumer.class);
+        _telemetryProducer = Mockito.mock(UserCustomTelemetryAdapterProducer.class);
+        _cachedSegmentAdapterConsumer = new CachedSegmentAdapterConsumer(_segmentCacheConsumer, _customStorageWrapper,
+                _telemetryProducer, 100, 60, 10, null);
+        Mockito.when(_customStorageWrapper.get(PrefixAdapter.buildSegmentTill(SEGMENT_NAME))).thenReturn(Json.toJson(1L));
+        Mockito.when(_customStorageWrapper.get(PrefixAdapter.buildSegmentTill(OTHER_SEGMENT))).thenReturn(Json.toJson(1L));
+    }
+
+    @Test
+    public void testMembershipIsServedFromCache() {
+        Mockito.when(_segmentCacheConsumer.isInSegments(Collections.singleton(SEGMENT_NAME), "key"))
+                .thenReturn(ImmutableMap.of(SEGMENT_NAME, true));
+
+        Assert.assertTrue(_cachedSegmentAdapterConsumer.isInSegment(SEGMENT_NAME, "key"));
+        Assert.assertTrue(_cachedSegmentAdapterConsumer.isInSegment(SEGMENT_NAME, "key"));
+        Assert.assertTrue(_cachedSegmentAdapterConsumer.isInSegment(SEGMENT_NAME, "key"));
+        Mockito.verify(_segmentCacheConsumer, Mockito.times(1)).isInSegments(Mockito.anySet(), Mockito.anyString());
+        Assert.assertEquals(2, _cachedSegmentAdapterConsumer.getHits());
+        Assert.assertEquals(1, _cachedSegmentAdapterConsumer.getMisses());
+    }
+
+    @Test
+    public void testChangeNumberInvalidatesOnlyThatSegment() throws Exception {
+        Mockito.when(_segmentCacheConsumer.isInSegments(ImmutableSet.of(SEGMENT_NAME, OTHER_SEGMENT), "key"))
+                .thenReturn(ImmutableMap.of(SEGMENT_NAME, true, OTHER_SEGMENT, false));
+        Mockito.when(_segmentCacheConsumer.isInSegments(Collections.singleton(SEGMENT_NAME), "key"))
+                .thenReturn(ImmutableMap.of(SEGMENT_NAME, false));
+        Map<String, Boolean> memberships = _cachedSegmentAdapterConsumer.isInSegments(ImmutableSet.of(SEGMENT_NAME, OTHER_SEGMENT), "key");
+        Assert.assertEquals(ImmutableMap.of(SEGMENT_NAME, true, OTHER_SEGMENT, false), memberships);
+
+        Mockito.when(_customStorageWrapper.getMany(Mockito.anyList())).thenAnswer(invocation -> {
+            List<String> keys = (List<String>) invocation.getArguments()[0];
+            List<String> changeNumbers = new ArrayList<>();
+            for (String key : keys) {
+                changeNumbers.add(key.equals(PrefixAdapter.buildSegmentTill(SEGMENT_NAME)) ? Json.toJson(2L) : Json.toJson(1L));
+            }
+            return changeNumbers;
+        });
+        _cachedSegmentAdapterConsumer.refresh();
+
+        memberships = _cachedSegmentAdapterConsumer.isInSegments(ImmutableSet.of(SEGMENT_NAME, OTHER_SEGMENT), "key");
+        Assert.assertEquals(ImmutableMap.of(SEGMENT_NAME, false, OTHER_SEGMENT, false), memberships);
+        Mockito.verify(_segmentCacheConsumer, Mockito.times(1)).isInSegments(Collections.singleton(SEGMENT_NAME), "key");
+    }
+
+    @Test
+    public void testFailedLookupIsNotCached() {
+        Mockito.when(_segmentCacheConsumer.isInSegments(Collections.singleton(SEGMENT_NAME), "key")).thenReturn(new HashMap<>());
+
+        Assert.assertFalse(_cachedSegmentAdapterConsumer.isInSegment(SEGMENT_NAME, "key"));
+        Assert.assertFalse(_cachedSegmentAdapterConsumer.isInSegment(SEGMENT_NAME, "key"));
+        Mockito.verify(_segmentCacheConsumer, Mockito.times(2)).isInSegments(Collections.singleton(SEGMENT_NAME), "key");
+    }
+
+    @Test
+    public void testStatsAreRecordedAsDeltas() {
+        Mockito.when(_segmentCacheConsumer.isInSegments(Collections.singleton(SEGMENT_NAME), "key"))
+                .thenReturn(ImmutableMap.of(SEGMENT_NAME, true));
+        _cachedSegmentAdapterConsumer.isInSegment(SEGMENT_NAME, "key");
+        _cachedSegmentAdapterConsumer.isInSegment(SEGMENT_NAME, "key");
+        _cachedSegmentAdapterConsumer.refresh();
+        Mockito.verify(_telemetryProducer, Mockito.times(1)).recordSegmentCacheStats(1, 1);
+
+        _cachedSegmentAdapterConsumer.isInSegment(SEGMENT_NAME, "key");
+        _cachedSegmentAdapterConsumer.stop();
+        Mockito.verify(_telemetryProducer, Mockito.times(1)).recordSegmentCacheStats(1, 0);
+    }
+}
@@ -0,0 +1,92 @@
+package io.split.storages.pluggable.adapters;
+
+import com.google.common.collect.ImmutableMap;
+import io.split.engine.experiments.ParsedSplit;
+import io.split.storages.SplitCacheConsumer;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+public class CachedSplitAdapterConsumerTest {
+
+    private SplitCacheConsumer _splitCacheConsumer;
+    private CachedSplitAdapterConsumer _cachedSplitAdapterConsumer;
+
+    @Before
+    public void setUp() {
+        _splitCacheConsumer = Mockito.mock(SplitCacheConsumer.class);
+        _cachedSplitAdapterConsumer = new CachedSplitAdapterConsumer(_splitCacheConsumer, 5, null);
+        Mockito.when(_splitCacheConsumer.getChangeNumber()).thenReturn(1L);
+        _cachedSplitAdapterConsumer.refresh();
+    }
+
+    @Test
+    public void testGetIsServedFromCache() {
+        ParsedSplit split = buildSplit("split_1");
+        Mockito.when(_splitCacheConsumer.get("split_1")).thenReturn(split);
+
+        Assert.assertSame(split, _cachedSplitAdapterConsumer.get("split_1"));
+        Assert.assertSame(split, _cachedSplitAdapterConsumer.get("split_1"));
+        Mockito.verify(_splitCacheConsumer, Mockito.times(1)).get("split_1");
+    }
+
+    @Test
+    public void testMissingSplitIsNotCached() {
+        Mockito.when(_splitCacheConsumer.get("split_1")).thenReturn(null);
+
+        Assert.assertNull(_cachedSplitAdapterConsumer.get("split_1"));
+        Assert.assertNull(_cachedSplitAdapterConsumer.get("split_1"));
+        Mockito.verify(_splitCacheConsumer, Mockito.times(2)).get("split_1");
+    }
+
+    @Test
+    public void testChangeNumberInvalidatesCache() {
+        ParsedSplit split = buildSplit("split_1");
+        ParsedSplit updated = buildSplit("split_1");
+        Mockito.when(_splitCacheConsumer.get("split_1")).thenReturn(split, updated);
+
+        Assert.assertSame(split, _cachedSplitAdapterConsumer.get("split_1"));
+        _cachedSplitAdapterConsumer.refresh();
+        Assert.assertSame(split, _cachedSplitAdapterConsumer.get("split_1"));
+
+        Mockito.when(_splitCacheConsumer.getChangeNumber()).thenReturn(2L);
+        _cachedSplitAdapterConsumer.refresh();
+        Assert.assertSame(updated, _cachedSplitAdapterConsumer.get("split_1"));
+        Mockito.verify(_splitCacheConsumer, Mockito.times(2)).get("split_1");
+    }
+
+    @Test
+    public void testFetchManyOnlyFetchesMisses() {
+        ParsedSplit split1 = buildSplit("split_1");
+        ParsedSplit split2 = buildSplit("split_2");
+        Mockito.when(_splitCacheConsumer.get("split_1")).thenReturn(split1);
+        Map<String, ParsedSplit> fetched = new HashMap<>();
+        fetched.put("split_2", split2);
+        fetched.put("split_3", null);
+        Mockito.when(_splitCacheConsumer.fetchMany(Arrays.asList("split_2", "split_3"))).thenReturn(fetched);
+
+        _cachedSplitAdapterConsumer.get("split_1");
+        Map<String, ParsedSplit> result = _cachedSplitAdapterConsumer.fetchMany(Arrays.asList("split_1", "split_2", "split_3"));
+        Assert.assertEquals(3, result.size());
+        Assert.assertSame(split1, result.get("split_1"));
+        Assert.assertSame(split2, result.get("split_2"));
+        Assert.assertNull(result.get("split_3"));
+
+        Mockito.when(_splitCacheConsumer.fetchMany(Collections.singletonList("split_3"))).thenReturn(new HashMap<>());
+        Assert.assertEquals(ImmutableMap.of("split_1", split1, "split_2", split2),
+                _cachedSplitAdapterConsumer.fetchMany(Arrays.asList("split_1", "split_2", "split_3")));
+        Mockito.verify(_splitCacheConsumer, Mockito.times(1)).fetchMany(Arrays.asList("split_2", "split_3"));
+        Mockito.verify(_splitCacheConsumer, Mockito.times(1)).fetchMany(Collections.singletonList("split_3"));
+    }
+
+    private ParsedSplit buildSplit(String name) {
+        return ParsedSplit.createParsedSplitForTests(name, 0, false, "off", new ArrayList<>(), "tt", 1, 1);
+    }
+}
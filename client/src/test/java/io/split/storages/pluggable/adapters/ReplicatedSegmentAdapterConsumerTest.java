@@ -0,0 +1,170 @@
+package io.split.storages.pluggable.adapters;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import io.split.client.utils.Json;
+import io.split.storages.SegmentCacheConsumer;
+import io.split.storages.pluggable.domain.PrefixAdapter;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import pluggable.CustomStorageWrapper;
+import pluggable.HasScanSupport;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+public class ReplicatedSegmentAdapterConsumerTest {
+
+    private static final String SEGMENT_NAME = "SegmentName";
+    private static final String OTHER_SEGMENT = "OtherSegment";
+    private CustomStorageWrapper _customStorageWrapper;
+    private SegmentCacheConsumer _segmentCacheConsumer;
+    private UserCustomTelemetryAdapterProducer _telemetryProducer;
+    private ReplicatedSegmentAdapterConsumer _replicatedSegmentAdapterConsumer;
+
+    @Before
+    public void setUp() {
+        _customStorageWrapper = Mockito.mock(CustomStorageWrapper.class, Mockito.withSettings().extraInterfaces(HasScanSupport.class));
+        _segmentCacheConsumer = Mockito.mock(SegmentCacheConsumer.class);
+        _telemetryProducer = Mockito.mock(UserCustomTelemetryAdapterProducer.class);
+        _replicatedSegmentAdapterConsumer = new ReplicatedSegmentAdapterConsumer(_segmentCacheConsumer, _customStorageWrapper,
+                _telemetryProducer, 3, 10, null);
+    }
+
+    @Test
+    public void testSegmentIsServedLocallyOnceReplicated() throws Exception {
+        Mockito.when(_segmentCacheConsumer.isInSegment(SEGMENT_NAME, "key1")).thenReturn(true);
+        Assert.assertTrue(_replicatedSegmentAdapterConsumer.isInSegment(SEGMENT_NAME, "key1"));
+        Mockito.verify(_segmentCacheConsumer, Mockito.times(1)).isInSegment(SEGMENT_NAME, "key1");
+
+        mockChangeNumbers(Collections.singletonList(SEGMENT_NAME), Json.toJson(1L));
+        mockMembers(SEGMENT_NAME, Arrays.asList("key1", "key2"), Collections.singletonList("key1"));
+        _replicatedSegmentAdapterConsumer.refresh();
+
+        Assert.assertTrue(_replicatedSegmentAdapterConsumer.isInSegment(SEGMENT_NAME, "key1"));
+        Assert.assertTrue(_replicatedSegmentAdapterConsumer.isInSegment(SEGMENT_NAME, "key2"));
+        Assert.assertFalse(_replicatedSegmentAdapterConsumer.isInSegment(SEGMENT_NAME, "key3"));
+        Mockito.verify(_segmentCacheConsumer, Mockito.times(1)).isInSegment(Mockito.anyString(), Mockito.anyString());
+        Assert.assertEquals(0, _replicatedSegmentAdapterConsumer.getReplicationLag());
+        Mockito.verify(_telemetryProducer, Mockito.times(1)).recordSegmentReplicationLag(0);
+    }
+
+    @Test
+    public void testSegmentIsScannedAgainOnlyWhenItsChangeNumberAdvances() throws Exception {
+        _replicatedSegmentAdapterConsumer.isInSegments(ImmutableSet.of(SEGMENT_NAME, OTHER_SEGMENT), "key1");
+        mockMembers(SEGMENT_NAME, Collections.singletonList("key1"));
+        mockMembers(OTHER_SEGMENT, Collections.singletonList("key2"));
+        mockChangeNumbers(Arrays.asList(SEGMENT_NAME, OTHER_SEGMENT), Json.toJson(1L), Json.toJson(1L));
+        _replicatedSegmentAdapterConsumer.refresh();
+        _replicatedSegmentAdapterConsumer.refresh();
+        Mockito.verify((HasScanSupport) _customStorageWrapper, Mockito.times(2)).scanItems(Mockito.anyString(), Mockito.any(Consumer.class));
+
+        mockMembers(SEGMENT_NAME, Collections.singletonList("key2"));
+        mockChangeNumbers(Arrays.asList(SEGMENT_NAME, OTHER_SEGMENT), Json.toJson(2L), Json.toJson(1L));
+        _replicatedSegmentAdapterConsumer.refresh();
+        Mockito.verify((HasScanSupport) _customStorageWrapper, Mockito.times(3)).scanItems(Mockito.anyString(), Mockito.any(Consumer.class));
+
+        Assert.assertEquals(ImmutableMap.of(SEGMENT_NAME, true, OTHER_SEGMENT, true),
+                _replicatedSegmentAdapterConsumer.isInSegments(ImmutableSet.of(SEGMENT_NAME, OTHER_SEGMENT), "key2"));
+        Mockito.verify(_segmentCacheConsumer, Mockito.times(1)).isInSegments(Mockito.anySet(), Mockito.anyString());
+    }
+
+    @Test
+    public void testSegmentOverTheLimitKeepsUsingTheStorage() throws Exception {
+        _replicatedSegmentAdapterConsumer.isInSegment(SEGMENT_NAME, "key1");
+        mockChangeNumbers(Collections.singletonList(SEGMENT_NAME), Json.toJson(1L));
+        mockMembers(SEGMENT_NAME, Arrays.asList("key1", "key2"), Arrays.asList("key3", "key4"));
+        _replicatedSegmentAdapterConsumer.refresh();
+        _replicatedSegmentAdapterConsumer.refresh();
+
+        _replicatedSegmentAdapterConsumer.isInSegment(SEGMENT_NAME, "key1");
+        Mockito.verify(_segmentCacheConsumer, Mockito.times(2)).isInSegment(SEGMENT_NAME, "key1");
+        Mockito.verify((HasScanSupport) _customStorageWrapper, Mockito.times(1)).scanItems(Mockito.anyString(), Mockito.any(Consumer.class));
+    }
+
+    @Test
+    public void testScanStopsOnceOverTheLimit() throws Exception {
+        _replicatedSegmentAdapterConsumer.isInSegment(SEGMENT_NAME, "key1");
+        mockChangeNumbers(Collections.singletonList(SEGMENT_NAME), Json.toJson(1L));
+        AtomicInteger batches = new AtomicInteger();
+        Mockito.doAnswer(invocation -> {
+            Consumer<List<String>> consumer = (Consumer<List<String>>) invocation.getArguments()[1];
+            for (int i = 0; i < 10; i++) {
+                batches.incrementAndGet();
+                consumer.accept(Arrays.asList("key" + (2 * i), "key" + (2 * i + 1)));
+            }
+            return null;
+        }).when((HasScanSupport) _customStorageWrapper).scanItems(Mockito.eq(PrefixAdapter.buildSegment(SEGMENT_NAME)), Mockito.any(Consumer.class));
+        _replicatedSegmentAdapterConsumer.refresh();
+
+        Assert.assertEquals(2, batches.get());
+        _replicatedSegmentAdapterConsumer.isInSegment(SEGMENT_NAME, "key1");
+        Mockito.verify(_segmentCacheConsumer, Mockito.times(2)).isInSegment(SEGMENT_NAME, "key1");
+    }
+
+    @Test
+    public void testSkippedSegmentIsScannedAgainOnceItChanges() throws Exception {
+        _replicatedSegmentAdapterConsumer.isInSegment(SEGMENT_NAME, "key1");
+        mockChangeNumbers(Collections.singletonList(SEGMENT_NAME), Json.toJson(1L));
+        mockMembers(SEGMENT_NAME, Arrays.asList("key1", "key2"), Arrays.asList("key3", "key4"));
+        for (int i = 0; i < 10; i++) {
+            _replicatedSegmentAdapterConsumer.refresh();
+        }
+        // read on the first poll, then only on the tenth, where its change number did not move
+        Mockito.verify(_customStorageWrapper, Mockito.times(2)).getMany(Mockito.anyList());
+        Mockito.verify((HasScanSupport) _customStorageWrapper, Mockito.times(1)).scanItems(Mockito.anyString(), Mockito.any(Consumer.class));
+
+        mockChangeNumbers(Collections.singletonList(SEGMENT_NAME), Json.toJson(2L));
+        mockMembers(SEGMENT_NAME, Collections.singletonList("key1"));
+        for (int i = 0; i < 10; i++) {
+            _replicatedSegmentAdapterConsumer.refresh();
+        }
+        Mockito.verify((HasScanSupport) _customStorageWrapper, Mockito.times(2)).scanItems(Mockito.anyString(), Mockito.any(Consumer.class));
+        Assert.assertTrue(_replicatedSegmentAdapterConsumer.isInSegment(SEGMENT_NAME, "key1"));
+        Mockito.verify(_segmentCacheConsumer, Mockito.times(1)).isInSegment(SEGMENT_NAME, "key1");
+    }
+
+    @Test
+    public void testFailedScanKeepsTheReplicaAndReportsLag() throws Exception {
+        _replicatedSegmentAdapterConsumer.isInSegment(SEGMENT_NAME, "key1");
+        mockChangeNumbers(Collections.singletonList(SEGMENT_NAME), Json.toJson(1L));
+        mockMembers(SEGMENT_NAME, Collections.singletonList("key1"));
+        _replicatedSegmentAdapterConsumer.refresh();
+
+        mockChangeNumbers(Collections.singletonList(SEGMENT_NAME), Json.toJson(2L));
+        Mockito.doThrow(new Exception("down")).when((HasScanSupport) _customStorageWrapper)
+                .scanItems(Mockito.eq(PrefixAdapter.buildSegment(SEGMENT_NAME)), Mockito.any(Consumer.class));
+        _replicatedSegmentAdapterConsumer.refresh();
+        Thread.sleep(20);
+        _replicatedSegmentAdapterConsumer.refresh();
+
+        Assert.assertTrue(_replicatedSegmentAdapterConsumer.isInSegment(SEGMENT_NAME, "key1"));
+        Assert.assertTrue(_replicatedSegmentAdapterConsumer.getReplicationLag() >= 20);
+    }
+
+    private void mockChangeNumbers(List<String> segmentNames, String... changeNumbers) throws Exception {
+        String[] keys = segmentNames.stream().map(PrefixAdapter::buildSegmentTill).toArray(String[]::new);
+        Mockito.when(_customStorageWrapper.getMany(Mockito.anyList())).thenAnswer(invocation -> {
+            List<String> requested = (List<String>) invocation.getArguments()[0];
+            List<String> all = Arrays.asList(keys);
+            return requested.stream().map(key -> changeNumbers[all.indexOf(key)]).collect(Collectors.toList());
+        });
+    }
+
+    @SafeVarargs
+    private final void mockMembers(String segmentName, List<String>... batches) throws Exception {
+        Mockito.doAnswer(invocation -> {
+            Consumer<List<String>> consumer = (Consumer<List<String>>) invocation.getArguments()[1];
+            for (List<String> batch : batches) {
+                consumer.accept(batch);
+            }
+            return null;
+        }).when((HasScanSupport) _customStorageWrapper).scanItems(Mockito.eq(PrefixAdapter.buildSegment(segmentName)), Mockito.any(Consumer.class));
+    }
+}
@@ -2,14 +2,18 @@ package io.split.storages.pluggable.adapters;
 
 import io.split.client.dtos.Event;
 import io.split.client.dtos.Metadata;
+import io.split.storages.pluggable.domain.PrefixAdapter;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 import pluggable.CustomStorageWrapper;
 
 import java.lang.reflect.Field;
 import java.lang.reflect.Modifier;
+import java.util.Arrays;
+import java.util.List;
 
 public class UserCustomEventAdapterProducerTest{
     private CustomStorageWrapper _customStorageWrapper;
@@ -34,4 +38,13 @@ public class UserCustomEventAdapterProducerTest{
         Assert.assertTrue(_eventAdapterProducer.track(event,1));
     }
 
+    @Test
+    public void testPutPushesTheBatchOnce() throws Exception {
+        Mockito.when(_customStorageWrapper.pushItems(Mockito.anyString(), Mockito.anyList())).thenReturn(2L);
+        Assert.assertTrue(_eventAdapterProducer.put(Arrays.asList(new Event(), new Event())));
+        ArgumentCaptor<List> items = ArgumentCaptor.forClass(List.class);
+        Mockito.verify(_customStorageWrapper, Mockito.times(1)).pushItems(Mockito.eq(PrefixAdapter.buildEvent()), items.capture());
+        Assert.assertEquals(2, items.getValue().size());
+    }
+
 }
\ No newline at end of file
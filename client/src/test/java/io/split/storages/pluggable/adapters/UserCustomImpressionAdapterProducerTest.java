@@ -2,15 +2,20 @@ package io.split.storages.pluggable.adapters;
 
 import io.split.client.dtos.KeyImpression;
 import io.split.client.dtos.Metadata;
+import io.split.storages.enums.PluggableStorageEncoding;
+import io.split.storages.pluggable.domain.ImpressionConsumer;
 import io.split.storages.pluggable.domain.UserStorageWrapper;
+import io.split.storages.pluggable.utils.CompactEncoding;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 import pluggable.CustomStorageWrapper;
 
 import java.lang.reflect.Field;
 import java.lang.reflect.Modifier;
+import java.util.List;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -56,4 +61,24 @@ public class UserCustomImpressionAdapterProducerTest {
         Mockito.verify(_userStorageWrapper, Mockito.times(1)).pushItems(Mockito.anyString(), Mockito.anyObject());
     }
 
-}
\ No newline at end of file
+    @Test
+    public void testPutCompact() throws Exception {
+        Metadata metadata = new Metadata("SDK-version", "host", "ip");
+        UserCustomImpressionAdapterProducer producer = new UserCustomImpressionAdapterProducer(_customStorageWrapper, metadata,
+                PluggableStorageEncoding.COMPACT);
+        KeyImpression first = new KeyImpression();
+        first.keyName = "key-1";
+        first.feature = "flag";
+        KeyImpression second = new KeyImpression();
+        second.keyName = "key-2";
+        second.feature = "flag";
+        ArgumentCaptor<List> items = ArgumentCaptor.forClass(List.class);
+        Mockito.when(_customStorageWrapper.pushItems(Mockito.anyString(), items.capture())).thenReturn(1L);
+
+        Assert.assertEquals(2L, producer.put(Stream.of(first, second).collect(Collectors.toList())));
+        Assert.assertEquals(1, items.getValue().size());
+        List<ImpressionConsumer> decoded = CompactEncoding.decodeImpressions((String) items.getValue().get(0));
+        Assert.assertEquals("key-1", decoded.get(0).getKeyImpression().keyName);
+        Assert.assertEquals("key-2", decoded.get(1).getKeyImpression().keyName);
+    }
+}
@@ -2,16 +2,19 @@ package io.split.storages.pluggable.adapters;
 
 import io.split.client.utils.Json;
 import io.split.storages.pluggable.domain.PrefixAdapter;
+import io.split.storages.pluggable.domain.UserPipelineWrapper;
 import io.split.storages.pluggable.domain.UserStorageWrapper;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.Mockito;
 import pluggable.CustomStorageWrapper;
+import pluggable.NotPipelinedImpl;
 
 import java.lang.reflect.Field;
 import java.lang.reflect.Modifier;
 import java.util.Collections;
+import java.util.Map;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -73,4 +76,25 @@ public class UserCustomSegmentAdapterConsumerTest {
         Mockito.verify(_userStorageWrapper, Mockito.times(1)).getKeysByPrefix(Mockito.anyString());
         Mockito.verify(_userStorageWrapper, Mockito.times(0)).getItemsCount(Mockito.anyString());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testIsInSegmentsUsesOnePipeline() throws Exception {
+        String otherSegment = SEGMENT_NAME + "2";
+        Mockito.when(_userStorageWrapper.pipeline()).thenReturn(new UserPipelineWrapper(new NotPipelinedImpl(_customStorageWrapper)));
+        Mockito.when(_customStorageWrapper.itemContains(PrefixAdapter.buildSegment(SEGMENT_NAME), "item")).thenReturn(true);
+        Mockito.when(_customStorageWrapper.itemContains(PrefixAdapter.buildSegment(otherSegment), "item")).thenReturn(false);
+
+        Map<String, Boolean> memberships = _userCustomSegmentAdapterConsumer.isInSegments(Stream.of(SEGMENT_NAME, otherSegment).collect(Collectors.toSet()), "item");
+        Assert.assertEquals(2, memberships.size());
+        Assert.assertTrue(memberships.get(SEGMENT_NAME));
+        Assert.assertFalse(memberships.get(otherSegment));
+        Mockito.verify(_userStorageWrapper, Mockito.times(1)).pipeline();
+        Mockito.verify(_userStorageWrapper, Mockito.times(0)).itemContains(Mockito.anyString(), Mockito.anyString());
+    }
+
+    @Test
+    public void testIsInSegmentsPipelineFailure() throws Exception {
+        Mockito.when(_userStorageWrapper.pipeline()).thenThrow(new Exception("pipeline not available"));
+        Assert.assertTrue(_userCustomSegmentAdapterConsumer.isInSegments(Collections.singleton(SEGMENT_NAME), "item").isEmpty());
+    }
+}
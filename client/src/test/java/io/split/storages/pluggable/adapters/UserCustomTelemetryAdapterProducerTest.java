@@ -1,7 +1,11 @@
 package io.split.storages.pluggable.adapters;
 
 import io.split.client.utils.SDKMetadata;
+import io.split.storages.pluggable.domain.PrefixAdapter;
+import io.split.storages.pluggable.domain.UserPipelineWrapper;
 import io.split.storages.pluggable.domain.UserStorageWrapper;
+import io.split.telemetry.domain.enums.EventsDataRecordsEnum;
+import io.split.telemetry.domain.enums.ImpressionsDataTypeEnum;
 import io.split.telemetry.domain.enums.MethodEnum;
 import org.junit.Before;
 import org.junit.Test;
@@ -22,13 +26,7 @@ public class UserCustomTelemetryAdapterProducerTest {
         _customStorageWrapper = Mockito.mock(CustomStorageWrapper.class);
         _userStorageWrapper = Mockito.mock(UserStorageWrapper.class);
         _userCustomTelemetryAdapterProducer = new UserCustomTelemetryAdapterProducer(_customStorageWrapper, Mockito.mock(SDKMetadata.class));
-        Field userCustomTelemetryAdapterProducer = UserCustomTelemetryAdapterProducer.class.getDeclaredField("_userStorageWrapper");
-        userCustomTelemetryAdapterProducer.setAccessible(true);
-        Field modifiersField = Field.class.getDeclaredField("modifiers");
-        modifiersField.setAccessible(true);
-        modifiersField.setInt(userCustomTelemetryAdapterProducer, userCustomTelemetryAdapterProducer.getModifiers() & ~Modifier.FINAL);
-        userCustomTelemetryAdapterProducer.set(_userCustomTelemetryAdapterProducer, _userStorageWrapper);
-
+        injectStorageWrapper(_userCustomTelemetryAdapterProducer);
     }
 
     @Test
@@ -42,4 +40,83 @@ public class UserCustomTelemetryAdapterProducerTest {
         _userCustomTelemetryAdapterProducer.recordException(MethodEnum.TRACK);
         Mockito.verify(_userStorageWrapper, Mockito.times(1)).hIncrement(Mockito.anyString(), Mockito.anyString(), Mockito.anyLong());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testRecordSegmentCacheStats() {
+        _userCustomTelemetryAdapterProducer.recordSegmentCacheStats(3, 0);
+        Mockito.verify(_userStorageWrapper, Mockito.times(1)).hIncrement(Mockito.eq(PrefixAdapter.buildTelemetrySegmentCachePrefix()),
+                Mockito.endsWith("/hits"), Mockito.eq(3L));
+        Mockito.verify(_userStorageWrapper, Mockito.times(1)).hIncrement(Mockito.anyString(), Mockito.anyString(), Mockito.anyLong());
+    }
+
+    @Test
+    public void testAggregatedLatenciesAndExceptionsAreFlushedInOnePipeline() throws Exception {
+        UserCustomTelemetryAdapterProducer producer = new UserCustomTelemetryAdapterProducer(_customStorageWrapper,
+                new SDKMetadata("java-1.0", "ip", "machine"), 60, false, null);
+        injectStorageWrapper(producer);
+        UserPipelineWrapper pipeline = Mockito.mock(UserPipelineWrapper.class);
+        Mockito.when(_userStorageWrapper.pipeline()).thenReturn(pipeline);
+
+        producer.recordLatency(MethodEnum.TRACK, 10L);
+        producer.recordLatency(MethodEnum.TRACK, 10L);
+        producer.recordLatency(MethodEnum.TREATMENT, 10L);
+        producer.recordException(MethodEnum.TRACK);
+        Mockito.verify(_userStorageWrapper, Mockito.never()).hIncrement(Mockito.anyString(), Mockito.anyString(), Mockito.anyLong());
+
+        producer.flush();
+        Mockito.verify(pipeline, Mockito.times(1)).hIncrement(Mockito.eq(PrefixAdapter.buildTelemetryLatenciesPrefix()),
+                Mockito.contains("/track/"), Mockito.eq(2L));
+        Mockito.verify(pipeline, Mockito.times(1)).hIncrement(Mockito.eq(PrefixAdapter.buildTelemetryLatenciesPrefix()),
+                Mockito.contains("/getTreatment/"), Mockito.eq(1L));
+        Mockito.verify(pipeline, Mockito.times(1)).hIncrement(Mockito.eq(PrefixAdapter.buildTelemetryExceptionsPrefix()),
+                Mockito.endsWith("/track"), Mockito.eq(1L));
+        Mockito.verify(pipeline, Mockito.times(1)).exec();
+
+        // counters start over, nothing left to flush
+        producer.stop();
+        Mockito.verify(_userStorageWrapper, Mockito.times(1)).pipeline();
+        Mockito.verify(pipeline, Mockito.times(1)).exec();
+    }
+
+    @Test
+    public void testRecordDroppedIsOnlyWrittenByTheFlush() throws Exception {
+        UserCustomTelemetryAdapterProducer producer = new UserCustomTelemetryAdapterProducer(_customStorageWrapper,
+                new SDKMetadata("java-1.0", "ip", "machine"), 0, true, null);
+        injectStorageWrapper(producer);
+        UserPipelineWrapper pipeline = Mockito.mock(UserPipelineWrapper.class);
+        Mockito.when(_userStorageWrapper.pipeline()).thenReturn(pipeline);
+        producer.recordImpressionStats(ImpressionsDataTypeEnum.IMPRESSIONS_QUEUED, 5);
+        producer.recordImpressionStats(ImpressionsDataTypeEnum.IMPRESSIONS_DROPPED, 3);
+        producer.recordEventStats(EventsDataRecordsEnum.EVENTS_DROPPED, 1);
+        Mockito.verifyZeroInteractions(_userStorageWrapper);
+
+        producer.flush();
+        Mockito.verify(pipeline, Mockito.times(1)).hIncrement(Mockito.eq(PrefixAdapter.buildTelemetryDroppedPrefix()),
+                Mockito.endsWith("/impressions"), Mockito.eq(3L));
+        Mockito.verify(pipeline, Mockito.times(1)).hIncrement(Mockito.eq(PrefixAdapter.buildTelemetryDroppedPrefix()),
+                Mockito.endsWith("/events"), Mockito.eq(1L));
+        Mockito.verify(pipeline, Mockito.times(2)).hIncrement(Mockito.anyString(), Mockito.anyString(), Mockito.anyLong());
+        Mockito.verify(pipeline, Mockito.times(1)).exec();
+        producer.stop();
+    }
+
+    @Test
+    public void testRecordDroppedIsIgnoredWithoutAsyncWriters() throws Exception {
+        _userCustomTelemetryAdapterProducer.recordImpressionStats(ImpressionsDataTypeEnum.IMPRESSIONS_DROPPED, 3);
+        _userCustomTelemetryAdapterProducer.recordEventStats(EventsDataRecordsEnum.EVENTS_DROPPED, 1);
+
+        _userCustomTelemetryAdapterProducer.start();
+        _userCustomTelemetryAdapterProducer.flush();
+        _userCustomTelemetryAdapterProducer.stop();
+        Mockito.verifyZeroInteractions(_userStorageWrapper);
+    }
+
+    private void injectStorageWrapper(UserCustomTelemetryAdapterProducer producer) throws NoSuchFieldException, IllegalAccessException {
+        Field userCustomTelemetryAdapterProducer = UserCustomTelemetryAdapterProducer.class.getDeclaredField("_userStorageWrapper");
+        userCustomTelemetryAdapterProducer.setAccessible(true);
+        Field modifiersField = Field.class.getDeclaredField("modifiers");
+        modifiersField.setAccessible(true);
+        modifiersField.setInt(userCustomTelemetryAdapterProducer, userCustomTelemetryAdapterProducer.getModifiers() & ~Modifier.FINAL);
+        userCustomTelemetryAdapterProducer.set(producer, _userStorageWrapper);
+    }
+}
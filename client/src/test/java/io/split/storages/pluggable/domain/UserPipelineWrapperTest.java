@@ -4,9 +4,15 @@ import io.split.storages.pluggable.CustomStorageWrapperHasPipeline;
 import io.split.storages.pluggable.CustomStorageWrapperImp;
 import org.junit.Assert;
 import org.junit.Test;
+import org.mockito.Mockito;
+import pluggable.CustomStorageWrapper;
 import pluggable.NotPipelinedImpl;
+import pluggable.Pipeline;
 import pluggable.Result;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 
@@ -33,4 +39,61 @@ public class UserPipelineWrapperTest {
         Assert.assertEquals(Optional.of(1L), results.get(0).asLong());
     }
 
-}
\ No newline at end of file
+    @Test
+    public void testStorageCommandsWithoutPipeline() throws Exception {
+        CustomStorageWrapper customStorageWrapper = Mockito.mock(CustomStorageWrapper.class);
+        Mockito.when(customStorageWrapper.get("key")).thenReturn("value");
+        Mockito.when(customStorageWrapper.getMany(Arrays.asList("key", "other"))).thenReturn(Arrays.asList("value", null));
+        Mockito.when(customStorageWrapper.pushItems("list", Collections.singletonList("item"))).thenReturn(1L);
+        UserPipelineWrapper userPipelineWrapper = new UserPipelineWrapper(new NotPipelinedImpl(customStorageWrapper));
+        userPipelineWrapper.get("key");
+        userPipelineWrapper.getMany(Arrays.asList("key", "other"));
+        userPipelineWrapper.pushItems("list", Collections.singletonList("item"));
+        userPipelineWrapper.addItems("set", Collections.singletonList("item"));
+        userPipelineWrapper.removeItems("set", Collections.singletonList("other"));
+        Mockito.verifyZeroInteractions(customStorageWrapper);
+
+        List<Result> results = userPipelineWrapper.exec();
+        Assert.assertEquals(5, results.size());
+        Assert.assertEquals(Optional.of("value"), results.get(0).asString());
+        Assert.assertEquals(Optional.of(Arrays.asList("value", null)), results.get(1).asList());
+        Assert.assertEquals(Optional.of(1L), results.get(2).asLong());
+        Mockito.verify(customStorageWrapper, Mockito.times(1)).addItems("set", Collections.singletonList("item"));
+        Mockito.verify(customStorageWrapper, Mockito.times(1)).removeItems("set", Collections.singletonList("other"));
+    }
+
+    @Test
+    public void testOperationsAnOlderPipelineLacksFallBackToTheStorage() throws Exception {
+        CustomStorageWrapper customStorageWrapper = Mockito.mock(CustomStorageWrapper.class);
+        Mockito.when(customStorageWrapper.get("key")).thenReturn("value");
+        Mockito.when(customStorageWrapper.itemContains("set", "item")).thenReturn(true);
+        // implements only what the first version of the interface had
+        Pipeline olderPipeline = new Pipeline() {
+            private final List<Result> _results = new ArrayList<>();
+
+            @Override
+            public List<Result> exec() {
+                List<Result> results = new ArrayList<>(_results);
+                _results.clear();
+                return results;
+            }
+
+            @Override
+            public void hIncrement(String key, String field, long value) {
+                _results.add(new Result(value));
+            }
+        };
+        UserPipelineWrapper userPipelineWrapper = new UserPipelineWrapper(olderPipeline, new NotPipelinedImpl(customStorageWrapper));
+        userPipelineWrapper.hIncrement(KEY, HASH_COUNT_KEY, 1);
+        userPipelineWrapper.get("key");
+        userPipelineWrapper.hIncrement(KEY, HASH_COUNT_KEY, 2);
+        userPipelineWrapper.itemContains("set", "item");
+
+        List<Result> results = userPipelineWrapper.exec();
+        Assert.assertEquals(4, results.size());
+        Assert.assertEquals(Optional.of(1L), results.get(0).asLong());
+        Assert.assertEquals(Optional.of("value"), results.get(1).asString());
+        Assert.assertEquals(Optional.of(2L), results.get(2).asLong());
+        Assert.assertEquals(Optional.of(true), results.get(3).asBoolean());
+    }
+}
@@ -6,10 +6,12 @@ import org.junit.Test;
 import org.mockito.Mockito;
 import org.slf4j.Logger;
 import pluggable.CustomStorageWrapper;
+import pluggable.HasScanSupport;
 
 import java.lang.reflect.Field;
 import java.lang.reflect.Modifier;
 import java.util.*;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -299,6 +301,40 @@ public class UserStorageWrapperTest {
         Assert.assertTrue(result);
     }
 
+    @Test
+    public void testScanItemsWhileStopsWhenTheConsumerSaysSo() throws Exception {
+        CustomStorageWrapper scanStorage = Mockito.mock(CustomStorageWrapper.class, Mockito.withSettings().extraInterfaces(HasScanSupport.class));
+        // storages wrap what the consumer throws, like the redis wrapper does
+        Mockito.doAnswer(invocation -> {
+            Consumer<List<String>> consumer = (Consumer<List<String>>) invocation.getArguments()[1];
+            try {
+                consumer.accept(Collections.singletonList("a"));
+                consumer.accept(Collections.singletonList("b"));
+                consumer.accept(Collections.singletonList("c"));
+            } catch (Exception e) {
+                throw new Exception(e.getMessage());
+            }
+            return null;
+        }).when((HasScanSupport) scanStorage).scanItems(Mockito.eq(KEY), Mockito.any(Consumer.class));
+        List<String> items = new ArrayList<>();
+
+        boolean result = new UserStorageWrapper(scanStorage).scanItemsWhile(KEY, batch -> {
+            items.addAll(batch);
+            return items.size() < 2;
+        });
+        Assert.assertTrue(result);
+        Assert.assertEquals(Arrays.asList("a", "b"), items);
+    }
+
+    @Test
+    public void testScanItemsWhileFailed() throws Exception {
+        CustomStorageWrapper scanStorage = Mockito.mock(CustomStorageWrapper.class, Mockito.withSettings().extraInterfaces(HasScanSupport.class));
+        Mockito.doThrow(new Exception("down")).when((HasScanSupport) scanStorage)
+                .scanItems(Mockito.eq(KEY), Mockito.any(Consumer.class));
+        Assert.assertFalse(new UserStorageWrapper(scanStorage).scanItemsWhile(KEY, batch -> true));
+        Assert.assertFalse(_userStorageWrapper.scanItemsWhile(KEY, batch -> true));
+    }
+
     @Test
     public void testDisconnectFailed() throws Exception {
         Mockito.when(_customStorageWrapper.disconnect()).thenThrow(Exception.class);
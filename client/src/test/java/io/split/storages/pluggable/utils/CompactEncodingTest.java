@@ -0,0 +1,121 @@
+package io.split.storages.pluggable.utils;
+
+import io.split.client.dtos.Event;
+import io.split.client.dtos.KeyImpression;
+import io.split.client.dtos.Metadata;
+import io.split.client.utils.Json;
+import io.split.storages.pluggable.domain.EventConsumer;
+import io.split.storages.pluggable.domain.ImpressionConsumer;
+import io.split.storages.pluggable.domain.ImpressionDto;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class CompactEncodingTest {
+
+    private static final Metadata METADATA = new Metadata("java-4.8.1", "host-1", "10.0.0.1");
+
+    @Test
+    public void impressionsRoundTrip() {
+        List<KeyImpression> impressions = new ArrayList<>();
+        impressions.add(keyImpression("key-1", null, "flag_a", "on", "in segment all", 1700000000000L, 1L));
+        impressions.add(keyImpression("key-2", "bucket", "flag_b", "off", null, 1699999999000L, null));
+        impressions.add(keyImpression("ключ-3", null, "flag_a", "on", "in segment all", 1700000005000L, -1L));
+
+        String item = CompactEncoding.encodeImpressions(METADATA, impressions);
+        Assert.assertTrue(CompactEncoding.isCompact(item));
+
+        List<ImpressionConsumer> decoded = CompactEncoding.decodeImpressions(item);
+        Assert.assertEquals(3, decoded.size());
+        for (int i = 0; i < impressions.size(); i++) {
+            KeyImpression expected = impressions.get(i);
+            ImpressionDto actual = decoded.get(i).getKeyImpression();
+            Assert.assertEquals(expected.feature, actual.feature);
+            Assert.assertEquals(expected.keyName, actual.keyName);
+            Assert.assertEquals(expected.bucketingKey, actual.bucketingKey);
+            Assert.assertEquals(expected.treatment, actual.treatment);
+            Assert.assertEquals(expected.label, actual.label);
+            Assert.assertEquals(expected.time, actual.time);
+            Assert.assertEquals(expected.changeNumber, actual.changeNumber);
+            Assert.assertEquals(METADATA.getSdkVersion(), decoded.get(i).getMetadata().getSdkVersion());
+            Assert.assertEquals(METADATA.getHostname(), decoded.get(i).getMetadata().getHostname());
+            Assert.assertEquals(METADATA.getIp(), decoded.get(i).getMetadata().getIp());
+        }
+    }
+
+    @Test
+    public void compactBatchIsSmallerThanJson() {
+        List<KeyImpression> impressions = new ArrayList<>();
+        int jsonSize = 0;
+        for (int i = 0; i < 100; i++) {
+            KeyImpression impression = keyImpression("user-" + i, null, "flag_" + (i % 5), "on", "default rule", 1700000000000L + i, 123L);
+            impressions.add(impression);
+            jsonSize += Json.toJson(new ImpressionConsumer(METADATA, impression)).length();
+        }
+        Assert.assertTrue(CompactEncoding.encodeImpressions(METADATA, impressions).length() * 3 < jsonSize);
+    }
+
+    @Test
+    public void eventsRoundTrip() {
+        Event event = new Event();
+        event.eventTypeId = "purchase";
+        event.trafficTypeName = "user";
+        event.key = "key-1";
+        event.value = 12.5;
+        event.timestamp = 1700000000000L;
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("currency", "USD");
+        event.properties = properties;
+        Event noProperties = new Event();
+        noProperties.eventTypeId = "view";
+        noProperties.trafficTypeName = "user";
+        noProperties.key = "key-2";
+
+        List<EventConsumer> decoded = CompactEncoding.decodeEvents(CompactEncoding.encodeEvents(METADATA, Arrays.asList(event, noProperties)));
+        Assert.assertEquals(2, decoded.size());
+        Assert.assertEquals(event, decoded.get(0).getEventDto());
+        Assert.assertEquals(properties, decoded.get(0).getEventDto().properties);
+        Assert.assertEquals(noProperties, decoded.get(1).getEventDto());
+        Assert.assertNull(decoded.get(1).getEventDto().properties);
+        Assert.assertEquals("host-1", decoded.get(1).getMetadata().getHostname());
+    }
+
+    @Test
+    public void decodesJsonItems() {
+        KeyImpression impression = keyImpression("key-1", null, "flag_a", "on", "label", 1L, 2L);
+        List<ImpressionConsumer> impressions = CompactEncoding.decodeImpressions(Json.toJson(new ImpressionConsumer(METADATA, impression)));
+        Assert.assertEquals(1, impressions.size());
+        Assert.assertEquals("key-1", impressions.get(0).getKeyImpression().keyName);
+
+        Event event = new Event();
+        event.key = "key-1";
+        List<EventConsumer> events = CompactEncoding.decodeEvents(Json.toJson(new EventConsumer(METADATA, event)));
+        Assert.assertEquals(Collections.singletonList(event), Collections.singletonList(events.get(0).getEventDto()));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsTruncatedItems() {
+        String item = CompactEncoding.encodeImpressions(METADATA,
+                Collections.singletonList(keyImpression("key-1", null, "flag_a", "on", "label", 1L, 2L)));
+        CompactEncoding.decodeImpressions(item.substring(0, item.length() - 8));
+    }
+
+    private static KeyImpression keyImpression(String key, String bucketingKey, String feature, String treatment, String label,
+                                               long time, Long changeNumber) {
+        KeyImpression impression = new KeyImpression();
+        impression.keyName = key;
+        impression.bucketingKey = bucketingKey;
+        impression.feature = feature;
+        impression.treatment = treatment;
+        impression.label = label;
+        impression.time = time;
+        impression.changeNumber = changeNumber;
+        return impression;
+    }
+}
@@ -0,0 +1,153 @@
+package io.split.storages.spool;
+
+import io.split.service.PostResult;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+public class DiskSpoolTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testReplayInOrderAndDelete() throws Exception {
+        String directory = folder.getRoot().getAbsolutePath();
+        DiskSpool spool = new DiskSpool(directory, 1024 * 1024, true, null, "test-%d");
+        Assert.assertTrue(spool.append("first"));
+        Assert.assertTrue(spool.append("second ñ"));
+
+        List<String> replayed = new ArrayList<>();
+        spool.replay(collect(replayed));
+        Assert.assertEquals(Arrays.asList("first", "second ñ"), replayed);
+        Assert.assertEquals(0, spool.size());
+        Assert.assertEquals(0, folder.getRoot().listFiles().length);
+    }
+
+    @Test
+    public void testFailedRecordIsRetriedWithoutRepeatingHandledOnes() throws Exception {
+        DiskSpool spool = new DiskSpool(folder.getRoot().getAbsolutePath(), 1024 * 1024, false, null, "test-%d");
+        spool.append("a");
+        spool.append("b");
+        spool.append("c");
+
+        List<String> replayed = new ArrayList<>();
+        spool.replay(record -> record.equals("b") ? PostResult.RETRIABLE : collect(replayed).apply(record));
+        Assert.assertEquals(Arrays.asList("a"), replayed);
+        Assert.assertTrue(spool.size() > 0);
+
+        spool.replay(collect(replayed));
+        Assert.assertEquals(Arrays.asList("a", "b", "c"), replayed);
+        Assert.assertEquals(0, spool.size());
+    }
+
+    @Test
+    public void testRecordTheHandlerThrowsOnIsSkipped() throws Exception {
+        DiskSpool spool = new DiskSpool(folder.getRoot().getAbsolutePath(), 1024 * 1024, false, null, "test-%d");
+        spool.append("a");
+        spool.append("unreadable");
+        spool.append("c");
+
+        List<String> replayed = new ArrayList<>();
+        spool.replay(record -> {
+            if (record.equals("unreadable")) {
+                throw new IllegalStateException("bad record");
+            }
+            return collect(replayed).apply(record);
+        });
+        Assert.assertEquals(Arrays.asList("a", "c"), replayed);
+        Assert.assertEquals(1, spool.getDropped());
+        Assert.assertEquals(0, spool.size());
+    }
+
+    @Test
+    public void testRejectedRecordIsDroppedWithoutBlockingTheOthers() throws Exception {
+        DiskSpool spool = new DiskSpool(folder.getRoot().getAbsolutePath(), 1024 * 1024, false, null, "test-%d");
+        spool.append("a");
+        spool.append("too large");
+        spool.append("c");
+
+        List<String> replayed = new ArrayList<>();
+        spool.replay(record -> record.equals("too large") ? PostResult.REJECTED : collect(replayed).apply(record));
+        Assert.assertEquals(Arrays.asList("a", "c"), replayed);
+        Assert.assertEquals(1, spool.getDropped());
+        Assert.assertEquals(0, spool.size());
+    }
+
+    @Test
+    public void testQuota() {
+        DiskSpool spool = new DiskSpool(folder.getRoot().getAbsolutePath(), 30, false, null, "test-%d");
+        Assert.assertTrue(spool.append("0123456789"));
+        Assert.assertFalse(spool.append("0123456789abcdef"));
+        Assert.assertEquals(1, spool.getDropped());
+        Assert.assertEquals(18, spool.size());
+    }
+
+    @Test
+    public void testHandedOffItemsAreSpooledInBatches() throws Exception {
+        DiskSpool spool = new DiskSpool(folder.getRoot().getAbsolutePath(), 1024 * 1024, false, null, "test-%d");
+        Consumer<String> handOff = spool.handOff(1500, batch -> String.join(",", batch));
+        for (int i = 0; i < 1200; i++) {
+            handOff.accept("item" + i);
+        }
+        Assert.assertEquals(0, spool.size());
+
+        spool.drainHandOffs();
+        List<String> replayed = new ArrayList<>();
+        spool.replay(collect(replayed));
+        Assert.assertEquals(2, replayed.size());
+        Assert.assertEquals(1000, replayed.get(0).split(",").length);
+        Assert.assertEquals(200, replayed.get(1).split(",").length);
+        Assert.assertTrue(replayed.get(0).startsWith("item0,item1,"));
+    }
+
+    @Test
+    public void testHandOffDropsItemsOverItsCapacity() {
+        DiskSpool spool = new DiskSpool(folder.getRoot().getAbsolutePath(), 1024 * 1024, false, null, "test-%d");
+        Consumer<String> handOff = spool.handOff(2, batch -> String.join(",", batch));
+        handOff.accept("a");
+        handOff.accept("b");
+        handOff.accept("c");
+        Assert.assertEquals(1, spool.getDropped());
+
+        spool.stop();
+        Assert.assertTrue(spool.size() > 0);
+    }
+
+    @Test
+    public void testSegmentsSurviveRestartAndTornWritesAreSkipped() throws Exception {
+        String directory = folder.getRoot().getAbsolutePath();
+        DiskSpool spool = new DiskSpool(directory, 1024 * 1024, false, null, "test-%d");
+        spool.append("kept");
+        spool.append("torn");
+        spool.stop();
+
+        File segment = folder.getRoot().listFiles()[0];
+        try (RandomAccessFile file = new RandomAccessFile(segment, "rw")) {
+            file.setLength(file.length() - 3);
+        }
+
+        DiskSpool restarted = new DiskSpool(directory, 1024 * 1024, false, null, "test-%d");
+        Assert.assertEquals(segment.length(), restarted.size());
+        restarted.append("new");
+        List<String> replayed = new ArrayList<>();
+        restarted.replay(collect(replayed));
+        Assert.assertEquals(Arrays.asList("kept", "new"), replayed);
+    }
+
+    private static Function<String, PostResult> collect(List<String> replayed) {
+        return record -> {
+            replayed.add(record);
+            return PostResult.ACCEPTED;
+        };
+    }
+}
@@ -0,0 +1,18 @@
+package pluggable;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+public interface HasScanSupport {
+    /**
+     * Walks the keys matching the prefix in batches, handing each batch to the consumer as soon as it is read,
+     * instead of collecting every key before returning. A key may be handed more than once.
+     */
+    void scanKeysByPrefix(String prefix, Consumer<List<String>> keysConsumer) throws Exception;
+
+    /**
+     * Walks the members of the set stored at the key in batches, handing each batch to the consumer as soon as it is read.
+     * A member may be handed more than once.
+     */
+    void scanItems(String key, Consumer<List<String>> itemsConsumer) throws Exception;
+}
@@ -27,4 +27,34 @@ public class NotPipelinedImpl implements Pipeline {
     public void hIncrement(String key, String field, long value) {
         _methods.add(() -> { return  _storage.hIncrement(key, field, value);});
     }
+
+    @Override
+    public void itemContains(String key, String item) {
+        _methods.add(() -> { return  _storage.itemContains(key, item);});
+    }
+
+    @Override
+    public void get(String key) {
+        _methods.add(() -> { return  _storage.get(key);});
+    }
+
+    @Override
+    public void getMany(List<String> keys) {
+        _methods.add(() -> { return  _storage.getMany(keys);});
+    }
+
+    @Override
+    public void pushItems(String key, List<String> items) {
+        _methods.add(() -> { return  _storage.pushItems(key, items);});
+    }
+
+    @Override
+    public void addItems(String key, List<String> items) {
+        _methods.add(() -> { _storage.addItems(key, items); return null;});
+    }
+
+    @Override
+    public void removeItems(String key, List<String> items) {
+        _methods.add(() -> { _storage.removeItems(key, items); return null;});
+    }
 }
@@ -2,7 +2,47 @@ package pluggable;
 
 import java.util.List;
 
-public interface Pipeline {
+/**
+ * Queues storage operations and runs them together on {@link #exec()}, which returns one result per
+ * queued operation, in order.
+ *
+ * Only exec and hIncrement must be implemented. The other operations were added later: their defaults
+ * throw UnsupportedOperationException, and the SDK then runs those operations on the storage directly,
+ * so pipelines written against earlier versions keep working.
+ */
+public interface Pipeline extends AutoCloseable {
     List<Result> exec() throws Exception;
     void hIncrement(String key, String field, long value);
+
+    default void itemContains(String key, String item) {
+        throw new UnsupportedOperationException("itemContains");
+    }
+
+    default void get(String key) {
+        throw new UnsupportedOperationException("get");
+    }
+
+    default void getMany(List<String> keys) {
+        throw new UnsupportedOperationException("getMany");
+    }
+
+    default void pushItems(String key, List<String> items) {
+        throw new UnsupportedOperationException("pushItems");
+    }
+
+    default void addItems(String key, List<String> items) {
+        throw new UnsupportedOperationException("addItems");
+    }
+
+    default void removeItems(String key, List<String> items) {
+        throw new UnsupportedOperationException("removeItems");
+    }
+
+    /**
+     * Discards the queued commands without running them and releases whatever the pipeline holds.
+     * Pipelines that hold nothing between calls can keep this default.
+     */
+    @Override
+    default void close() {
+    }
 }
@@ -1,5 +1,6 @@
 package pluggable;
 
+import java.util.List;
 import java.util.Optional;
 
 public class Result {
@@ -22,4 +23,19 @@ public class Result {
         }
         return Optional.empty();
     }
+
+    public Optional<Boolean> asBoolean() {
+        if (_item instanceof Boolean) {
+            return Optional.ofNullable((Boolean)_item);
+        }
+        return Optional.empty();
+    }
+
+    @SuppressWarnings("unchecked")
+    public Optional<List<String>> asList() {
+        if (_item instanceof List) {
+            return Optional.ofNullable((List<String>)_item);
+        }
+        return Optional.empty();
+    }
 }
@@ -3,20 +3,32 @@ package redis;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import pluggable.CustomStorageWrapper;
+import pluggable.HasScanSupport;
 import pluggable.Pipeline;
 import redis.clients.jedis.JedisCluster;
+import redis.clients.jedis.params.ScanParams;
+import redis.clients.jedis.resps.ScanResult;
+import redis.clients.jedis.util.JedisClusterCRC16;
 import redis.common.CommonRedis;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
-class RedisCluster implements CustomStorageWrapper {
+class RedisCluster implements CustomStorageWrapper, HasScanSupport {
     private final CommonRedis _commonRedis;
     private final JedisCluster jedis;
+    private final int _scanCount;
 
     public static final String DEFAULT_HASHTAG = "{SPLITIO}" ;
+    static final int MGET_BATCH_SIZE = 500;
 
     private static final Logger _log = LoggerFactory.getLogger(RedisCluster.class);
 
@@ -42,8 +54,13 @@ class RedisCluster implements CustomStorageWrapper {
     }
 
     public RedisCluster(JedisCluster jedisCluster, String prefix, String hashtag) {
+        this(jedisCluster, prefix, hashtag, CommonRedis.DEFAULT_SCAN_COUNT);
+    }
+
+    public RedisCluster(JedisCluster jedisCluster, String prefix, String hashtag, int scanCount) {
         this.jedis = jedisCluster;
         _commonRedis = CommonRedis.create(validateHashtag(hashtag) + prefix);
+        _scanCount = scanCount;
     }
 
     @Override
@@ -63,7 +80,7 @@ class RedisCluster implements CustomStorageWrapper {
         try {
             keys = keys.stream().map(key -> _commonRedis.buildKeyWithPrefix(key)).collect(Collectors.toList());
 
-            return jedis.mget(keys.toArray(new String[keys.size()]));
+            return mgetBySlot(keys, MGET_BATCH_SIZE, jedis::mget);
         } catch (Exception ex) {
             throw new RedisException(ex.getMessage());
         }
@@ -118,10 +135,44 @@ class RedisCluster implements CustomStorageWrapper {
 
     @Override
     public Set<String> getKeysByPrefix(String prefix) throws Exception {
+        Set<String> keysWithPrefix = new HashSet<>();
+        scanKeysByPrefix(prefix, keysWithPrefix::addAll);
+        return keysWithPrefix;
+    }
+
+    @Override
+    public void scanKeysByPrefix(String prefix, Consumer<List<String>> keysConsumer) throws Exception {
+        ScanParams params = new ScanParams().match(_commonRedis.buildKeyWithPrefix(prefix)).count(_scanCount);
+        String cursor = ScanParams.SCAN_POINTER_START;
         try {
-            Set<String> keysWithPrefix = jedis.keys(_commonRedis.buildKeyWithPrefix(prefix));
-            keysWithPrefix = keysWithPrefix.stream().map(key -> key.replace(_commonRedis.getPrefix() + ".", "")).collect(Collectors.toSet());
-            return keysWithPrefix;
+            // every key carries the hashtag, so the cluster routes the scan to the one master owning its slot
+            do {
+                ScanResult<String> result = jedis.scan(cursor, params);
+                List<String> keys = result.getResult().stream().map(key -> key.replace(_commonRedis.getPrefix() + ".", ""))
+                        .collect(Collectors.toList());
+                if (!keys.isEmpty()) {
+                    keysConsumer.accept(keys);
+                }
+                cursor = result.getCursor();
+            } while (!ScanParams.SCAN_POINTER_START.equals(cursor));
+        } catch (Exception ex) {
+            throw new RedisException(ex.getMessage());
+        }
+    }
+
+    @Override
+    public void scanItems(String key, Consumer<List<String>> itemsConsumer) throws Exception {
+        ScanParams params = new ScanParams().count(_scanCount);
+        String keyWithPrefix = _commonRedis.buildKeyWithPrefix(key);
+        String cursor = ScanParams.SCAN_POINTER_START;
+        try {
+            do {
+                ScanResult<String> result = jedis.sscan(keyWithPrefix, cursor, params);
+                if (!result.getResult().isEmpty()) {
+                    itemsConsumer.accept(result.getResult());
+                }
+                cursor = result.getCursor();
+            } while (!ScanParams.SCAN_POINTER_START.equals(cursor));
         } catch (Exception ex) {
             throw new RedisException(ex.getMessage());
         }
@@ -225,12 +276,39 @@ class RedisCluster implements CustomStorageWrapper {
         try {
             keys = keys.stream().map(key -> _commonRedis.buildKeyWithPrefix(key)).collect(Collectors.toList());
 
-            return jedis.mget(keys.toArray(new String[keys.size()]));
+            return mgetBySlot(keys, MGET_BATCH_SIZE, jedis::mget);
         } catch (Exception ex) {
             throw new RedisException(ex.getMessage());
         }
     }
 
+    /**
+     * Reads the keys with one MGET per hash slot, as the cluster rejects an MGET spanning slots, and in chunks
+     * of at most batchSize keys so a large read does not hold the owning node for long. The values come back
+     * in the order of the keys.
+     */
+    static List<String> mgetBySlot(List<String> keys, int batchSize, Function<String[], List<String>> mget) {
+        Map<Integer, List<Integer>> positionsBySlot = new LinkedHashMap<>();
+        for (int i = 0; i < keys.size(); i++) {
+            positionsBySlot.computeIfAbsent(JedisClusterCRC16.getSlot(keys.get(i)), slot -> new ArrayList<>()).add(i);
+        }
+        String[] values = new String[keys.size()];
+        for (List<Integer> positions : positionsBySlot.values()) {
+            for (int from = 0; from < positions.size(); from += batchSize) {
+                List<Integer> chunk = positions.subList(from, Math.min(from + batchSize, positions.size()));
+                String[] chunkKeys = new String[chunk.size()];
+                for (int i = 0; i < chunkKeys.length; i++) {
+                    chunkKeys[i] = keys.get(chunk.get(i));
+                }
+                List<String> chunkValues = mget.apply(chunkKeys);
+                for (int i = 0; i < chunkKeys.length; i++) {
+                    values[chunk.get(i)] = chunkValues.get(i);
+                }
+            }
+        }
+        return new ArrayList<>(Arrays.asList(values));
+    }
+
     @Override
     public boolean connect() throws Exception {
         try {
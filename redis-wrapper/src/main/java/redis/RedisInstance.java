@@ -5,6 +5,7 @@ import pluggable.CustomStorageWrapper;
 import redis.clients.jedis.JedisCluster;
 import redis.clients.jedis.JedisPool;
 import redis.clients.jedis.JedisPoolConfig;
+import redis.common.CommonRedis;
 
 public class RedisInstance {
 
@@ -19,19 +20,19 @@ public class RedisInstance {
     }
 
     private static CustomStorageWrapper getRedisInstance(String host, int port, int timeout, String password, int database,
-                                                         String prefix, int maxTotal) {
+                                                         String prefix, int maxTotal, int scanCount) {
         JedisPoolConfig poolConfig = new JedisPoolConfig();
         poolConfig.setMaxTotal(maxTotal);
         JedisPool jedisPool = new JedisPool(poolConfig, host, port, timeout, password, database);
-        return new RedisSingle(jedisPool, prefix);
+        return new RedisSingle(jedisPool, prefix, scanCount);
     }
 
-    private static CustomStorageWrapper getRedisInstance(JedisPool jedisPool, String prefix) {
-        return new RedisSingle(jedisPool, prefix);
+    private static CustomStorageWrapper getRedisInstance(JedisPool jedisPool, String prefix, int scanCount) {
+        return new RedisSingle(jedisPool, prefix, scanCount);
     }
 
-    private static CustomStorageWrapper getRedisInstance(JedisCluster jedisCluster, String prefix, String hashtag) {
-        return new RedisCluster(jedisCluster, prefix, hashtag);
+    private static CustomStorageWrapper getRedisInstance(JedisCluster jedisCluster, String prefix, String hashtag, int scanCount) {
+        return new RedisCluster(jedisCluster, prefix, hashtag, scanCount);
     }
 
     public static final class Builder {
@@ -46,6 +47,7 @@ public class RedisInstance {
         private JedisPool _jedisPool = null;
         private JedisCluster _jedisCluster = null;
         private int _maxTotal = GenericObjectPoolConfig.DEFAULT_MAX_TOTAL;
+        private int _scanCount = CommonRedis.DEFAULT_SCAN_COUNT;
 
         public Builder timeout(int timeout) {
             _timeout = timeout;
@@ -102,14 +104,26 @@ public class RedisInstance {
             return this;
         }
 
+        /**
+         * Number of keys asked to Redis on each SCAN step when listing keys by prefix. Larger values need
+         * fewer round trips, smaller ones keep each step shorter on the server.
+         */
+        public Builder scanCount(int scanCount) {
+            _scanCount = scanCount;
+            return this;
+        }
+
         public CustomStorageWrapper build() {
+            if(_scanCount <= 0) {
+                throw new IllegalArgumentException("scanCount must be > 0: " + _scanCount);
+            }
             if(_jedisPool != null) {
-                return RedisInstance.getRedisInstance(_jedisPool, _prefix);
+                return RedisInstance.getRedisInstance(_jedisPool, _prefix, _scanCount);
             }
             if(_jedisCluster != null) {
-                return RedisInstance.getRedisInstance(_jedisCluster, _prefix, _hashtag);
+                return RedisInstance.getRedisInstance(_jedisCluster, _prefix, _hashtag, _scanCount);
             }
-            return RedisInstance.getRedisInstance(_host, _port, _timeout, _password, _database, _prefix, _maxTotal);
+            return RedisInstance.getRedisInstance(_host, _port, _timeout, _password, _database, _prefix, _maxTotal, _scanCount);
         }
     }
 }
\ No newline at end of file
@@ -6,27 +6,67 @@ import redis.clients.jedis.JedisPool;
 import redis.clients.jedis.Pipeline;
 import redis.common.CommonRedis;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
 
+/**
+ * Queues commands on one pooled connection and sends them in a single round trip on {@link #exec()}.
+ * The connection is taken from the pool by the first queued command and held until exec or
+ * {@link #close()} returns it.
+ */
 public class RedisPipeline implements pluggable.Pipeline {
+    private Jedis _jedis;
     private Pipeline _pipelined;
     private final JedisPool _jedisPool;
     private final CommonRedis _commonRedis;
+    // positions of impression and event pushes, which set the key TTL when they created the list
+    private final List<PendingPush> _pendingPushes;
+    private int _queued;
 
-    public RedisPipeline(JedisPool jedisPool, String prefix) throws RedisException {
+    public RedisPipeline(JedisPool jedisPool, String prefix) {
         _jedisPool = jedisPool;
         _commonRedis = CommonRedis.create(prefix);
-        try (Jedis jedis = _jedisPool.getResource()) {
-            _pipelined = jedis.pipelined();
-        } catch (Exception ex) {
-            throw new RedisException(ex.getMessage());
-        }
+        _pendingPushes = new ArrayList<>();
     }
 
     @Override
     public void hIncrement(String key, String field, long value) {
-        _pipelined.hincrBy(_commonRedis.buildKeyWithPrefix(key), field, value);
+        queue().hincrBy(_commonRedis.buildKeyWithPrefix(key), field, value);
+    }
+
+    @Override
+    public void itemContains(String key, String item) {
+        queue().sismember(_commonRedis.buildKeyWithPrefix(key), item);
+    }
+
+    @Override
+    public void get(String key) {
+        queue().get(_commonRedis.buildKeyWithPrefix(key));
+    }
+
+    @Override
+    public void getMany(List<String> keys) {
+        List<String> keysWithPrefix = keys.stream().map(key -> _commonRedis.buildKeyWithPrefix(key)).collect(Collectors.toList());
+        queue().mget(keysWithPrefix.toArray(new String[keysWithPrefix.size()]));
+    }
+
+    @Override
+    public void pushItems(String key, List<String> items) {
+        if(CommonRedis.EVENTS_KEY.equals(key) || CommonRedis.IMPRESSIONS_KEY.equals(key)) {
+            _pendingPushes.add(new PendingPush(_commonRedis.buildKeyWithPrefix(key), items.size(), _queued));
+        }
+        queue().rpush(_commonRedis.buildKeyWithPrefix(key), items.toArray(new String[items.size()]));
+    }
+
+    @Override
+    public void addItems(String key, List<String> items) {
+        queue().sadd(_commonRedis.buildKeyWithPrefix(key), items.toArray(new String[items.size()]));
+    }
+
+    @Override
+    public void removeItems(String key, List<String> items) {
+        queue().srem(_commonRedis.buildKeyWithPrefix(key), items.toArray(new String[items.size()]));
     }
 
     public void delete(List<String> keys) throws RedisException {
@@ -44,11 +84,73 @@ public class RedisPipeline implements pluggable.Pipeline {
 
     @Override
     public List<Result> exec() throws Exception {
+        if (_jedis == null) {
+            return new ArrayList<>();
+        }
         try{
-            List<Object> executionResult = _pipelined.syncAndReturnAll();
+            Pipeline pipelined = pipelined();
+            List<Object> executionResult = pipelined.syncAndReturnAll();
+            boolean expire = false;
+            for (PendingPush push : _pendingPushes) {
+                Object added = executionResult.get(push._position);
+                if (added instanceof Long && (Long) added == push._size) {
+                    pipelined.pexpire(push._key, CommonRedis.IMPRESSIONS_OR_EVENTS_DEFAULT_TTL);
+                    expire = true;
+                }
+            }
+            if (expire) {
+                pipelined.sync();
+            }
             return executionResult.stream().map(i -> new Result(i)).collect(Collectors.toList());
         } catch (Exception e) {
             throw new RedisException(e.getMessage());
+        } finally {
+            release();
+        }
+    }
+
+    @Override
+    public void close() {
+        if (_jedis != null && _queued > 0) {
+            // the pool would send the queued commands when taking the connection back, so it is discarded instead
+            _jedis.getConnection().setBroken();
+        }
+        release();
+    }
+
+    private Pipeline pipelined() {
+        if (_jedis == null) {
+            _jedis = _jedisPool.getResource();
+            _pipelined = _jedis.pipelined();
+        }
+        return _pipelined;
+    }
+
+    private Pipeline queue() {
+        Pipeline pipelined = pipelined();
+        _queued++;
+        return pipelined;
+    }
+
+    private void release() {
+        _pendingPushes.clear();
+        _queued = 0;
+        if (_jedis != null) {
+            _jedis.close();
+            _jedis = null;
+            _pipelined = null;
+        }
+    }
+
+    private static final class PendingPush {
+        private final String _key;
+        private final int _size;
+        private final int _position;
+
+        PendingPush(String key, int size, int position) {
+            _key = key;
+            _size = size;
+            _position = position;
         }
     }
-}
\ No newline at end of file
+}
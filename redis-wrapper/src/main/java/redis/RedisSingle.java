@@ -1,24 +1,35 @@
 package redis;
 
 import pluggable.CustomStorageWrapper;
+import pluggable.HasScanSupport;
 import pluggable.HasPipelineSupport;
 import pluggable.Pipeline;
 import redis.clients.jedis.Jedis;
 import redis.clients.jedis.JedisPool;
+import redis.clients.jedis.params.ScanParams;
+import redis.clients.jedis.resps.ScanResult;
 import redis.common.CommonRedis;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
-class RedisSingle implements CustomStorageWrapper, HasPipelineSupport {
+class RedisSingle implements CustomStorageWrapper, HasPipelineSupport, HasScanSupport {
     private final CommonRedis _commonRedis;
     private final JedisPool jedisPool;
+    private final int _scanCount;
 
     public RedisSingle(JedisPool jedisPool, String prefix) {
+        this(jedisPool, prefix, CommonRedis.DEFAULT_SCAN_COUNT);
+    }
+
+    public RedisSingle(JedisPool jedisPool, String prefix, int scanCount) {
         this.jedisPool = jedisPool;
         _commonRedis = CommonRedis.create(prefix);
+        _scanCount = scanCount;
     }
 
     @Override
@@ -93,10 +104,49 @@ class RedisSingle implements CustomStorageWrapper, HasPipelineSupport {
 
     @Override
     public Set<String> getKeysByPrefix(String prefix) throws Exception {
-        try (Jedis jedis = this.jedisPool.getResource()) {
-            Set<String> keysWithPrefix = jedis.keys(_commonRedis.buildKeyWithPrefix(prefix));
-            keysWithPrefix = keysWithPrefix.stream().map(key -> key.replace(_commonRedis.getPrefix() + ".", "")).collect(Collectors.toSet());
-            return keysWithPrefix;
+        Set<String> keysWithPrefix = new HashSet<>();
+        scanKeysByPrefix(prefix, keysWithPrefix::addAll);
+        return keysWithPrefix;
+    }
+
+    @Override
+    public void scanKeysByPrefix(String prefix, Consumer<List<String>> keysConsumer) throws Exception {
+        ScanParams params = new ScanParams().match(_commonRedis.buildKeyWithPrefix(prefix)).count(_scanCount);
+        String cursor = ScanParams.SCAN_POINTER_START;
+        try {
+            do {
+                ScanResult<String> result;
+                try (Jedis jedis = this.jedisPool.getResource()) {
+                    result = jedis.scan(cursor, params);
+                }
+                List<String> keys = result.getResult().stream().map(key -> key.replace(_commonRedis.getPrefix() + ".", ""))
+                        .collect(Collectors.toList());
+                if (!keys.isEmpty()) {
+                    keysConsumer.accept(keys);
+                }
+                cursor = result.getCursor();
+            } while (!ScanParams.SCAN_POINTER_START.equals(cursor));
+        } catch (Exception ex) {
+            throw new RedisException(ex.getMessage());
+        }
+    }
+
+    @Override
+    public void scanItems(String key, Consumer<List<String>> itemsConsumer) throws Exception {
+        ScanParams params = new ScanParams().count(_scanCount);
+        String keyWithPrefix = _commonRedis.buildKeyWithPrefix(key);
+        String cursor = ScanParams.SCAN_POINTER_START;
+        try {
+            do {
+                ScanResult<String> result;
+                try (Jedis jedis = this.jedisPool.getResource()) {
+                    result = jedis.sscan(keyWithPrefix, cursor, params);
+                }
+                if (!result.getResult().isEmpty()) {
+                    itemsConsumer.accept(result.getResult());
+                }
+                cursor = result.getCursor();
+            } while (!ScanParams.SCAN_POINTER_START.equals(cursor));
         } catch (Exception ex) {
             throw new RedisException(ex.getMessage());
         }
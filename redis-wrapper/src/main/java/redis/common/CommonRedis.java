@@ -6,6 +6,7 @@ public class CommonRedis {
     public static final String EVENTS_KEY = "SPLITIO.events" ;
     public static final String IMPRESSIONS_KEY = "SPLITIO.impressions" ;
     public static final long IMPRESSIONS_OR_EVENTS_DEFAULT_TTL = 3600000L;
+    public static final int DEFAULT_SCAN_COUNT = 1000;
 
     private final String _prefix;
 
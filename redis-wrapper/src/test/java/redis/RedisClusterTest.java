@@ -0,0 +1,47 @@
+package redis;
+
+import org.junit.Assert;
+import org.junit.Test;
+import redis.clients.jedis.util.JedisClusterCRC16;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+public class RedisClusterTest {
+
+    @Test
+    public void testMgetBySlotKeepsKeyOrder() {
+        List<String> keys = Arrays.asList("a", "b", "c", "d", "e");
+        List<String[]> calls = new ArrayList<>();
+        List<String> values = RedisCluster.mgetBySlot(keys, 10, chunk -> {
+            calls.add(chunk);
+            return Arrays.stream(chunk).map(key -> key.equals("c") ? null : key + "-value").collect(Collectors.toList());
+        });
+
+        Assert.assertEquals(Arrays.asList("a-value", "b-value", null, "d-value", "e-value"), values);
+        for (String[] call : calls) {
+            int slot = JedisClusterCRC16.getSlot(call[0]);
+            for (String key : call) {
+                Assert.assertEquals(slot, JedisClusterCRC16.getSlot(key));
+            }
+        }
+        Assert.assertEquals(keys.stream().map(JedisClusterCRC16::getSlot).distinct().count(), calls.size());
+    }
+
+    @Test
+    public void testMgetBySlotChunksKeysSharingTheHashtag() {
+        List<String> keys = Arrays.asList("{SPLITIO}.split.a", "{SPLITIO}.split.b", "{SPLITIO}.split.c");
+        List<String[]> calls = new ArrayList<>();
+        List<String> values = RedisCluster.mgetBySlot(keys, 2, chunk -> {
+            calls.add(chunk);
+            return Arrays.asList(chunk);
+        });
+
+        Assert.assertEquals(keys, values);
+        Assert.assertEquals(2, calls.size());
+        Assert.assertEquals(2, calls.get(0).length);
+        Assert.assertEquals(1, calls.get(1).length);
+    }
+}
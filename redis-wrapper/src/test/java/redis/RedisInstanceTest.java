@@ -27,4 +27,10 @@ public class RedisInstanceTest {
         Assert.assertNotNull(redisInstance);
     }
 
-}
\ No newline at end of file
+    @Test(expected = IllegalArgumentException.class)
+    public void testRedisInstanceBuilderWithInvalidScanCount() {
+        RedisInstance.builder()
+                .scanCount(0)
+                .build();
+    }
+}
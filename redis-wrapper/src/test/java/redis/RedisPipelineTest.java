@@ -7,6 +7,8 @@ import pluggable.Result;
 import redis.clients.jedis.JedisPool;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 
@@ -27,4 +29,36 @@ public class RedisPipelineTest {
         redisPipeline.delete(keys);
     }
 
-}
\ No newline at end of file
+    @Test
+    public void testQueuedCommandsRunInOneExec() throws Exception {
+        RedisPipeline redisPipeline =  new RedisPipeline(new JedisPool(), "test-prefix");
+        redisPipeline.pushItems("list", Arrays.asList("a", "b"));
+        redisPipeline.addItems("set", Arrays.asList("x", "y", "z"));
+        redisPipeline.removeItems("set", Collections.singletonList("z"));
+        redisPipeline.itemContains("set", "x");
+        redisPipeline.hIncrement("hash", "field", 3L);
+        List<Result> results = redisPipeline.exec();
+        try {
+            Assert.assertEquals(Optional.of(2L), results.get(0).asLong());
+            Assert.assertEquals(Optional.of(3L), results.get(1).asLong());
+            Assert.assertEquals(Optional.of(1L), results.get(2).asLong());
+            Assert.assertEquals(Optional.of(true), results.get(3).asBoolean());
+
+            redisPipeline.get("missing");
+            redisPipeline.getMany(Arrays.asList("list", "missing"));
+            results = redisPipeline.exec();
+            Assert.assertEquals(Optional.empty(), results.get(0).asString());
+            Assert.assertEquals(2, results.get(1).asList().get().size());
+        } finally {
+            redisPipeline.delete(Arrays.asList("list", "set", "hash"));
+        }
+    }
+
+    @Test
+    public void testConnectionIsOnlyTakenByQueuedCommands() throws Exception {
+        // nothing listens on this port, so taking a connection would fail
+        RedisPipeline redisPipeline = new RedisPipeline(new JedisPool("localhost", 1), "test-prefix");
+        Assert.assertTrue(redisPipeline.exec().isEmpty());
+        redisPipeline.close();
+    }
+}
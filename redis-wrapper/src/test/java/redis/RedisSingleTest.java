@@ -278,4 +278,29 @@ public class RedisSingleTest {
             storageWrapper.delete(new ArrayList<>(map.keySet()));
         }
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testScanKeysByPrefix() throws Exception {
+        Map<String, String> map = new HashMap<>();
+        for (int i = 0; i < 25; i++) {
+            map.put("scan-" + i, String.valueOf(i));
+        }
+        RedisSingle storageWrapper = new RedisSingle(new JedisPool(), "test-prefix", 10);
+        try {
+            for (Map.Entry<String, String> entry : map.entrySet()) {
+                storageWrapper.set(entry.getKey(), entry.getValue());
+            }
+
+            List<List<String>> batches = new ArrayList<>();
+            storageWrapper.scanKeysByPrefix("scan-*", batches::add);
+            Set<String> scanned = batches.stream().flatMap(List::stream).collect(Collectors.toSet());
+
+            Assert.assertTrue(batches.size() > 1);
+            Assert.assertEquals(map.keySet(), scanned);
+            Assert.assertEquals(map.keySet(), storageWrapper.getKeysByPrefix("scan-*"));
+        }
+        finally {
+            storageWrapper.delete(new ArrayList<>(map.keySet()));
+        }
+    }
+}
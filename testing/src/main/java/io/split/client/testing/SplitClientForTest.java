@@ -5,6 +5,7 @@ import io.split.client.api.Key;
 import io.split.client.api.SplitResult;
 import io.split.grammar.Treatments;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.List;
@@ -132,6 +133,15 @@ public class SplitClientForTest implements SplitClient {
         return treatments;
     }
 
+    @Override
+    public List<String> getTreatmentsForKeys(List<Key> keys, String featureFlagName, Map<String, Object> attributes) {
+        List<String> treatments = new ArrayList<>();
+        for (Key key : keys) {
+            treatments.add(_tests.containsKey(featureFlagName) ? _tests.get(featureFlagName) : Treatments.CONTROL);
+        }
+        return treatments;
+    }
+
     @Override
     public void destroy() {
 